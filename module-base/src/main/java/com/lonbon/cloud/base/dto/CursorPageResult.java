@@ -0,0 +1,61 @@
+package com.lonbon.cloud.base.dto;
+
+import lombok.Data;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * <p>
+ * 下一页以 nextCursor 作为 {@link CursorPageable#getCursor()} 请求；没有下一页时 nextCursor 为空。
+ * </p>
+ *
+ * @param <T> 数据项类型
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Data
+public class CursorPageResult<T> {
+
+    /**
+     * 每页条数
+     */
+    private int size;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasNext;
+
+    /**
+     * 下一页的游标，没有下一页时为空
+     */
+    private @Nullable String nextCursor;
+
+    /**
+     * 总记录数，跳过统计时为空
+     */
+    private @Nullable Long total;
+
+    /**
+     * 数据列表
+     */
+    private List<T> items;
+
+    /**
+     * 构造游标分页结果
+     *
+     * @param pageable   分页参数
+     * @param nextCursor 下一页的游标，没有下一页时为空
+     * @param total      总记录数，跳过统计时为空
+     * @param items      数据列表
+     */
+    public CursorPageResult(CursorPageable pageable, @Nullable String nextCursor, @Nullable Long total, List<T> items) {
+        this.size = pageable.getSize();
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+        this.total = total;
+        this.items = items;
+    }
+}
@@ -0,0 +1,57 @@
+package com.lonbon.cloud.base.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+import org.jspecify.annotations.Nullable;
+import org.springdoc.core.annotations.ParameterObject;
+
+import java.util.List;
+
+/**
+ * 游标分页参数
+ * <p>
+ * 与 {@link Pageable} 的页码分页不同，游标分页以上一页最后一条记录的排序值作为起点（键集分页），
+ * 翻页代价与页码无关，也可以不统计总数。游标由服务端生成，客户端只需原样回传。
+ * 同一组游标必须使用相同的排序参数，排序字段只支持实体自身的属性，最终总是追加按ID升序保证顺序唯一。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Data
+@ParameterObject
+@Schema(description = "游标分页参数")
+public class CursorPageable {
+
+    @Schema(description = "游标，取自上一页结果的 nextCursor，为空表示第一页")
+    private @Nullable String cursor;
+
+    @Schema(description = "每页条数", example = "10", defaultValue = "10")
+    private @Nullable Integer size;
+
+    @Schema(description = "排序规则，格式：字段名.方向（asc/desc），可以接受多个参数，例如：createdAt.desc，当不指定方向时默认 asc",
+            example = "createdAt.desc")
+    private @Nullable List<String> sort;
+
+    @Schema(description = "是否跳过总数统计，大表翻页时建议跳过", defaultValue = "false")
+    private boolean skipCount;
+
+    @Schema(description = "解析后的排序数据，不显示在接口文档中", hidden = true)
+    @Setter(AccessLevel.NONE)   // 内部缓存字段，禁用Setter
+    private @Nullable List<Sortable> sortables;
+
+    public Integer getSize() {
+        if (size == null || size <= 0) size = 10;
+
+        return size;
+    }
+
+    public List<Sortable> getSortables() {
+        if (this.sortables != null) return this.sortables;
+
+        this.sortables = Sortable.parse(this.sort);
+        return this.sortables;
+    }
+}
@@ -0,0 +1,52 @@
+package com.lonbon.cloud.base.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * 层级距离范围
+ * <p>
+ * 用于限定闭包查询中后代节点与祖先节点之间的距离，闭区间 {@code [min, max]}，max 为空表示不限制。
+ * 例如 {@code [1, 1]} 表示直接子节点，{@code [1, null]} 表示所有后代节点。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceRange {
+
+    /**
+     * 最小距离（包含），0表示包含节点自身
+     */
+    private int min = 1;
+
+    /**
+     * 最大距离（包含），为空表示不限制
+     */
+    private @Nullable Integer max;
+
+    /**
+     * 所有后代节点（不包含自身）
+     *
+     * @return 距离范围 {@code [1, +∞)}
+     */
+    public static DistanceRange descendants() {
+        return new DistanceRange(1, null);
+    }
+
+    /**
+     * 指定距离范围
+     *
+     * @param min 最小距离（包含）
+     * @param max 最大距离（包含），为空表示不限制
+     * @return 距离范围
+     */
+    public static DistanceRange of(int min, @Nullable Integer max) {
+        return new DistanceRange(min, max);
+    }
+}
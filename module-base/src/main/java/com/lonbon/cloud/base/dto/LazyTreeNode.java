@@ -0,0 +1,32 @@
+package com.lonbon.cloud.base.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 懒加载树节点
+ * <p>
+ * 用于树形界面逐级展开：每次只返回一层节点，并附带是否存在子节点的标记，
+ * 前端据此决定是否显示展开按钮，无需预先加载下一层。
+ * </p>
+ *
+ * @param <T> 节点数据类型
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LazyTreeNode<T> {
+
+    /**
+     * 节点数据
+     */
+    private T data;
+
+    /**
+     * 是否存在子节点
+     */
+    private boolean hasChildren;
+}
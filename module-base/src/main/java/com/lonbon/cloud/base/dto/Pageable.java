@@ -4,11 +4,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Setter;
-import org.apache.commons.lang3.StringUtils;
 import org.jspecify.annotations.Nullable;
 import org.springdoc.core.annotations.ParameterObject;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -48,41 +46,7 @@ public class Pageable {
     public List<Sortable> getSortables() {
         if (this.sortables != null) return this.sortables;
 
-        this.sortables = new ArrayList<>();
-        if (this.sort == null) return this.sortables;
-
-        for (String s : this.sort) {
-            if (StringUtils.isBlank(s)) continue;
-
-            String trimmed = s.trim();
-            if (StringUtils.isBlank(trimmed)) continue;
-
-            // 提取末尾的方向（asc 或 desc，大小写忽略）
-            String[] parts = trimmed.split("\\.");
-            String lastPart = parts[parts.length - 1].trim().toLowerCase();
-            Sortable.Direction direction = Sortable.Direction.ASC;
-
-            if (lastPart.equals("asc") || lastPart.equals("desc")) {
-                // 去掉末尾的方向部分，其余都是字段名
-                StringBuilder propertyBuilder = new StringBuilder();
-                for (int i = 0; i < parts.length - 1; i++) {
-                    if (i > 0) propertyBuilder.append(".");
-                    propertyBuilder.append(parts[i].trim());
-                }
-                direction = lastPart.equals("desc") ? Sortable.Direction.DESC : Sortable.Direction.ASC;
-                String property = propertyBuilder.toString();
-                if (StringUtils.isNotBlank(property)) {
-                    this.sortables.add(new Sortable(property, direction));
-                }
-            } else {
-                // 没有指定方向，全部都是字段名，默认 asc
-                String property = trimmed;
-                if (StringUtils.isNotBlank(property)) {
-                    this.sortables.add(new Sortable(property, direction));
-                }
-            }
-        }
-
+        this.sortables = Sortable.parse(this.sort);
         return this.sortables;
     }
 
@@ -1,6 +1,11 @@
 package com.lonbon.cloud.base.dto;
 
 import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 public class Sortable {
@@ -18,4 +23,49 @@ public class Sortable {
         this.property = property;
         this.direction = direction;
     }
+
+    /**
+     * 解析排序参数，格式：字段名.方向（asc/desc），不指定方向时默认 asc
+     *
+     * @param sort 排序参数列表
+     * @return 排序规则列表
+     */
+    public static List<Sortable> parse(@Nullable List<String> sort) {
+        List<Sortable> sortables = new ArrayList<>();
+        if (sort == null) return sortables;
+
+        for (String s : sort) {
+            if (StringUtils.isBlank(s)) continue;
+
+            String trimmed = s.trim();
+            if (StringUtils.isBlank(trimmed)) continue;
+
+            // 提取末尾的方向（asc 或 desc，大小写忽略）
+            String[] parts = trimmed.split("\\.");
+            String lastPart = parts[parts.length - 1].trim().toLowerCase();
+            Direction direction = Direction.ASC;
+
+            if (lastPart.equals("asc") || lastPart.equals("desc")) {
+                // 去掉末尾的方向部分，其余都是字段名
+                StringBuilder propertyBuilder = new StringBuilder();
+                for (int i = 0; i < parts.length - 1; i++) {
+                    if (i > 0) propertyBuilder.append(".");
+                    propertyBuilder.append(parts[i].trim());
+                }
+                direction = lastPart.equals("desc") ? Direction.DESC : Direction.ASC;
+                String property = propertyBuilder.toString();
+                if (StringUtils.isNotBlank(property)) {
+                    sortables.add(new Sortable(property, direction));
+                }
+            } else {
+                // 没有指定方向，全部都是字段名，默认 asc
+                String property = trimmed;
+                if (StringUtils.isNotBlank(property)) {
+                    sortables.add(new Sortable(property, direction));
+                }
+            }
+        }
+
+        return sortables;
+    }
 }
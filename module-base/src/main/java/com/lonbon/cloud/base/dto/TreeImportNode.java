@@ -0,0 +1,39 @@
+package com.lonbon.cloud.base.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * 树形批量导入节点
+ * <p>
+ * 导入数据以父子链接的列表表示：每个节点有一个在本次导入中唯一的 key，
+ * 通过 parentKey 引用同一批次中的父节点；parentKey 为空的节点挂到导入时指定的父节点下（未指定时作为根节点）。
+ * key 不能为空、不能重复，父子引用不能形成环，由导入方法统一校验。
+ * </p>
+ *
+ * @param <D> 节点数据类型，通常为实体的创建DTO或实体本身
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TreeImportNode<D> {
+
+    /**
+     * 节点在本次导入中的唯一标识
+     */
+    private String key;
+
+    /**
+     * 父节点在本次导入中的标识，为空表示挂到导入的父节点下
+     */
+    private @Nullable String parentKey;
+
+    /**
+     * 节点数据
+     */
+    private D data;
+}
@@ -0,0 +1,39 @@
+package com.lonbon.cloud.base.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 树节点
+ * <p>
+ * 用于封装树形查询的结果，每个节点包含实体数据和直接子节点列表。
+ * </p>
+ *
+ * @param <T> 节点数据类型
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Data
+public class TreeNode<T> {
+
+    /**
+     * 节点数据
+     */
+    private T data;
+
+    /**
+     * 直接子节点列表
+     */
+    private List<TreeNode<T>> children = new ArrayList<>();
+
+    /**
+     * 构造树节点
+     *
+     * @param data 节点数据
+     */
+    public TreeNode(T data) {
+        this.data = data;
+    }
+}
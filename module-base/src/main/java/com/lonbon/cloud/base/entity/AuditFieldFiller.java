@@ -0,0 +1,79 @@
+package com.lonbon.cloud.base.entity;
+
+import com.lonbon.cloud.base.satoken.SaTokenHelper;
+import org.jspecify.annotations.Nullable;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 插入时审计字段和租户ID的填充规则
+ * <p>
+ * 逐条插入（{@link DefaultEntityInterceptor}）和批量插入、INSERT ... SELECT（{@code BulkInserter}）共用：
+ * 已有值的字段保持不变，创建/更新时间取创建本对象时的当前时间，登录用户和租户在第一次需要时读取并复用。
+ * 一个对象只用于一次插入操作，不要跨请求复用。
+ * </p>
+ */
+public final class AuditFieldFiller {
+
+    private final OffsetDateTime now = OffsetDateTime.now();
+
+    private @Nullable UUID currentUserId;
+
+    private @Nullable UUID currentTenantId;
+
+    /**
+     * 填充创建/更新时间、创建/更新人和租户ID中为空的字段
+     *
+     * @param baseEntity 待插入的实体
+     */
+    public void fill(BaseEntity baseEntity) {
+        if (baseEntity.getCreatedAt() == null) {
+            baseEntity.setCreatedAt(now);
+        }
+        if (baseEntity.getCreatedBy() == null) {
+            baseEntity.setCreatedBy(currentUserId());
+        }
+        if (baseEntity.getUpdatedAt() == null) {
+            baseEntity.setUpdatedAt(now);
+        }
+        if (baseEntity.getUpdatedBy() == null) {
+            baseEntity.setUpdatedBy(currentUserId());
+        }
+        if (baseEntity.getTenantId() == null) {
+            baseEntity.setTenantId(currentTenantId());
+        }
+    }
+
+    /**
+     * 按属性名返回插入时填充的创建/更新时间、创建/更新人和租户ID，用于由SQL查询生成、不经过实体的行
+     *
+     * @return 属性名到取值的映射
+     */
+    public Map<String, Object> values() {
+        return Map.of(BaseEntity.Fields.createdAt, now,
+                      BaseEntity.Fields.createdBy, currentUserId(),
+                      BaseEntity.Fields.updatedAt, now,
+                      BaseEntity.Fields.updatedBy, currentUserId(),
+                      BaseEntity.Fields.tenantId, currentTenantId());
+    }
+
+    private UUID currentUserId() {
+        UUID userId = currentUserId;
+        if (userId == null) {
+            userId = SaTokenHelper.getLoginId();
+            currentUserId = userId;
+        }
+        return userId;
+    }
+
+    private UUID currentTenantId() {
+        UUID tenantId = currentTenantId;
+        if (tenantId == null) {
+            tenantId = SaTokenHelper.getCurrentTenantId();
+            currentTenantId = tenantId;
+        }
+        return tenantId;
+    }
+}
@@ -26,6 +26,7 @@ import java.util.UUID;
 
 @Data
 @FieldNameConstants
+@TableIndex(columns = BaseEntity.Fields.tenantId, where = "is_delete = FALSE")
 @NullUnmarked
 public abstract class BaseEntity implements Serializable, Cloneable {
 
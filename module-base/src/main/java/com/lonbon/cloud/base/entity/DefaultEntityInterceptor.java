@@ -45,33 +45,12 @@ public class DefaultEntityInterceptor
     }
 
     /**
-     * insert操作时的处理
+     * insert操作时的处理，填充规则见 {@link AuditFieldFiller}
      */
     @Override
     public void configureInsert(
             Class<?> entityClass, EntityInsertExpressionBuilder entityInsertExpressionBuilder, Object entity) {
-        BaseEntity baseEntity = (BaseEntity) entity;
-
-        OffsetDateTime now = OffsetDateTime.now();
-        UUID currentUserId = null;
-
-        if (baseEntity.getCreatedAt() == null) {
-            baseEntity.setCreatedAt(now);
-        }
-        if (baseEntity.getCreatedBy() == null) {
-            currentUserId = getCurrentUserId(currentUserId);
-            baseEntity.setCreatedBy(currentUserId);
-        }
-        if (baseEntity.getUpdatedAt() == null) {
-            baseEntity.setUpdatedAt(now);
-        }
-        if (baseEntity.getUpdatedBy() == null) {
-            currentUserId = getCurrentUserId(currentUserId);
-            baseEntity.setUpdatedBy(currentUserId);
-        }
-        if (baseEntity.getTenantId() == null) {
-            baseEntity.setTenantId(getCurrentTenantId());
-        }
+        new AuditFieldFiller().fill((BaseEntity) entity);
     }
 
     /**
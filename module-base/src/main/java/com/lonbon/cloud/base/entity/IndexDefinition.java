@@ -0,0 +1,60 @@
+package com.lonbon.cloud.base.entity;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * 解析后的索引定义
+ * <p>
+ * 由 {@link MigrationEntityParser#parseIndexes} 根据 {@link TableIndex} 生成，列名已转换为数据库列名。
+ * </p>
+ *
+ * @param name      索引名
+ * @param tableName 表名
+ * @param columns   数据库列名
+ * @param unique    是否为唯一索引
+ * @param method    索引方法
+ * @param where     部分索引条件，为空字符串表示全表索引
+ * @author lonbon
+ * @since 1.0.0
+ */
+public record IndexDefinition(String name, String tableName, List<String> columns, boolean unique, IndexMethod method,
+                              String where) {
+
+    /**
+     * 生成不阻塞写入的建索引语句
+     * <p>
+     * {@code CONCURRENTLY} 不能在事务中执行，调用方需要使用自动提交的连接。
+     * </p>
+     *
+     * @return 建索引语句
+     */
+    public String toCreateSql() {
+        StringBuilder sql = new StringBuilder("CREATE ");
+        if (unique) {
+            sql.append("UNIQUE ");
+        }
+        sql.append("INDEX CONCURRENTLY IF NOT EXISTS ").append(quote(name))
+           .append(" ON ").append(quote(tableName))
+           .append(" USING ").append(method.name().toLowerCase(Locale.ROOT))
+           .append(" (").append(columns.stream().map(IndexDefinition::quote).collect(Collectors.joining(", "))).append(")");
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(where);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 生成删除索引的语句
+     *
+     * @return 删除索引语句
+     */
+    public String toDropSql() {
+        return "DROP INDEX CONCURRENTLY IF EXISTS " + quote(name);
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
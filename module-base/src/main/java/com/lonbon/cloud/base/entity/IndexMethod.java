@@ -0,0 +1,20 @@
+package com.lonbon.cloud.base.entity;
+
+/**
+ * PostgreSQL 索引方法
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+public enum IndexMethod {
+
+    /**
+     * B树索引，适用于等值、范围查询和排序
+     */
+    BTREE,
+
+    /**
+     * 倒排索引，适用于 JSONB 的包含（{@code @>}）和键存在（{@code ?}）查询
+     */
+    GIN
+}
@@ -0,0 +1,44 @@
+package com.lonbon.cloud.base.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 索引同步的结果
+ *
+ * @param executed 成功执行的建索引语句
+ * @param failed   创建失败的索引及其错误信息
+ * @author lonbon
+ * @since 1.0.0
+ */
+public record IndexSyncResult(List<String> executed, List<Failure> failed) {
+
+    /**
+     * 没有执行任何语句的结果
+     */
+    public static final IndexSyncResult EMPTY = new IndexSyncResult(List.of(), List.of());
+
+    /**
+     * 合并两次同步的结果
+     *
+     * @param other 另一次同步的结果
+     * @return 两次的语句和失败按顺序拼接
+     */
+    public IndexSyncResult plus(IndexSyncResult other) {
+        List<String> allExecuted = new ArrayList<>(executed);
+        allExecuted.addAll(other.executed);
+        List<Failure> allFailed = new ArrayList<>(failed);
+        allFailed.addAll(other.failed);
+        return new IndexSyncResult(List.copyOf(allExecuted), List.copyOf(allFailed));
+    }
+
+    /**
+     * 创建失败的索引
+     *
+     * @param index 索引名
+     * @param sql   执行失败的建索引语句
+     * @param error 数据库返回的错误信息，例如唯一索引遇到的重复数据
+     */
+    public record Failure(String index, String sql, String error) {
+    }
+}
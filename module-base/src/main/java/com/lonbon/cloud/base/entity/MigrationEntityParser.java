@@ -1,13 +1,18 @@
 package com.lonbon.cloud.base.entity;
 
 import com.easy.query.core.metadata.ColumnMetadata;
+import com.easy.query.core.metadata.EntityMetadata;
 import com.easy.query.core.migration.ColumnDbTypeResult;
 import com.easy.query.core.migration.EntityMigrationMetadata;
 import com.easy.query.pgsql.migration.PgSQLMigrationEntityParser;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -22,6 +27,7 @@ import java.util.UUID;
  * @author lonbon
  * @since 1.0.0
  */
+@Slf4j
 public class MigrationEntityParser extends PgSQLMigrationEntityParser {
 
     /**
@@ -32,6 +38,11 @@ public class MigrationEntityParser extends PgSQLMigrationEntityParser {
      */
     private static final Set<Class<?>> NOT_NULL_TYPES = Set.of(Boolean.class, Integer.class, Long.class, String.class);
 
+    /**
+     * PostgreSQL 标识符的最大长度，超出部分会被数据库截断
+     */
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+
     /**
      * Java类型到数据库类型的映射
      * <p>
@@ -126,5 +137,59 @@ public class MigrationEntityParser extends PgSQLMigrationEntityParser {
         return super.isNullable(entityMigrationMetadata, columnMetadata);
     }
 
+    /**
+     * 解析实体类及其父类上声明的 {@link TableIndex}
+     * <p>
+     * 子类声明的同名索引覆盖父类的声明；属性被 {@code ignoreProperties} 排除（不存在对应列）的索引会被跳过。
+     * 未指定索引名时按 {@code idx_表名_列名}（唯一索引为 {@code uk_} 前缀）生成，超过 PostgreSQL 标识符长度限制时截断并追加哈希。
+     * </p>
+     *
+     * @param entityMetadata 实体元数据
+     * @return 索引定义列表
+     */
+    public List<IndexDefinition> parseIndexes(EntityMetadata entityMetadata) {
+        String tableName = entityMetadata.getTableName();
+        Map<String, IndexDefinition> indexes = new LinkedHashMap<>();
+        for (Class<?> clazz = entityMetadata.getEntityClass(); clazz != null && clazz != Object.class;
+             clazz = clazz.getSuperclass()) {
+            for (TableIndex tableIndex : clazz.getDeclaredAnnotationsByType(TableIndex.class)) {
+                List<String> columns = new ArrayList<>(tableIndex.columns().length);
+                for (String property : tableIndex.columns()) {
+                    ColumnMetadata column = entityMetadata.getColumnOrNull(property);
+                    if (column != null) {
+                        columns.add(column.getName());
+                    }
+                }
+                if (columns.isEmpty() || columns.size() < tableIndex.columns().length) {
+                    log.debug("skip index on {}{}: not all properties are mapped", tableName,
+                              List.of(tableIndex.columns()));
+                    continue;
+                }
+
+                String name = tableIndex.name().isEmpty() ? indexName(tableName, columns, tableIndex.unique())
+                                                          : tableIndex.name();
+                indexes.putIfAbsent(name, new IndexDefinition(name, tableName, List.copyOf(columns), tableIndex.unique(),
+                                                              tableIndex.method(), tableIndex.where()));
+            }
+        }
+        return List.copyOf(indexes.values());
+    }
+
+    /**
+     * 生成索引名
+     *
+     * @param tableName 表名
+     * @param columns   数据库列名
+     * @param unique    是否为唯一索引
+     * @return 不超过 {@value #MAX_IDENTIFIER_LENGTH} 个字符的索引名
+     */
+    private static String indexName(String tableName, List<String> columns, boolean unique) {
+        String name = (unique ? "uk_" : "idx_") + tableName + "_" + String.join("_", columns);
+        if (name.length() <= MAX_IDENTIFIER_LENGTH) {
+            return name;
+        }
+        String hash = Integer.toHexString(name.hashCode());
+        return name.substring(0, MAX_IDENTIFIER_LENGTH - hash.length() - 1) + "_" + hash;
+    }
 
 }
@@ -3,8 +3,20 @@ package com.lonbon.cloud.base.entity;
 import com.easy.query.core.configuration.dialect.SQLKeyword;
 import com.easy.query.core.migration.MigrationEntityParser;
 import com.easy.query.pgsql.migration.PgSQLDatabaseMigrationProvider;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 数据库迁移提供者
@@ -16,8 +28,27 @@ import javax.sql.DataSource;
  * @author lonbon
  * @since 1.0.0
  */
+@Slf4j
 public class MyDatabaseMigrationProvider extends PgSQLDatabaseMigrationProvider {
-    
+
+    /**
+     * 查询表上已有索引及其是否有效，{@code CREATE INDEX CONCURRENTLY} 失败后会留下无效索引
+     */
+    private static final String EXISTING_INDEXES_SQL = """
+            SELECT c.relname, i.indisvalid
+            FROM pg_index i
+                     JOIN pg_class c ON c.oid = i.indexrelid
+                     JOIN pg_class t ON t.oid = i.indrelid
+                     JOIN pg_namespace n ON n.oid = t.relnamespace
+            WHERE n.nspname = current_schema()
+              AND t.relname = ?
+            """;
+
+    /**
+     * 数据源，建索引时使用独立的自动提交连接
+     */
+    private final DataSource dataSource;
+
     /**
      * 构造数据库迁移提供者
      *
@@ -29,6 +60,76 @@ public class MyDatabaseMigrationProvider extends PgSQLDatabaseMigrationProvider
             DataSource dataSource, SQLKeyword sqlKeyword,
             MigrationEntityParser migrationEntityParser) {
         super(dataSource, sqlKeyword, migrationEntityParser);
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 同步表索引
+     * <p>
+     * 与数据库中已有的索引按名称比对，只创建缺失的索引；上次并发建索引失败留下的无效索引会先删除再重建。
+     * 索引以 {@code CONCURRENTLY} 方式创建，不阻塞表的读写，因此使用自动提交的连接逐条执行，不放在事务中。
+     * 单个索引创建失败（如唯一索引遇到重复数据）不影响其余索引，失败的索引和错误信息随结果返回。
+     * </p>
+     *
+     * @param tableName 表名
+     * @param indexes   声明的索引
+     * @return 实际执行的建索引语句和创建失败的索引
+     */
+    public IndexSyncResult syncIndexes(String tableName, List<IndexDefinition> indexes) {
+        if (indexes.isEmpty()) {
+            return IndexSyncResult.EMPTY;
+        }
+
+        List<String> executed = new ArrayList<>();
+        List<IndexSyncResult.Failure> failed = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            Map<String, Boolean> existing = getExistingIndexes(connection, tableName);
+            for (IndexDefinition index : indexes) {
+                Boolean valid = existing.get(index.name());
+                if (Boolean.TRUE.equals(valid)) {
+                    continue;
+                }
+                String sql = index.toCreateSql();
+                try (Statement statement = connection.createStatement()) {
+                    if (valid != null) {
+                        log.warn("dropping invalid index {} on {}", index.name(), tableName);
+                        statement.execute(index.toDropSql());
+                    }
+                    log.info(sql);
+                    statement.execute(sql);
+                    executed.add(sql);
+                } catch (SQLException e) {
+                    log.error("Failed to create index {} on {}", index.name(), tableName, e);
+                    failed.add(new IndexSyncResult.Failure(index.name(), sql, String.valueOf(e.getMessage())));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Failed to sync indexes of table {}", tableName, e);
+            throw new BusinessException(ErrorCode.DATABASE_ERROR, "Failed to sync indexes of table " + tableName);
+        }
+        return new IndexSyncResult(List.copyOf(executed), List.copyOf(failed));
+    }
+
+    /**
+     * 查询表上已有的索引
+     *
+     * @param connection 数据库连接
+     * @param tableName  表名
+     * @return 索引名到是否有效的映射
+     * @throws SQLException 查询失败
+     */
+    private Map<String, Boolean> getExistingIndexes(Connection connection, String tableName) throws SQLException {
+        Map<String, Boolean> indexes = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(EXISTING_INDEXES_SQL)) {
+            statement.setString(1, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    indexes.put(resultSet.getString(1), resultSet.getBoolean(2));
+                }
+            }
+        }
+        return indexes;
     }
 
     /**
@@ -0,0 +1,60 @@
+package com.lonbon.cloud.base.entity;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 表索引声明
+ * <p>
+ * 声明在实体类（或其父类）上，{@link com.lonbon.cloud.base.service.SystemService#syncTable()} 同步表结构后，
+ * 由 {@link MyDatabaseMigrationProvider} 与数据库中已有的索引比对，以 {@code CREATE INDEX CONCURRENTLY} 创建缺失的索引。
+ * 父类上声明的索引对所有子类实体生效，引用了被 {@code ignoreProperties} 排除的属性的索引会被跳过。
+ * </p>
+ * <p>
+ * 使用示例：
+ * <pre>{@code
+ * @TableIndex(columns = {ClosureEntity.Fields.ancestorId, ClosureEntity.Fields.distance})
+ * @TableIndex(columns = User.Fields.username, where = "is_delete = FALSE")
+ * @TableIndex(columns = DictItem.Fields.style, method = IndexMethod.GIN)
+ * }</pre>
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ * @see MigrationEntityParser#parseIndexes
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(TableIndexes.class)
+public @interface TableIndex {
+
+    /**
+     * 索引名，为空时根据表名和列名生成，如 {@code idx_sys_user_username}、{@code uk_sys_role_code}
+     */
+    String name() default "";
+
+    /**
+     * 索引列，使用实体属性名，按声明顺序组成联合索引
+     */
+    String[] columns();
+
+    /**
+     * 是否为唯一索引
+     */
+    boolean unique() default false;
+
+    /**
+     * 索引方法
+     */
+    IndexMethod method() default IndexMethod.BTREE;
+
+    /**
+     * 部分索引条件（SQL片段，使用数据库列名），为空表示全表索引，如 {@code is_delete = FALSE}
+     */
+    String where() default "";
+}
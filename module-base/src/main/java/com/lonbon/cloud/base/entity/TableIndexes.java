@@ -0,0 +1,21 @@
+package com.lonbon.cloud.base.entity;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link TableIndex} 的容器注解，在同一个类上声明多个索引时由编译器自动生成
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TableIndexes {
+
+    TableIndex[] value();
+}
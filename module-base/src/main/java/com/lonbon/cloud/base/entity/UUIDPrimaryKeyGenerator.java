@@ -5,6 +5,7 @@ import com.github.f4b6a3.uuid.UuidCreator;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
+import java.util.UUID;
 
 /**
  * UUID主键生成器
@@ -31,17 +32,18 @@ public class UUIDPrimaryKeyGenerator implements PrimaryKeyGenerator {
      */
     @Override
     public Serializable getPrimaryKey() {
-        return UuidCreator.getTimeOrderedEpoch();
+        return nextId();
     }
 
-//  默认情况下，不重载 setPrimaryKey 函数，那么主键会被强制设置为 getPrimaryKey 的返回值
-//  如果要进行其他逻辑判断，比如主键不为空时，再生成主键，可以参考下面的代码
-//    @Override
-//    public void setPrimaryKey(Object entity, ColumnMetadata columnMetadata) {
-//        Object oldValue = columnMetadata.getGetterCaller().apply(entity);
-//        if(oldValue == null)
-//        {
-//           PrimaryKeyGenerator.super.setPrimaryKey(entity,columnMetadata);
-//        }
-//    }
+//  默认情况下，不重载 setPrimaryKey 函数，那么主键会被强制设置为 getPrimaryKey 的返回值，客户端传入的ID不会被保留
+//  需要预先分配ID的批量写入（见 BulkInserter）不经过本生成器，由调用方通过 nextId() 分配
+
+    /**
+     * 生成一个UUIDv7，用于在插入之前预先分配主键
+     *
+     * @return 生成的UUID
+     */
+    public static UUID nextId() {
+        return UuidCreator.getTimeOrderedEpoch();
+    }
 }
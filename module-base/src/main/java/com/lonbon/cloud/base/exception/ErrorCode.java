@@ -30,7 +30,7 @@ public enum ErrorCode {
     PARAMETER_ERROR(40005, "参数错误"), MISSING_PARAMETER(40006, "缺少必要参数"), INVALID_PARAMETER(40007,
                                                                                                     "参数值无效"),
     PARAMETER_TOO_LONG(
-            40008, "参数长度过长"),
+            40008, "参数长度过长"), VERSION_CONFLICT(40009, "数据已被修改"),
 
     // 认证错误 (401xx)
     UNAUTHORIZED(40100, "未授权"), INVALID_TOKEN(40101, "无效的令牌"), TOKEN_EXPIRED(40102,
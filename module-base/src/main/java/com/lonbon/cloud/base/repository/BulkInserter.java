@@ -0,0 +1,672 @@
+package com.lonbon.cloud.base.repository;
+
+import com.easy.query.core.basic.extension.conversion.ValueConverter;
+import com.easy.query.core.configuration.dialect.SQLKeyword;
+import com.easy.query.core.context.QueryRuntimeContext;
+import com.easy.query.core.metadata.ColumnMetadata;
+import com.easy.query.core.metadata.EntityMetadata;
+import com.lonbon.cloud.base.entity.AuditFieldFiller;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.JsonObject;
+import com.lonbon.cloud.base.entity.UUIDPrimaryKeyGenerator;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.base.satoken.SaTokenHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.postgresql.util.PGobject;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 批量插入
+ * <p>
+ * 绕过 easy-query 的逐行插入：主键、创建/更新时间、创建/更新人、租户ID在写入前一次性填充（当前时间、登录用户、租户只取一次），
+ * 已有值的字段保持不变：导入等场景会用 {@link UUIDPrimaryKeyGenerator#nextId()} 预先分配主键以便同时计算关联数据，
+ * 这一点与强制生成主键的 {@link UUIDPrimaryKeyGenerator} 不同，调用方负责不把客户端传入的ID带到这里。
+ * PostgreSQL 上通过 {@code COPY ... FROM STDIN (FORMAT binary)} 把所有行作为一个数据流发送，
+ * 不解析SQL、不逐行绑定参数；其他数据库回退为每条若干行的多行 {@code INSERT ... VALUES (...), (...)}。
+ * </p>
+ * <p>
+ * 与 easy-query 默认的插入策略一样，取值为 null 的列不写入，由数据库默认值填充（例如 {@code is_delete}、{@code version}）；
+ * 因此按“哪些列非空”把行分组，每组执行一次 COPY 或一批 INSERT，通常所有行同属一组。
+ * 列类型限于迁移解析器允许的类型和 {@link JsonObject}（jsonb）。
+ * 连接通过 {@link DataSourceUtils} 获取，在 Spring 事务中与 easy-query 共用同一个连接。
+ * </p>
+ * <p>
+ * 批量插入或更新使用多行 {@code INSERT ... ON CONFLICT DO UPDATE}，每条语句若干行，
+ * 以 {@code RETURNING (xmax = 0)} 区分插入和更新的行，仅支持 PostgreSQL。
+ * </p>
+ * <p>
+ * 由已有数据推导出的行（例如闭包表的笛卡尔积）以 {@code INSERT ... SELECT} 在数据库中生成，不读回应用，仅支持 PostgreSQL。
+ * </p>
+ * <p>
+ * 按ID局部更新以 {@code UPDATE ... RETURNING} 执行，同一条语句取回数据库中递增后的版本号。
+ * </p>
+ *
+ * @param <T> 实体类型
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Slf4j
+final class BulkInserter<T> {
+
+    /**
+     * 二进制 COPY 文件头签名
+     */
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    /**
+     * PostgreSQL 时间戳的纪元
+     */
+    private static final OffsetDateTime PG_EPOCH = OffsetDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    /**
+     * PostgreSQL 日期的纪元
+     */
+    private static final LocalDate PG_EPOCH_DATE = LocalDate.of(2000, 1, 1);
+
+    /**
+     * jsonb 二进制格式的版本号
+     */
+    private static final int JSONB_VERSION = 1;
+
+    /**
+     * COPY 数据流的缓冲区大小
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 单条 INSERT 语句的参数个数上限
+     */
+    private static final int MAX_PARAMETERS = 32767;
+
+    /**
+     * 默认不在冲突时更新的属性
+     */
+    private static final Set<String> NOT_UPDATED_PROPERTIES = Set.of(
+            BaseEntity.Fields.id, BaseEntity.Fields.tenantId, BaseEntity.Fields.createdAt, BaseEntity.Fields.createdBy,
+            BaseEntity.Fields.isDelete, BaseEntity.Fields.deletedAt, BaseEntity.Fields.deletedBy);
+
+    /**
+     * 冲突时总是由更新语句维护的属性
+     */
+    private static final Set<String> MANAGED_PROPERTIES = Set.of(
+            BaseEntity.Fields.updatedAt, BaseEntity.Fields.updatedBy, BaseEntity.Fields.version);
+
+    /**
+     * 目标表在 ON CONFLICT 子句中的别名
+     */
+    private static final String TARGET = "target";
+
+    /**
+     * 插入或更新语句中 VALUES 列表的占位符，按每批行数替换
+     */
+    private static final String VALUES = "{values}";
+
+    /**
+     * INSERT ... SELECT 查询中的表名和列名占位符：{@code {table}} 为目标表，{@code {属性名}} 为该属性的列
+     */
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)}");
+
+    /**
+     * 在SQL中生成主键的表达式，与 {@link UUIDPrimaryKeyGenerator} 一样是 UUIDv7：
+     * 前 48 位为毫秒时间戳，其余取自 {@code gen_random_uuid()}，再把版本号从 4 改为 7
+     */
+    private static final String UUID_V7 = "encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid()) placing "
+            + "substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3) FROM 1 FOR 6), "
+            + "52, 1), 53, 1), 'hex')::uuid";
+
+    private final QueryRuntimeContext runtimeContext;
+
+    private final Class<T> entityType;
+
+    BulkInserter(QueryRuntimeContext runtimeContext, Class<T> entityType) {
+        this.runtimeContext = runtimeContext;
+        this.entityType = entityType;
+    }
+
+    /**
+     * 批量插入实体
+     *
+     * @param entities 实体集合，插入后主键和审计字段已被填充
+     * @param options  批量插入选项
+     * @return 插入的行数
+     */
+    long insert(Collection<T> entities, BulkOptions options) {
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        fill(entities);
+
+        EntityMetadata entityMetadata = getEntityMetadata();
+        List<ColumnMetadata> columns = insertColumns(entityMetadata);
+        Map<BitSet, List<@Nullable Object[]>> groups = group(entities, columns);
+
+        return execute(entityMetadata.getTableName(), connection -> {
+            boolean copy = options.useCopy() && connection.isWrapperFor(PGConnection.class);
+            long rows = 0;
+            for (Map.Entry<BitSet, List<@Nullable Object[]>> group : groups.entrySet()) {
+                List<ColumnMetadata> groupColumns = group.getKey().stream().mapToObj(columns::get).toList();
+                String table = quote(entityMetadata.getTableName()) + " (" + columnList(groupColumns) + ")";
+                rows += copy ? copy(connection, table, groupColumns, group.getValue())
+                             : insert(connection, table, groupColumns.size(), group.getValue(), options.batchSize());
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * 批量插入或更新实体
+     * <p>
+     * 与已有行在冲突列上重复时更新该行：只更新实体中非空的更新列，同时写入更新时间、更新人并把版本号加一。
+     * 冲突目标带有 {@code WHERE is_delete = FALSE}，可以匹配按未删除数据声明的部分唯一索引；已逻辑删除的行不会被更新或恢复。
+     * 实体携带版本号时按乐观锁处理，只有与已有行版本一致才更新；版本不一致或已删除的行计入跳过数。
+     * 实体有租户列时只更新同一租户的行：冲突列不含租户ID（例如按主键或全局唯一的编码）时，
+     * 其他租户的同键行不会被改写，同样计入跳过数。
+     * 同一冲突键在参数中出现多次时只保留最后一个，其余计入跳过数。
+     * 冲突更新的行保留数据库中原有的主键，实体上预先填充的主键不代表该行。
+     * </p>
+     *
+     * @param entities            实体集合
+     * @param conflictProperties  冲突判断的属性名，需对应唯一索引或主键，实体在这些属性上不能为空
+     * @param updateProperties    冲突时更新的属性名，为空时更新除主键、租户、创建、删除、版本等字段以外的所有列
+     * @param batchSize           每条语句的最大行数
+     * @return 插入、更新、跳过的行数
+     */
+    UpsertResult upsert(Collection<T> entities, Collection<String> conflictProperties,
+                        Collection<String> updateProperties, int batchSize) {
+        if (conflictProperties.isEmpty()) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Conflict properties must not be empty");
+        }
+        if (entities.isEmpty()) {
+            return new UpsertResult(0, 0, 0);
+        }
+
+        EntityMetadata entityMetadata = getEntityMetadata();
+        List<ColumnMetadata> conflictColumns = resolve(entityMetadata, conflictProperties);
+        Set<String> conflictNames = conflictColumns.stream().map(ColumnMetadata::getName).collect(Collectors.toSet());
+        List<ColumnMetadata> updateColumns;
+        if (updateProperties.isEmpty()) {
+            updateColumns = insertColumns(entityMetadata).stream()
+                    .filter(column -> !NOT_UPDATED_PROPERTIES.contains(column.getPropertyName()))
+                    .toList();
+        } else {
+            updateColumns = resolve(entityMetadata, updateProperties);
+        }
+        updateColumns = updateColumns.stream()
+                                     .filter(column -> !conflictNames.contains(column.getName()))
+                                     .filter(column -> !MANAGED_PROPERTIES.contains(column.getPropertyName()))
+                                     .toList();
+
+        // 先填充租户等字段，冲突列可能包含它们；同一条语句不能两次更新同一行，按冲突键去重，保留最后一个
+        fill(entities);
+        Map<List<Object>, T> unique = new LinkedHashMap<>();
+        for (T entity : entities) {
+            List<Object> key = new ArrayList<>(conflictColumns.size());
+            for (ColumnMetadata column : conflictColumns) {
+                Object value = column.getGetterCaller().apply(entity);
+                if (value == null) {
+                    throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                                                "Conflict property must not be null: " + column.getPropertyName());
+                }
+                key.add(value);
+            }
+            unique.remove(key);
+            unique.put(key, entity);
+        }
+        long duplicates = entities.size() - unique.size();
+        Collection<T> rows = unique.values();
+
+        List<ColumnMetadata> columns = insertColumns(entityMetadata);
+        Map<BitSet, List<@Nullable Object[]>> groups = group(rows, columns);
+        ColumnMetadata logicDelete = entityMetadata.getColumnOrNull(BaseEntity.Fields.isDelete);
+        ColumnMetadata version = entityMetadata.getColumnOrNull(BaseEntity.Fields.version);
+        ColumnMetadata tenant = entityMetadata.getColumnOrNull(BaseEntity.Fields.tenantId);
+
+        UpsertResult result = execute(entityMetadata.getTableName(), connection -> {
+            UpsertResult total = new UpsertResult(0, 0, 0);
+            for (Map.Entry<BitSet, List<@Nullable Object[]>> group : groups.entrySet()) {
+                List<ColumnMetadata> groupColumns = group.getKey().stream().mapToObj(columns::get).toList();
+                String sql = upsertSql(entityMetadata.getTableName(), groupColumns, conflictColumns, updateColumns,
+                                       logicDelete, version, tenant);
+                total = total.plus(upsert(connection, sql, groupColumns, group.getValue(), batchSize));
+            }
+            return total;
+        });
+        return result.plus(new UpsertResult(0, 0, duplicates));
+    }
+
+    /**
+     * 以一条 {@code INSERT ... SELECT} 写入由查询生成的行，行数据不经过应用
+     * <p>
+     * 查询按 properties 的顺序返回各列，其中的 {@code {table}}、{@code {属性名}} 替换为目标表名和列名。
+     * 主键（UUIDv7）、创建/更新时间、创建/更新人、租户ID不在 properties 中时由语句填充，
+     * 取值规则与 {@link AuditFieldFiller} 一致；其余列由数据库默认值填充。
+     * 查询直接访问表，不会附加逻辑删除、租户等过滤条件，由调用方在查询中写明。
+     * </p>
+     *
+     * @param properties 查询返回的各列对应的属性名
+     * @param select     查询语句
+     * @param parameters 查询语句的参数
+     * @return 插入的行数
+     */
+    long insertSelect(List<String> properties, String select, List<?> parameters) {
+        EntityMetadata entityMetadata = getEntityMetadata();
+        List<ColumnMetadata> selected = resolve(entityMetadata, properties);
+
+        List<String> columns = new ArrayList<>();
+        List<String> expressions = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        ColumnMetadata id = entityMetadata.getColumnOrNull(BaseEntity.Fields.id);
+        if (id != null && !selected.contains(id)) {
+            columns.add(quote(id.getName()));
+            expressions.add(UUID_V7);
+        }
+        new AuditFieldFiller().values().forEach((property, value) -> {
+            ColumnMetadata column = entityMetadata.getColumnOrNull(property);
+            if (column != null && !selected.contains(column)) {
+                columns.add(quote(column.getName()));
+                expressions.add("?");
+                values.add(value);
+            }
+        });
+        values.addAll(parameters);
+
+        Matcher matcher = PLACEHOLDER.matcher(select);
+        String query = matcher.replaceAll(match -> Matcher.quoteReplacement(
+                "table".equals(match.group(1)) ? quote(entityMetadata.getTableName())
+                        : quote(resolve(entityMetadata, List.of(match.group(1))).getFirst().getName())));
+        String sql = "INSERT INTO " + quote(entityMetadata.getTableName())
+                + " (" + String.join(", ", columns) + (columns.isEmpty() ? "" : ", ") + columnList(selected) + ")"
+                + " SELECT " + String.join(", ", expressions) + (expressions.isEmpty() ? "" : ", ") + "s.*"
+                + " FROM (" + query + ") AS s";
+
+        return execute(entityMetadata.getTableName(), connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < values.size(); i++) {
+                    statement.setObject(i + 1, values.get(i));
+                }
+                return statement.executeLargeUpdate();
+            }
+        });
+    }
+
+    /**
+     * 按ID局部更新一行，以 {@code UPDATE ... RETURNING} 在同一条语句中取回递增后的版本号
+     * <p>
+     * 写入给定的属性和更新时间、更新人，版本号列存在时加一。语句直接访问表，
+     * 按 easy-query 对更新语句的过滤附加条件：有逻辑删除列时只更新未删除的行，有租户列且限定了当前租户时只更新该租户的行。
+     * 取值经过列的 {@link ValueConverter} 转换，与 easy-query 写入的值一致。
+     * </p>
+     *
+     * @param id              主键
+     * @param values          属性名到新值的映射，不能包含主键、版本号和更新时间、更新人
+     * @param expectedVersion 期望的版本号，为空时不校验
+     * @return 更新后的版本号，实体没有版本号列时为0；没有匹配的行时为空
+     */
+    @SuppressWarnings("unchecked")
+    Optional<Integer> patch(UUID id, Map<String, Object> values, @Nullable Integer expectedVersion) {
+        EntityMetadata entityMetadata = getEntityMetadata();
+        List<ColumnMetadata> columns = resolve(entityMetadata, values.keySet());
+        ColumnMetadata version = entityMetadata.getColumnOrNull(BaseEntity.Fields.version);
+
+        List<String> assignments = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        for (ColumnMetadata column : columns) {
+            ValueConverter<Object, Object> converter = (ValueConverter<Object, Object>) column.getValueConverter();
+            assignments.add(quote(column.getName()) + " = ?");
+            parameters.add(converter.serialize(values.get(column.getPropertyName()), column));
+        }
+        ColumnMetadata updatedAt = entityMetadata.getColumnOrNull(BaseEntity.Fields.updatedAt);
+        ColumnMetadata updatedBy = entityMetadata.getColumnOrNull(BaseEntity.Fields.updatedBy);
+        if (updatedAt != null && updatedBy != null) {
+            assignments.add(quote(updatedAt.getName()) + " = ?");
+            parameters.add(OffsetDateTime.now());
+            assignments.add(quote(updatedBy.getName()) + " = ?");
+            parameters.add(SaTokenHelper.getLoginId());
+        }
+
+        List<String> conditions = new ArrayList<>();
+        conditions.add(quote(resolve(entityMetadata, List.of(BaseEntity.Fields.id)).getFirst().getName()) + " = ?");
+        parameters.add(id);
+        String returning = "0";
+        if (version != null) {
+            returning = quote(version.getName());
+            assignments.add(returning + " = " + returning + " + 1");
+            if (expectedVersion != null) {
+                conditions.add(returning + " = ?");
+                parameters.add(expectedVersion);
+            }
+        }
+        ColumnMetadata logicDelete = entityMetadata.getColumnOrNull(BaseEntity.Fields.isDelete);
+        if (logicDelete != null) {
+            conditions.add(quote(logicDelete.getName()) + " = FALSE");
+        }
+        ColumnMetadata tenant = entityMetadata.getColumnOrNull(BaseEntity.Fields.tenantId);
+        UUID tenantId = SaTokenHelper.getCurrentTenantId();
+        if (tenant != null && tenantId != SaTokenHelper.NULL_UUID) {
+            conditions.add(quote(tenant.getName()) + " = ?");
+            parameters.add(tenantId);
+        }
+
+        String sql = "UPDATE " + quote(entityMetadata.getTableName()) + " SET " + String.join(", ", assignments)
+                + " WHERE " + String.join(" AND ", conditions) + " RETURNING " + returning;
+        return execute(entityMetadata.getTableName(), connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                // 前 columns.size() 个参数是各属性的新值
+                for (int i = 0; i < parameters.size(); i++) {
+                    Object parameter = parameters.get(i);
+                    statement.setObject(i + 1, i < columns.size() ? jdbcValue(columns.get(i), parameter) : parameter);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? Optional.of(resultSet.getInt(1)) : Optional.empty();
+                }
+            }
+        });
+    }
+
+    /**
+     * 填充主键和审计字段，审计字段与逐条插入共用 {@link AuditFieldFiller} 的规则
+     */
+    private void fill(Collection<T> entities) {
+        AuditFieldFiller filler = new AuditFieldFiller();
+        for (T entity : entities) {
+            if (entity instanceof BaseEntity baseEntity) {
+                if (baseEntity.getId() == null) {
+                    baseEntity.setId(UUIDPrimaryKeyGenerator.nextId());
+                }
+                filler.fill(baseEntity);
+            }
+        }
+    }
+
+    /**
+     * 读取各列的取值（经过列的值转换器），按非空列分组，每行只保留非空列的值
+     */
+    @SuppressWarnings("unchecked")
+    private Map<BitSet, List<@Nullable Object[]>> group(Collection<T> entities, List<ColumnMetadata> columns) {
+        Map<BitSet, List<@Nullable Object[]>> groups = new LinkedHashMap<>();
+        @Nullable Object[] values = new Object[columns.size()];
+        for (T entity : entities) {
+            BitSet present = new BitSet(columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnMetadata column = columns.get(i);
+                Object value = column.getGetterCaller().apply(entity);
+                ValueConverter<Object, Object> converter = (ValueConverter<Object, Object>) column.getValueConverter();
+                values[i] = value != null ? converter.serialize(value, column) : null;
+                if (values[i] != null) {
+                    present.set(i);
+                }
+            }
+            @Nullable Object[] row = present.stream().mapToObj(i -> values[i]).toArray();
+            groups.computeIfAbsent(present, key -> new ArrayList<>()).add(row);
+        }
+        return groups;
+    }
+
+    private long copy(Connection connection, String table, List<ColumnMetadata> columns, List<@Nullable Object[]> rows)
+            throws SQLException, IOException {
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                                                               "COPY " + table + " FROM STDIN (FORMAT binary)",
+                                                               COPY_BUFFER_SIZE);
+        try {
+            DataOutputStream out = new DataOutputStream(copyStream);
+            out.write(COPY_SIGNATURE);
+            out.writeInt(0);    // flags
+            out.writeInt(0);    // header extension length
+            for (@Nullable Object[] row : rows) {
+                out.writeShort(columns.size());
+                for (int i = 0; i < columns.size(); i++) {
+                    writeField(out, columns.get(i), Objects.requireNonNull(row[i]));
+                }
+            }
+            out.writeShort(-1); // trailer
+            out.flush();
+            return copyStream.endCopy();
+        } catch (SQLException | IOException | RuntimeException e) {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 按 PostgreSQL 二进制格式写出一个字段：4 字节长度加上类型的二进制表示
+     */
+    private static void writeField(DataOutputStream out, ColumnMetadata column, Object value) throws IOException {
+        if (JsonObject.class.isAssignableFrom(column.getPropertyType())) {
+            byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length + 1);
+            out.writeByte(JSONB_VERSION);
+            out.write(bytes);
+        } else if (value instanceof UUID uuid) {
+            out.writeInt(16);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Boolean bool) {
+            out.writeInt(1);
+            out.writeBoolean(bool);
+        } else if (value instanceof Integer integer) {
+            out.writeInt(4);
+            out.writeInt(integer);
+        } else if (value instanceof Long number) {
+            out.writeInt(8);
+            out.writeLong(number);
+        } else if (value instanceof OffsetDateTime dateTime) {
+            out.writeInt(8);
+            out.writeLong(ChronoUnit.MICROS.between(PG_EPOCH, dateTime));
+        } else if (value instanceof LocalDate date) {
+            out.writeInt(4);
+            out.writeInt((int) ChronoUnit.DAYS.between(PG_EPOCH_DATE, date));
+        } else {
+            throw new IllegalStateException(
+                    "Unsupported column type for COPY: " + value.getClass().getName() + ", column: " + column.getName());
+        }
+    }
+
+    private long insert(Connection connection, String table, int columnCount, List<@Nullable Object[]> rows,
+                        int batchSize) throws SQLException {
+        String placeholders = "(" + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+        int chunkSize = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / columnCount));
+        long inserted = 0;
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<@Nullable Object[]> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            String sql = "INSERT INTO " + table + " VALUES " + String.join(", ", Collections.nCopies(chunk.size(),
+                                                                                                   placeholders));
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                for (@Nullable Object[] row : chunk) {
+                    for (Object value : row) {
+                        statement.setObject(index++, value);
+                    }
+                }
+                inserted += statement.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+
+    private String upsertSql(String tableName, List<ColumnMetadata> columns, List<ColumnMetadata> conflictColumns,
+                             List<ColumnMetadata> updateColumns, @Nullable ColumnMetadata logicDelete,
+                             @Nullable ColumnMetadata version, @Nullable ColumnMetadata tenant) {
+        Set<ColumnMetadata> present = new HashSet<>(columns);
+        for (ColumnMetadata column : conflictColumns) {
+            if (!present.contains(column)) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                                            "Conflict property is not insertable: " + column.getPropertyName());
+            }
+        }
+
+        List<String> assignments = new ArrayList<>();
+        for (ColumnMetadata column : columns) {
+            if (updateColumns.contains(column)
+                    || (MANAGED_PROPERTIES.contains(column.getPropertyName()) && column != version)) {
+                assignments.add(quote(column.getName()) + " = EXCLUDED." + quote(column.getName()));
+            }
+        }
+        List<String> conditions = new ArrayList<>();
+        if (version != null) {
+            String versionColumn = quote(version.getName());
+            assignments.add(versionColumn + " = " + TARGET + "." + versionColumn + " + 1");
+            if (present.contains(version)) {
+                conditions.add(TARGET + "." + versionColumn + " = EXCLUDED." + versionColumn);
+            }
+        }
+        // 冲突键不含租户时，同键的行可能属于其他租户；这些行不更新，RETURNING 不返回，计入跳过数
+        if (tenant != null && present.contains(tenant) && !conflictColumns.contains(tenant)) {
+            String tenantColumn = quote(tenant.getName());
+            conditions.add(TARGET + "." + tenantColumn + " = EXCLUDED." + tenantColumn);
+        }
+
+        StringBuilder sql = new StringBuilder();
+        sql.append("INSERT INTO ").append(quote(tableName)).append(" AS ").append(TARGET)
+           .append(" (").append(columnList(columns)).append(") VALUES ").append(VALUES)
+           .append(" ON CONFLICT (").append(columnList(conflictColumns)).append(")");
+        if (logicDelete != null) {
+            String deleteColumn = quote(logicDelete.getName());
+            sql.append(" WHERE ").append(deleteColumn).append(" = FALSE");
+            conditions.add(0, TARGET + "." + deleteColumn + " = FALSE");
+        }
+        sql.append(" DO UPDATE SET ").append(String.join(", ", assignments));
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        return sql.append(" RETURNING (xmax = 0)").toString();
+    }
+
+    private UpsertResult upsert(Connection connection, String sqlTemplate, List<ColumnMetadata> columns,
+                                List<@Nullable Object[]> rows, int batchSize) throws SQLException {
+        String placeholders = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        int chunkSize = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / columns.size()));
+        long inserted = 0;
+        long updated = 0;
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<@Nullable Object[]> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            String sql = sqlTemplate.replace(VALUES,
+                                             String.join(", ", Collections.nCopies(chunk.size(), placeholders)));
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                for (@Nullable Object[] row : chunk) {
+                    for (int i = 0; i < row.length; i++) {
+                        statement.setObject(index++, jdbcValue(columns.get(i), Objects.requireNonNull(row[i])));
+                    }
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        if (resultSet.getBoolean(1)) {
+                            inserted++;
+                        } else {
+                            updated++;
+                        }
+                    }
+                }
+            }
+        }
+        return new UpsertResult(inserted, updated, rows.size() - inserted - updated);
+    }
+
+    /**
+     * JsonObject 列以 jsonb 参数绑定，与 {@code JsonObjectTypeHandler} 一致
+     */
+    private static Object jdbcValue(ColumnMetadata column, Object value) throws SQLException {
+        if (!JsonObject.class.isAssignableFrom(column.getPropertyType())) {
+            return value;
+        }
+        PGobject jsonb = new PGobject();
+        jsonb.setType("jsonb");
+        jsonb.setValue(value.toString());
+        return jsonb;
+    }
+
+    private EntityMetadata getEntityMetadata() {
+        return runtimeContext.getEntityMetadataManager().getEntityMetadata(entityType);
+    }
+
+    private static List<ColumnMetadata> insertColumns(EntityMetadata entityMetadata) {
+        return entityMetadata.getColumns().stream().filter(column -> !column.isInsertIgnore()).toList();
+    }
+
+    private static List<ColumnMetadata> resolve(EntityMetadata entityMetadata, Collection<String> properties) {
+        List<ColumnMetadata> columns = new ArrayList<>(properties.size());
+        for (String property : new LinkedHashSet<>(properties)) {
+            ColumnMetadata column = entityMetadata.getColumnOrNull(property);
+            if (column == null) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Unknown property: " + property);
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    private String quote(String name) {
+        return runtimeContext.getService(SQLKeyword.class).getQuoteName(name);
+    }
+
+    private String columnList(List<ColumnMetadata> columns) {
+        return columns.stream().map(column -> quote(column.getName())).collect(Collectors.joining(", "));
+    }
+
+    private <R> R execute(String tableName, ConnectionCallback<R> callback) {
+        DataSource dataSource = runtimeContext.getService(DataSource.class);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return callback.apply(connection);
+        } catch (SQLException | IOException e) {
+            log.error("Failed to bulk write into {}", tableName, e);
+            throw new BusinessException(errorCode(e), "Failed to bulk write into " + tableName);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * 按 SQLState 区分约束冲突和其他数据库错误
+     * <p>
+     * 唯一约束冲突（23505）视为资源已存在，外键（23503）、检查约束（23514）、非空（23502）视为请求数据有误，
+     * 调用方可以据此返回 4xx 而不是 500；其余错误仍是数据库错误。
+     * COPY 过程中服务端报告的错误由驱动包装在 {@link IOException} 中，因此沿异常链查找 {@link SQLException}。
+     * </p>
+     */
+    private static ErrorCode errorCode(Exception e) {
+        for (@Nullable Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                return switch (sqlException.getSQLState()) {
+                    case "23505" -> ErrorCode.RESOURCE_ALREADY_EXISTS;
+                    case "23503", "23514" -> ErrorCode.INVALID_PARAMETER;
+                    case "23502" -> ErrorCode.MISSING_PARAMETER;
+                    default -> ErrorCode.DATABASE_ERROR;
+                };
+            }
+        }
+        return ErrorCode.DATABASE_ERROR;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback<R> {
+        R apply(Connection connection) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,43 @@
+package com.lonbon.cloud.base.repository;
+
+/**
+ * 批量插入选项
+ *
+ * @param batchSize 回退为多行 INSERT 时每条语句的最大行数，必须大于0；COPY 方式不分批
+ * @param useCopy   是否在 PostgreSQL 上使用 {@code COPY ... FROM STDIN (FORMAT binary)}，为 false 时总是使用多行 INSERT
+ * @author lonbon
+ * @since 1.0.0
+ */
+public record BulkOptions(int batchSize, boolean useCopy) {
+
+    /**
+     * 默认选项：PostgreSQL 上使用 COPY，其他数据库每条 INSERT 500 行
+     */
+    public static final BulkOptions DEFAULT = new BulkOptions(500, true);
+
+    public BulkOptions {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+    }
+
+    /**
+     * 使用指定的每批行数，其余选项不变
+     *
+     * @param batchSize 每条 INSERT 语句的最大行数
+     * @return 新的选项
+     */
+    public BulkOptions withBatchSize(int batchSize) {
+        return new BulkOptions(batchSize, useCopy);
+    }
+
+    /**
+     * 设置是否使用 COPY，其余选项不变
+     *
+     * @param useCopy 是否使用 COPY
+     * @return 新的选项
+     */
+    public BulkOptions withCopy(boolean useCopy) {
+        return new BulkOptions(batchSize, useCopy);
+    }
+}
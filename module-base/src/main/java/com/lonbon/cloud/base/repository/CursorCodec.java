@@ -0,0 +1,99 @@
+package com.lonbon.cloud.base.repository;
+
+import com.easy.query.core.metadata.ColumnMetadata;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 游标编解码
+ * <p>
+ * 游标是最后一条记录各排序列取值的 JSON 字符串数组，再做 Base64URL 编码，对客户端不透明。
+ * 取值统一按字符串保存，解码时按列的属性类型还原，支持迁移解析器允许的全部列类型。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+final class CursorCodec {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final TypeReference<List<@Nullable String>> VALUES_TYPE = new TypeReference<>() {
+    };
+
+    private CursorCodec() {
+    }
+
+    /**
+     * 读取实体在各排序列上的取值并编码为游标
+     *
+     * @param entity  最后一条记录
+     * @param columns 排序列
+     * @return 游标
+     */
+    static String encode(Object entity, List<ColumnMetadata> columns) {
+        List<@Nullable String> values = new ArrayList<>(columns.size());
+        for (ColumnMetadata column : columns) {
+            Object value = column.getGetterCaller().apply(entity);
+            values.add(value != null ? value.toString() : null);
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(values));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    /**
+     * 解码游标，按排序列的属性类型还原取值
+     *
+     * @param cursor  游标
+     * @param columns 排序列，必须与生成游标时一致
+     * @return 各排序列的取值
+     */
+    static List<@Nullable Object> decode(String cursor, List<ColumnMetadata> columns) {
+        List<@Nullable String> values;
+        try {
+            values = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII)),
+                                             VALUES_TYPE);
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Invalid cursor: " + cursor);
+        }
+        if (values == null || values.size() != columns.size()) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Cursor does not match the sort: " + cursor);
+        }
+
+        List<@Nullable Object> result = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            try {
+                result.add(value != null ? parse(value, columns.get(i).getPropertyType()) : null);
+            } catch (RuntimeException e) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Invalid cursor: " + cursor);
+            }
+        }
+        return result;
+    }
+
+    private static Object parse(String value, Class<?> type) {
+        if (type == UUID.class) return UUID.fromString(value);
+        if (type == Integer.class || type == int.class) return Integer.valueOf(value);
+        if (type == Long.class || type == long.class) return Long.valueOf(value);
+        if (type == Boolean.class || type == boolean.class) return Boolean.valueOf(value);
+        if (type == OffsetDateTime.class) return OffsetDateTime.parse(value);
+        if (type == LocalDate.class) return LocalDate.parse(value);
+        if (type == String.class) return value;
+        throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Unsupported cursor column type: " + type.getName());
+    }
+}
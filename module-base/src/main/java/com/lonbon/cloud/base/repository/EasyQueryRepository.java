@@ -3,20 +3,37 @@ package com.lonbon.cloud.base.repository;
 import com.easy.query.api.proxy.client.EasyEntityQuery;
 import com.easy.query.api.proxy.entity.select.EntityQueryable;
 import com.easy.query.core.api.pagination.EasyPageResult;
+import com.easy.query.core.basic.jdbc.executor.internal.enumerable.JdbcStreamResult;
 import com.easy.query.core.expression.lambda.SQLActionExpression1;
 import com.easy.query.core.expression.lambda.SQLActionExpression2;
 import com.easy.query.core.expression.lambda.SQLFuncExpression1;
+import com.easy.query.core.metadata.ColumnMetadata;
+import com.easy.query.core.metadata.EntityMetadata;
 import com.easy.query.core.proxy.AbstractProxyEntity;
 import com.easy.query.core.proxy.ProxyEntityAvailable;
 import com.easy.query.core.proxy.SQLSelectExpression;
 import com.easy.query.core.proxy.fetcher.AbstractFetcher;
 import com.easy.query.core.proxy.sql.include.IncludeContext;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lonbon.cloud.base.dto.CursorPageResult;
+import com.lonbon.cloud.base.dto.CursorPageable;
 import com.lonbon.cloud.base.dto.PageResult;
 import com.lonbon.cloud.base.dto.Pageable;
+import com.lonbon.cloud.base.dto.Sortable;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
 import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * EasyQuery仓库实现基类
@@ -35,6 +52,18 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
         TProxy extends AbstractProxyEntity<TProxy, T>, TChain extends AbstractFetcher<TProxy, T, TChain>>
         implements Repository<T, TProxy> {
 
+    /**
+     * 主键属性名
+     */
+    private static final String ID = "id";
+
+    /**
+     * 局部更新时不从实体取值的属性，更新时间、更新人和版本号由更新语句维护
+     */
+    private static final Set<String> PATCH_IGNORED_PROPERTIES = Set.of(
+            ID, BaseEntity.Fields.tenantId, BaseEntity.Fields.version, BaseEntity.Fields.updatedAt,
+            BaseEntity.Fields.updatedBy);
+
 
     /**
      * EasyQuery实体查询客户端
@@ -51,6 +80,31 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
      */
     protected final FetcherProvider<TProxy, T, TChain> fetcherProvider;
 
+    /**
+     * 实体二级缓存，未启用时为null
+     */
+    private @Nullable EntityCache<T> entityCache;
+
+    /**
+     * 请求级的按ID批量加载器
+     */
+    private final RequestEntityLoader<T> requestLoader;
+
+    /**
+     * 批量插入
+     */
+    private final BulkInserter<T> bulkInserter;
+
+    /**
+     * 抓取器上按名称选择列的方法，按属性名缓存
+     */
+    private final Map<String, Method> fetcherMethods = new ConcurrentHashMap<>();
+
+    /**
+     * ID集合查询改用数组参数的ID数量阈值
+     */
+    private int idArrayThreshold = IdPredicates.DEFAULT_ARRAY_THRESHOLD;
+
     /**
      * 构造EasyQuery仓库
      *
@@ -63,6 +117,33 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
         this.easyEntityQuery = easyEntityQuery;
         this.entityType = entityType;
         this.fetcherProvider = fetcherProvider;
+        this.requestLoader = new RequestEntityLoader<>(this, entityType, this::getAllByIds, this::getEntityId);
+        this.bulkInserter = new BulkInserter<>(easyEntityQuery.getRuntimeContext(), entityType);
+    }
+
+    /**
+     * 启用按ID查询的实体二级缓存
+     * <p>
+     * 适用于读多写少的参考数据（角色、权限、租户等），由子类在构造方法中按需调用。缓存以租户和ID为键，
+     * 容量超过 maximumSize 时按访问频率淘汰，写入后超过 ttl 过期。只缓存不带导航属性、不追踪的 {@code getById}，
+     * 在 {@link #track} 上下文中总是直接查询数据库。通过本仓库的写入和删除会使对应缓存失效；
+     * 绕过仓库直接执行的写入只能等待过期，因此 ttl 即可接受的最大陈旧时间。
+     * </p>
+     *
+     * @param maximumSize 最大缓存实体数
+     * @param ttl         写入后的有效期
+     */
+    protected final void enableCache(long maximumSize, Duration ttl) {
+        this.entityCache = new EntityCache<>(entityType, maximumSize, ttl);
+    }
+
+    /**
+     * 获取实体缓存的命中、未命中、淘汰等统计信息
+     *
+     * @return 统计信息，未启用缓存时为空
+     */
+    public Optional<CacheStats> getCacheStats() {
+        return Optional.ofNullable(entityCache).map(EntityCache::stats);
     }
 
     /**
@@ -117,19 +198,78 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
         easyEntityQuery.insertable(entities).batch().executeRows();
     }
 
+    @Override
+    public long bulkInsert(Collection<T> entities, BulkOptions options) {
+        long rows = bulkInserter.insert(entities, options);
+        // 新ID可能已作为“不存在”记入请求级映射
+        evictCache(List.copyOf(entities));
+        return rows;
+    }
+
+    @Override
+    public long insertSelect(List<String> properties, String select, List<?> parameters) {
+        return bulkInserter.insertSelect(properties, select, parameters);
+    }
+
     @Override
     public <S extends T> void update(S entity) {
         easyEntityQuery.updatable(entity).executeRows();
+        evictCache(List.of(entity));
     }
 
     @Override
     public <S extends T> void update(S entity, SQLFuncExpression1<TProxy, SQLSelectExpression> columns) {
         easyEntityQuery.updatable(entity).setColumns(columns).executeRows();
+        evictCache(List.of(entity));
     }
 
     @Override
     public void updateById(UUID id, SQLActionExpression1<TProxy> columns) {
         easyEntityQuery.updatable(entityType).setColumns(columns).whereById(id).executeRows();
+        evictCacheByIds(List.of(id));
+    }
+
+    @Override
+    public Optional<Integer> patchById(UUID id, T patch, @Nullable Integer version) {
+        EntityMetadata entityMetadata = easyEntityQuery.getRuntimeContext().getEntityMetadataManager()
+                                                       .getEntityMetadata(entityType);
+        ColumnMetadata versionColumn = entityMetadata.getColumnOrNull(BaseEntity.Fields.version);
+        Integer expectedVersion = version != null || versionColumn == null ? version
+                : (Integer) versionColumn.getGetterCaller().apply(patch);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (ColumnMetadata column : entityMetadata.getColumns()) {
+            if (column.isUpdateIgnore() || PATCH_IGNORED_PROPERTIES.contains(column.getPropertyName())) {
+                continue;
+            }
+            Object value = column.getGetterCaller().apply(patch);
+            if (value != null) {
+                values.put(column.getPropertyName(), value);
+            }
+        }
+        if (values.isEmpty()) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "No properties to update, ID: " + id);
+        }
+
+        Optional<Integer> newVersion = bulkInserter.patch(id, values, expectedVersion);
+        evictCacheByIds(List.of(id));
+
+        if (newVersion.isEmpty()) {
+            if (expectedVersion != null && existsById(id)) {
+                throw new BusinessException(ErrorCode.VERSION_CONFLICT,
+                                            "Entity has been modified, ID: " + id + ", version: " + expectedVersion);
+            }
+            throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Entity not found, ID: " + id);
+        }
+        return versionColumn != null ? newVersion : Optional.empty();
+    }
+
+    @Override
+    public long updateAll(SQLActionExpression1<TProxy> columns, SQLActionExpression1<TProxy> whereExpression) {
+        long rows = easyEntityQuery.updatable(entityType).ignoreVersion().setColumns(columns).where(whereExpression)
+                                   .executeRows();
+        invalidateCache();
+        return rows;
     }
 
 //    @Override
@@ -141,6 +281,7 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
     public <S extends T> void save(S entity) {
         // 只有 track + savable，才能实现聚合根保存
         easyEntityQuery.savable(entity).executeCommand();
+        evictCache(List.of(entity));
     }
 
     @Override
@@ -151,11 +292,51 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
         return entities;
     }
 
+    @Override
+    public UpsertResult upsertAll(Collection<T> entities, Collection<String> conflictProperties,
+                                  Collection<String> updateProperties) {
+        UpsertResult result = bulkInserter.upsert(entities, conflictProperties, updateProperties,
+                                                  BulkOptions.DEFAULT.batchSize());
+        // 冲突更新的行以数据库中的主键为准，无法按实体主键精确失效
+        if (result.updated() > 0) {
+            invalidateCache();
+        } else {
+            evictCache(List.copyOf(entities));
+        }
+        return result;
+    }
+
     @Override
     public EasyEntityQuery getEasyEntityQuery() {
         return easyEntityQuery;
     }
 
+    @Override
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+
+    @Override
+    public int getIdArrayThreshold() {
+        return idArrayThreshold;
+    }
+
+    /**
+     * 设置ID集合查询改用数组参数的ID数量阈值
+     * <p>
+     * 作为 Spring Bean 创建时由 {@code repository.id-array-threshold} 配置注入，参见 {@link IdPredicates}。
+     * </p>
+     *
+     * @param idArrayThreshold 阈值，必须大于0
+     */
+    @Value("${repository.id-array-threshold:" + IdPredicates.DEFAULT_ARRAY_THRESHOLD + "}")
+    public void setIdArrayThreshold(int idArrayThreshold) {
+        if (idArrayThreshold <= 0) {
+            throw new IllegalArgumentException("idArrayThreshold must be positive: " + idArrayThreshold);
+        }
+        this.idArrayThreshold = idArrayThreshold;
+    }
+
     @Override
     public EntityQueryable<TProxy, T> queryable() {
         return easyEntityQuery.queryable(entityType);
@@ -163,7 +344,12 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
 
     @Override
     public boolean existsById(UUID id) {
-        return getById(id).isPresent();
+        return queryable().whereById(id).any();
+    }
+
+    @Override
+    public boolean exists(SQLActionExpression1<TProxy> whereExpression) {
+        return queryable().where(whereExpression).any();
     }
 
     @Override
@@ -187,6 +373,11 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
         if (tracking) {
             queryable = queryable.asTracking();
         }
+        if (entityCache != null && navigate == null && !tracking
+                && !easyEntityQuery.getRuntimeContext().getTrackManager().currentThreadTracking()) {
+            EntityQueryable<TProxy, T> cacheable = queryable;
+            return entityCache.get(id, () -> cacheable.whereById(id).singleOptional());
+        }
         return queryable.whereById(id).singleOptional();
     }
 
@@ -249,9 +440,27 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
 
     @Override
     public List<T> getAllByIds(Collection<UUID> ids) {
+        if (IdPredicates.useArray(ids.size(), idArrayThreshold)) {
+            return queryable().where(t -> IdPredicates.in(t, ID, ids, idArrayThreshold)).toList();
+        }
         return queryable().whereByIds(ids).toList();
     }
 
+    @Override
+    public Optional<T> load(UUID id) {
+        return requestLoader.load(id);
+    }
+
+    @Override
+    public Map<UUID, T> loadAll(Collection<UUID> ids) {
+        return requestLoader.loadAll(ids);
+    }
+
+    @Override
+    public void prefetch(Collection<UUID> ids) {
+        requestLoader.prefetch(ids);
+    }
+
     @Override
     public List<T> getAll() {
         return queryable().toList();
@@ -267,6 +476,120 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
         return queryable().where(condition, whereExpression).toList();
     }
 
+    @Override
+    public List<T> getAll(SQLActionExpression1<TProxy> whereExpression, Collection<String> properties) {
+        if (properties.isEmpty()) {
+            return getAll(whereExpression);
+        }
+
+        EntityMetadata entityMetadata = easyEntityQuery.getRuntimeContext().getEntityMetadataManager()
+                                                       .getEntityMetadata(entityType);
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add(ID);
+        for (String property : properties) {
+            if (entityMetadata.getColumnOrNull(property) == null) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Unknown property: " + property);
+            }
+            columns.add(property);
+        }
+        return queryable().where(whereExpression).getClientQueryable().select(s -> {
+            for (String column : columns) {
+                s.column(column);
+            }
+        }).toList();
+    }
+
+    @Override
+    public <R> List<R> getAll(SQLActionExpression1<TProxy> whereExpression, Class<R> resultClass) {
+        return queryable().where(whereExpression).select(resultClass).toList();
+    }
+
+    /**
+     * 根据条件查询实体，通过类型安全的抓取器指定需要读取的列。
+     * <p>
+     * 抓取器由构造时传入的 {@link FetcherProvider} 提供，例如 {@code fetchAll(where, f -> f.id().name().parentId())}，
+     * 未选择的属性保持为 {@literal null}。
+     * </p>
+     *
+     * @param whereExpression 查询条件表达式
+     * @param fetcher         选择列的抓取器表达式
+     * @return 只填充了所选属性的实体列表
+     */
+    public List<T> fetchAll(SQLActionExpression1<TProxy> whereExpression, SQLFuncExpression1<TChain, TChain> fetcher) {
+        return queryable().where(whereExpression)
+                          .select(t -> fetcher.apply(fetcherProvider.apply(t)).fetchProxy())
+                          .toList();
+    }
+
+    @Override
+    public List<T> fetchAll(SQLActionExpression1<TProxy> whereExpression, Collection<String> fields) {
+        if (fields.isEmpty()) {
+            return getAll(whereExpression);
+        }
+        return fetchAll(whereExpression, byName(fields));
+    }
+
+    /**
+     * 把属性名解析为抓取器上的同名方法，依次调用得到选择这些列的抓取器表达式
+     * <p>
+     * 只接受生成的抓取器类上声明的无参属性方法，{@code allFields}、{@code fetchProxy} 等基类方法不视为属性。
+     * 名称在构建查询时解析，未知名称在执行查询之前即被拒绝。
+     * </p>
+     *
+     * @param fields 属性名
+     * @return 抓取器表达式，总是包含ID
+     */
+    private SQLFuncExpression1<TChain, TChain> byName(Collection<String> fields) {
+        Set<String> names = new LinkedHashSet<>();
+        names.add(ID);
+        names.addAll(fields);
+        return fetcher -> {
+            TChain chain = fetcher;
+            for (String name : names) {
+                chain = select(chain, name);
+            }
+            return chain;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private TChain select(TChain fetcher, String name) {
+        Method method = fetcherMethods.computeIfAbsent(name, key -> fetcherMethod(fetcher.getClass(), key));
+        try {
+            return (TChain) method.invoke(fetcher);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to select field " + name, e);
+        }
+    }
+
+    private static Method fetcherMethod(Class<?> fetcherType, String name) {
+        try {
+            Method method = fetcherType.getMethod(name);
+            if (method.getDeclaringClass() == fetcherType && fetcherType.isAssignableFrom(method.getReturnType())) {
+                return method;
+            }
+        } catch (NoSuchMethodException e) {
+            // 与基类方法一样按未知属性处理
+        }
+        throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Unknown field: " + name);
+    }
+
+    @Override
+    public Stream<T> stream(SQLActionExpression1<TProxy> whereExpression, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        JdbcStreamResult<T> result = queryable().where(whereExpression)
+                                                .toStreamResult(statement -> statement.setFetchSize(fetchSize));
+        return StreamSupport.stream(result.getStreamIterable().spliterator(), false).onClose(() -> {
+            try {
+                result.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to close stream result of " + entityType.getSimpleName(), e);
+            }
+        });
+    }
+
     @Override
     public PageResult<T> getPagination(Object whereObject, Pageable pageable) {
         EasyPageResult<T> result = queryable().whereObject(whereObject).orderByObject(pageable.hasSort(),
@@ -276,47 +599,208 @@ public abstract class EasyQueryRepository<T extends ProxyEntityAvailable<T, TPro
         return new PageResult<>(pageable, result.getTotal(), result.getData());
     }
 
+    @Override
+    public PageResult<T> getPagination(Object whereObject, Pageable pageable, Collection<String> fields) {
+        if (fields.isEmpty()) {
+            return getPagination(whereObject, pageable);
+        }
+        SQLFuncExpression1<TChain, TChain> fetcher = byName(fields);
+        EasyPageResult<T> result = queryable().whereObject(whereObject)
+                                              .orderByObject(pageable.hasSort(),
+                                                             new EasyQuerySort(pageable.getSortables()))
+                                              .select(t -> fetcher.apply(fetcherProvider.apply(t)).fetchProxy())
+                                              .toPageResult(pageable.getPage(), pageable.getSize());
+        return new PageResult<>(pageable, result.getTotal(), result.getData());
+    }
+
+    @Override
+    public CursorPageResult<T> getCursorPagination(Object whereObject, CursorPageable pageable) {
+        List<Sortable> sortables = new ArrayList<>(pageable.getSortables());
+        if (sortables.stream().noneMatch(sortable -> ID.equals(sortable.getProperty()))) {
+            // 追加ID作为最后的排序列，保证顺序唯一，游标才不会跳过或重复记录
+            sortables.add(new Sortable(ID, Sortable.Direction.ASC));
+        }
+
+        EntityMetadata entityMetadata = easyEntityQuery.getRuntimeContext().getEntityMetadataManager()
+                                                       .getEntityMetadata(entityType);
+        List<ColumnMetadata> columns = new ArrayList<>(sortables.size());
+        for (Sortable sortable : sortables) {
+            ColumnMetadata column = sortable.getProperty().contains(".") ? null
+                    : entityMetadata.getColumnOrNull(sortable.getProperty());
+            if (column == null) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                                            "Unsupported cursor sort property: " + sortable.getProperty());
+            }
+            columns.add(column);
+        }
+
+        String cursor = pageable.getCursor();
+        List<@Nullable Object> after = cursor != null && !cursor.isBlank() ? CursorCodec.decode(cursor, columns)
+                : List.of();
+        int size = pageable.getSize();
+
+        List<T> rows = queryable().whereObject(whereObject)
+                                  .where(!after.isEmpty(), t -> t.or(() -> {
+                                      // (a, b, c) 之后 = a 之后 OR (a 相等 AND b 之后) OR (a、b 相等 AND c 之后)
+                                      for (int i = 0; i < sortables.size(); i++) {
+                                          int index = i;
+                                          // 升序时空值排在最后，空值之后在该列上没有更大的值
+                                          if (after.get(index) == null
+                                                  && sortables.get(index).getDirection() == Sortable.Direction.ASC) {
+                                              continue;
+                                          }
+                                          t.and(() -> {
+                                              for (int j = 0; j < index; j++) {
+                                                  keysetEqual(t, sortables.get(j).getProperty(), after.get(j));
+                                              }
+                                              keysetAfter(t, sortables.get(index), after.get(index));
+                                          });
+                                      }
+                                  }))
+                                  .orderByObject(new EasyQuerySort(sortables))
+                                  .limit(size + 1)
+                                  .toList();
+
+        // 多取一条判断是否还有下一页
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = CursorCodec.encode(rows.getLast(), columns);
+        }
+        Long total = pageable.isSkipCount() ? null : queryable().whereObject(whereObject).count();
+        return new CursorPageResult<>(pageable, nextCursor, total, rows);
+    }
+
+    private static void keysetEqual(AbstractProxyEntity<?, ?> t, String property, @Nullable Object value) {
+        if (value == null) {
+            t.anyColumn(property).isNull();
+        } else {
+            t.anyColumn(property).eq(value);
+        }
+    }
+
+    /**
+     * 排序列位于游标取值之后的条件，与 PostgreSQL 默认的空值顺序一致：升序 NULLS LAST，降序 NULLS FIRST
+     */
+    private static void keysetAfter(AbstractProxyEntity<?, ?> t, Sortable sortable, @Nullable Object value) {
+        String property = sortable.getProperty();
+        if (sortable.getDirection() == Sortable.Direction.DESC) {
+            if (value == null) {
+                t.anyColumn(property).isNotNull();
+            } else {
+                t.anyColumn(property).lt(value);
+            }
+            return;
+        }
+        Object ascValue = Objects.requireNonNull(value, "ascending keyset after null has no successor");
+        t.or(() -> {
+            t.anyColumn(property).gt(ascValue);
+            t.anyColumn(property).isNull();
+        });
+    }
+
 
     @Override
     public long count() {
         return queryable().count();
     }
 
+    @Override
+    public long countBy(SQLActionExpression1<TProxy> whereExpression) {
+        return queryable().where(whereExpression).count();
+    }
+
     @Override
     public void delete(T entity) {
         easyEntityQuery.deletable(entity).executeRows();
+        evictCache(List.of(entity));
     }
 
     @Override
-    public void deleteById(UUID id) {
-        Optional<T> entity = getById(id);
-        if (entity.isPresent()) {
-            delete(entity.get());
-        } else {
-            throw new IllegalArgumentException("Entity not found with id: " + id);
+    public long deleteById(UUID id) {
+        long rows = easyEntityQuery.deletable(entityType).ignoreVersion().whereById(id).executeRows();
+        evictCacheByIds(List.of(id));
+        if (rows == 0) {
+            // 租户过滤下，其他租户的记录与不存在的记录同样影响0行，错误信息不区分两者
+            throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND,
+                                        entityType.getSimpleName() + " not found or not accessible, ID: " + id);
         }
+        return rows;
     }
 
     @Override
-    public void deleteAll(Iterable<? extends T> entities) {
-        for (T entity : entities) {
-            delete(entity);
+    public long deleteAll(Iterable<? extends T> entities) {
+        List<T> list = new ArrayList<>();
+        entities.forEach(list::add);
+        if (list.isEmpty()) {
+            return 0;
         }
+        long rows = easyEntityQuery.deletable(list).executeRows();
+        evictCache(list);
+        return rows;
     }
 
     @Override
     public void deleteAll() {
         easyEntityQuery.deletable(entityType).executeRows();
+        invalidateCache();
+    }
+
+    @Override
+    public long deleteAll(SQLActionExpression1<TProxy> whereExpression) {
+        long rows = easyEntityQuery.deletable(entityType).ignoreVersion().where(whereExpression).executeRows();
+        invalidateCache();
+        return rows;
+    }
+
+    @Override
+    public long deleteAllById(Iterable<? extends UUID> ids) {
+        Set<UUID> idSet = new LinkedHashSet<>();
+        ids.forEach(idSet::add);
+        if (idSet.isEmpty()) {
+            return 0;
+        }
+        long rows = IdPredicates.useArray(idSet.size(), idArrayThreshold)
+                ? easyEntityQuery.deletable(entityType).ignoreVersion()
+                                 .where(t -> IdPredicates.in(t, ID, idSet, idArrayThreshold))
+                                 .executeRows()
+                : easyEntityQuery.deletable(entityType).ignoreVersion().whereByIds(idSet).executeRows();
+        evictCacheByIds(idSet);
+        return rows;
+    }
+
+    private void evictCache(List<? extends T> entities) {
+        List<UUID> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            UUID id = getEntityId(entity);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        evictCacheByIds(ids);
+    }
+
+    private void evictCacheByIds(Collection<UUID> ids) {
+        requestLoader.evict(ids);
+        if (entityCache != null) {
+            entityCache.evict(ids);
+        }
     }
 
     @Override
-    public void deleteAllById(Iterable<? extends UUID> ids) {
-        for (UUID id : ids) {
-            Optional<T> entity = getById(id);
-            entity.ifPresent(this::delete);
+    public void invalidateCache() {
+        requestLoader.clear();
+        if (entityCache != null) {
+            entityCache.invalidateAll();
         }
     }
 
+    private @Nullable UUID getEntityId(T entity) {
+        ColumnMetadata idColumn = easyEntityQuery.getRuntimeContext().getEntityMetadataManager()
+                                                 .getEntityMetadata(entityType).getColumnNotNull(ID);
+        return (UUID) idColumn.getGetterCaller().apply(entity);
+    }
+
     @Override
     public <R> R track(Supplier<R> supplier) {
         var trackManager = easyEntityQuery.getRuntimeContext().getTrackManager();
@@ -0,0 +1,131 @@
+package com.lonbon.cloud.base.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.satoken.SaTokenHelper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 仓库的实体二级缓存
+ * <p>
+ * 以 (租户ID, 实体ID) 为键缓存按ID查询的结果，租户ID取自当前登录用户，与查询时的租户过滤条件一致，不同租户互不可见。
+ * 容量有界，由 Caffeine 按 W-TinyLFU 淘汰，写入后超过有效期自动过期。
+ * </p>
+ * <p>
+ * 缓存中保存实体的副本，读取时也返回副本，调用方修改返回的实体不会影响缓存。
+ * 同一ID的新旧实体以乐观锁版本号比较，只保留版本较高的一个；通过仓库写入、逻辑删除时按ID失效，
+ * 条件批量写入时全部失效。在事务中写入时，事务结束后再失效一次，避免并发读取在提交前把旧数据写回缓存；
+ * 读写事务中读取的数据可能尚未提交，不写入缓存。
+ * </p>
+ *
+ * @param <T> 实体类型，必须继承 {@link BaseEntity}
+ * @author lonbon
+ * @since 1.0.0
+ */
+final class EntityCache<T> {
+
+    /**
+     * 缓存键
+     *
+     * @param tenantId 租户ID，未登录时为 {@link SaTokenHelper#NULL_UUID}
+     * @param id       实体ID
+     */
+    private record Key(UUID tenantId, UUID id) {
+    }
+
+    private final Cache<Key, T> cache;
+
+    EntityCache(Class<T> entityType, long maximumSize, Duration ttl) {
+        if (!BaseEntity.class.isAssignableFrom(entityType)) {
+            throw new IllegalStateException("Entity cache requires a BaseEntity type: " + entityType.getName());
+        }
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    /**
+     * 按ID读取实体，未命中时通过加载函数查询数据库并写入缓存
+     *
+     * @param id     实体ID
+     * @param loader 未命中时的加载函数
+     * @return 实体副本
+     */
+    Optional<T> get(UUID id, Supplier<Optional<T>> loader) {
+        Key key = new Key(SaTokenHelper.getCurrentTenantId(), id);
+        T cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+
+        Optional<T> loaded = loader.get();
+        if (loaded.isPresent() && !inReadWriteTransaction()) {
+            cache.asMap().merge(key, copy(loaded.get()), (old, fresh) -> version(fresh) >= version(old) ? fresh : old);
+        }
+        return loaded;
+    }
+
+    /**
+     * 按ID失效，同一ID在所有租户键下的缓存都会被移除
+     *
+     * @param ids 实体ID集合
+     */
+    void evict(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<UUID> idSet = Set.copyOf(ids);
+        runNowAndAfterCompletion(() -> cache.asMap().keySet().removeIf(key -> idSet.contains(key.id())));
+    }
+
+    /**
+     * 全部失效，用于无法确定受影响ID的条件批量写入
+     */
+    void invalidateAll() {
+        runNowAndAfterCompletion(cache::invalidateAll);
+    }
+
+    /**
+     * 命中率等统计信息
+     *
+     * @return 统计信息
+     */
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static void runNowAndAfterCompletion(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static boolean inReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T copy(T entity) {
+        return (T) ((BaseEntity) entity).clone();
+    }
+
+    private static int version(Object entity) {
+        Integer version = ((BaseEntity) entity).getVersion();
+        return version != null ? version : -1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.lonbon.cloud.base.repository;
+
+import com.easy.query.core.proxy.AbstractProxyEntity;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * ID集合查询条件
+ * <p>
+ * {@code IN (?, ?, ...)} 每个ID绑定一个参数，ID数量不同语句文本就不同，PostgreSQL 无法复用执行计划，
+ * 几千个ID时还会接近驱动的参数个数上限。ID数量达到阈值时改为 {@code = ANY(?::uuid[])}，
+ * 整个集合作为一个数组参数绑定，语句文本固定，可以复用预编译语句和执行计划；数量较少时仍使用 IN，便于阅读SQL日志。
+ * 阈值由各仓库的 {@code repository.id-array-threshold} 配置决定，调用方显式传入。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+public final class IdPredicates {
+
+    /**
+     * 默认的数组参数阈值
+     */
+    public static final int DEFAULT_ARRAY_THRESHOLD = 100;
+
+    private IdPredicates() {
+    }
+
+    /**
+     * 判断给定数量的ID是否使用数组参数
+     *
+     * @param size      ID数量
+     * @param threshold 使用数组参数的ID数量阈值
+     * @return 达到阈值时返回 true
+     */
+    public static boolean useArray(int size, int threshold) {
+        return size >= threshold;
+    }
+
+    /**
+     * 添加“属性值属于ID集合”的条件
+     * <p>
+     * 集合为空时生成恒为假的条件，与 {@code IN ()} 的语义一致。
+     * </p>
+     *
+     * @param t         实体代理
+     * @param property  UUID 类型的属性名
+     * @param ids       ID集合
+     * @param threshold 使用数组参数的ID数量阈值，通常取自所查询仓库的 {@link Repository#getIdArrayThreshold()}
+     */
+    public static void in(AbstractProxyEntity<?, ?> t, String property, Collection<UUID> ids, int threshold) {
+        if (!useArray(ids.size(), threshold)) {
+            t.anyColumn(property).in(ids);
+            return;
+        }
+        UUID[] array = ids.toArray(new UUID[0]);
+        t.expression().sql("{0} = ANY({1}::uuid[])", c -> c.expression(t.anyColumn(property)).value(array));
+    }
+}
@@ -10,6 +10,8 @@ import com.easy.query.core.expression.lambda.SQLFuncExpression1;
 import com.easy.query.core.proxy.ProxyEntity;
 import com.easy.query.core.proxy.SQLSelectExpression;
 import com.easy.query.core.proxy.sql.include.IncludeContext;
+import com.lonbon.cloud.base.dto.CursorPageResult;
+import com.lonbon.cloud.base.dto.CursorPageable;
 import com.lonbon.cloud.base.dto.PageResult;
 import com.lonbon.cloud.base.dto.Pageable;
 import org.jspecify.annotations.Nullable;
@@ -17,9 +19,11 @@ import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * 仓库接口，定义了对实体的基本操作方法。
@@ -50,6 +54,45 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
 
     void insert(Collection<T> entities);
 
+    /**
+     * 批量插入大量实体。
+     * <p>
+     * 适用于导入、闭包表等一次写入成百上千行的场景。主键和审计、租户字段在写入前一次性填充，
+     * PostgreSQL 上以二进制 COPY 写入，其他数据库回退为多行 INSERT。
+     * 不经过 easy-query 的实体拦截器，也不检查实体是否已存在。
+     * </p>
+     *
+     * @param entities 要插入的实体集合，插入后主键和审计字段已被填充
+     * @param options  批量插入选项
+     * @return 插入的行数
+     */
+    long bulkInsert(Collection<T> entities, BulkOptions options);
+
+    /**
+     * 以一条 {@code INSERT ... SELECT} 写入由查询生成的行。
+     * <p>
+     * 适用于由已有数据推导出大量行的场景（例如移动子树时的闭包记录），行数据不经过应用。
+     * 查询按 properties 的顺序返回各列，其中的 {@code {table}} 和 {@code {属性名}} 替换为本实体的表名和列名；
+     * 主键、审计和租户字段不在 properties 中时由语句填充。查询不会自动附加逻辑删除、租户等过滤条件。
+     * 仅支持 PostgreSQL。
+     * </p>
+     *
+     * @param properties 查询返回的各列对应的属性名
+     * @param select     查询语句，参数以 {@code ?} 表示
+     * @param parameters 查询语句的参数
+     * @return 插入的行数
+     * @throws com.lonbon.cloud.base.exception.BusinessException 属性名不存在时
+     */
+    long insertSelect(List<String> properties, String select, List<?> parameters);
+
+    /**
+     * 清空本仓库的实体缓存（包括请求级的按ID批量加载结果）。
+     * <p>
+     * 通过本仓库的写入会自动失效对应缓存；绕过仓库直接执行的批量写入（例如由闭包表重新统计层级计数）之后调用。
+     * </p>
+     */
+    void invalidateCache();
+
     /**
      * 更新给定的实体。
      * <p>
@@ -85,6 +128,36 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
 
     void updateById(UUID id, SQLActionExpression1<TProxy> columns);
 
+    /**
+     * 按ID局部更新实体，不预先查询。
+     * <p>
+     * 把 patch 中非空的可更新属性直接作为 SET 列，以一条 {@code UPDATE ... WHERE id = ? AND version = ? RETURNING version}
+     * 执行，同时写入更新时间、更新人并把版本号加一。主键、租户、版本以及标记为不可更新的字段不会被写入。
+     * 未提供期望版本号时取 patch 上的版本号，仍为空则不校验版本。
+     * 没有更新任何行时，提供了版本号且记录存在即为版本冲突，否则为记录不存在。
+     * </p>
+     *
+     * @param id      实体ID
+     * @param patch   携带待更新属性的实体，值为 {@literal null} 的属性不更新
+     * @param version 期望的版本号，可为 {@literal null}
+     * @return 数据库中更新后的版本号，实体没有版本号列时为空
+     * @throws com.lonbon.cloud.base.exception.BusinessException 没有可更新的属性、记录不存在或版本冲突时
+     */
+    Optional<Integer> patchById(UUID id, T patch, @Nullable Integer version);
+
+    /**
+     * 更新符合条件的所有实体。
+     * <p>
+     * 以单条表达式更新语句执行，不会预先查询实体，也不校验乐观锁版本号，
+     * 适用于物化路径改写等由框架内部维护的批量更新。
+     * </p>
+     *
+     * @param columns         要更新的列及其取值表达式，不能为 {@literal null}
+     * @param whereExpression 更新条件表达式，不能为 {@literal null}
+     * @return 受影响的行数
+     */
+    long updateAll(SQLActionExpression1<TProxy> columns, SQLActionExpression1<TProxy> whereExpression);
+
     /**
      * 保存给定的实体。
      * <p>
@@ -115,8 +188,44 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     <S extends T> Iterable<S> saveAll(Iterable<S> entities);
 
+    /**
+     * 批量插入或更新实体。
+     * <p>
+     * 适用于同步外部数据源（旧系统人员、字典等）：按冲突属性判断是否已存在，
+     * 以多行 {@code INSERT ... ON CONFLICT DO UPDATE} 分批执行，不像 {@link #saveAll} 那样逐个实体查询和比较。
+     * 更新时版本号加一；实体携带版本号时只在与数据库一致时更新。已逻辑删除的行不参与冲突、不会被更新。
+     * 已有行属于其他租户时不会被更新，计入跳过数。
+     * 不经过 easy-query 的实体拦截器，主键和审计、租户字段在写入前一次性填充。
+     * </p>
+     *
+     * @param entities           实体集合
+     * @param conflictProperties 冲突判断的属性名，需对应唯一索引或主键
+     * @param updateProperties   冲突时更新的属性名，为空时更新除主键、租户、创建、删除、版本等字段以外的所有列
+     * @return 插入、更新、跳过的行数
+     * @throws com.lonbon.cloud.base.exception.BusinessException 属性名不存在，或实体在冲突属性上为空时
+     */
+    UpsertResult upsertAll(Collection<T> entities, Collection<String> conflictProperties,
+                           Collection<String> updateProperties);
+
     EasyEntityQuery getEasyEntityQuery();
 
+    /**
+     * 获取实体类型
+     *
+     * @return 实体类型Class，可用于与其他实体表连接查询
+     */
+    Class<T> getEntityType();
+
+    /**
+     * 获取ID集合查询改用数组参数的ID数量阈值
+     * <p>
+     * 在本仓库的实体上构造 {@link IdPredicates#in} 条件时传入该值。
+     * </p>
+     *
+     * @return 阈值
+     */
+    int getIdArrayThreshold();
+
 
     /**
      * 获取实体查询对象，用于构建复杂的查询条件。
@@ -127,6 +236,9 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
 
     /**
      * 返回是否存在具有给定 ID 的实体。
+     * <p>
+     * 以 {@code SELECT 1 ... LIMIT 1} 查询，不加载实体的任何列。
+     * </p>
      *
      * @param id 实体的唯一标识符，不能为 {@literal null}
      * @return 如果存在具有给定 ID 的实体则返回 {@literal true}，否则返回 {@literal false}
@@ -134,6 +246,18 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     boolean existsById(UUID id);
 
+    /**
+     * 返回是否存在符合条件的实体。
+     * <p>
+     * 以 {@code SELECT 1 ... LIMIT 1} 查询，找到第一条记录即返回，不加载实体的任何列。
+     * 用于代替 {@code getSingle(...).isPresent()} 或 {@code !getAll(...).isEmpty()} 这类只判断是否存在的写法。
+     * </p>
+     *
+     * @param whereExpression 查询条件表达式，不能为 {@literal null}
+     * @return 存在符合条件的实体时返回 {@literal true}
+     */
+    boolean exists(SQLActionExpression1<TProxy> whereExpression);
+
     /**
      * 通过 ID 检索实体。
      *
@@ -296,6 +420,34 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     List<T> getAllByIds(Collection<UUID> ids);
 
+    /**
+     * 在当前请求内按ID加载实体。
+     * <p>
+     * 同一请求内同一ID只查询一次数据库，之后返回同一个实体实例；通过 {@link #prefetch} 登记的ID会与本次查询合并为一条
+     * {@code whereByIds} 语句。不在请求线程中时等同于直接查询。返回的实体在请求内共享，只修改不保存会影响后续读取。
+     * </p>
+     *
+     * @param id 实体ID，不能为 {@literal null}
+     * @return 实体，不存在时为空
+     */
+    Optional<T> load(UUID id);
+
+    /**
+     * 在当前请求内按ID集合加载实体，未加载过的ID合并为一次查询。
+     *
+     * @param ids 实体ID集合，不能为 {@literal null}
+     * @return ID到实体的映射，不存在的ID不包含在内
+     * @see #load(UUID)
+     */
+    Map<UUID, T> loadAll(Collection<UUID> ids);
+
+    /**
+     * 登记当前请求稍后需要加载的ID，在下一次 {@link #load} 或 {@link #loadAll} 时一并查询。
+     *
+     * @param ids 实体ID集合，不能为 {@literal null}
+     */
+    void prefetch(Collection<UUID> ids);
+
     /**
      * 返回所有该类型的实例。
      *
@@ -328,6 +480,63 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     List<T> getAll(boolean condition, SQLActionExpression1<TProxy> whereExpression);
 
+    /**
+     * 根据条件查询实体，只读取指定的属性。
+     * <p>
+     * 只查询给定属性对应的列（总是包含ID），其余属性保持为 {@literal null}，
+     * 适用于只需要ID、名称、父节点ID等少量字段的列表和内部计算，减少读取和传输的数据量。
+     * 属性集合为空时读取全部列，与 {@link #getAll(SQLActionExpression1)} 相同。
+     * </p>
+     *
+     * @param whereExpression 查询条件表达式，不能为 {@literal null}
+     * @param properties      需要读取的实体属性名
+     * @return 只填充了指定属性的实体列表
+     * @throws com.lonbon.cloud.base.exception.BusinessException 属性名不是实体的列时抛出
+     */
+    List<T> getAll(SQLActionExpression1<TProxy> whereExpression, Collection<String> properties);
+
+    /**
+     * 根据条件查询实体，通过实体的抓取器（{@link FetcherProvider}）按名称选择需要读取的列。
+     * <p>
+     * 用于列表接口的稀疏字段集（{@code fields=}）：每个名称对应抓取器上的同名属性，总是包含ID，
+     * 其余未选择的属性保持为 {@literal null}。名称集合为空时读取全部列。
+     * </p>
+     *
+     * @param whereExpression 查询条件表达式，不能为 {@literal null}
+     * @param fields          需要读取的属性名
+     * @return 只填充了所选属性的实体列表
+     * @throws com.lonbon.cloud.base.exception.BusinessException 名称不是抓取器上的属性时抛出
+     */
+    List<T> fetchAll(SQLActionExpression1<TProxy> whereExpression, Collection<String> fields);
+
+    /**
+     * 根据条件查询实体并投影为指定的类型。
+     * <p>
+     * 按属性名将同名的列映射到结果类型，只查询结果类型中存在的列，适用于直接返回 DTO 的查询。
+     * </p>
+     *
+     * @param whereExpression 查询条件表达式，不能为 {@literal null}
+     * @param resultClass     结果类型
+     * @param <R>             结果类型
+     * @return 投影结果列表
+     */
+    <R> List<R> getAll(SQLActionExpression1<TProxy> whereExpression, Class<R> resultClass);
+
+    /**
+     * 以流的方式逐条读取符合条件的实体。
+     * <p>
+     * 使用 JDBC 的 fetchSize 让 PostgreSQL 以服务端游标分批返回结果，内存占用只与 fetchSize 有关，
+     * 适用于导出等需要遍历大量数据的场景。PostgreSQL 只在关闭自动提交时使用游标，
+     * 因此必须在（只读）事务中调用并在事务结束前消费完毕；返回的流持有数据库连接上的结果集，使用后必须关闭，
+     * 建议放在 try-with-resources 中。
+     * </p>
+     *
+     * @param whereExpression 查询条件表达式，不能为 {@literal null}
+     * @param fetchSize       每批从数据库读取的行数，必须大于0
+     * @return 实体流，关闭时释放结果集
+     */
+    Stream<T> stream(SQLActionExpression1<TProxy> whereExpression, int fetchSize);
+
     /**
      * 返回符合 {@link Pageable} 对象中提供的分页限制的实体分页结果。
      *
@@ -337,6 +546,30 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     PageResult<T> getPagination(Object whereObject, Pageable pageable);
 
+    /**
+     * 分页查询实体，通过实体的抓取器按名称选择需要读取的列，规则与 {@link #fetchAll(SQLActionExpression1, Collection)} 相同。
+     *
+     * @param whereObject 查询条件对象，用于构建查询条件
+     * @param pageable    分页请求参数，包含页码、每页大小等信息，不能为空
+     * @param fields      需要读取的属性名，为空时读取全部列
+     * @return 分页结果，当前页数据只填充了所选属性
+     * @throws com.lonbon.cloud.base.exception.BusinessException 名称不是抓取器上的属性时抛出
+     */
+    PageResult<T> getPagination(Object whereObject, Pageable pageable, Collection<String> fields);
+
+    /**
+     * 返回符合 {@link CursorPageable} 游标分页参数的实体分页结果。
+     * <p>
+     * 按排序列和ID做键集分页，翻页不使用 OFFSET，深分页与第一页代价相同；
+     * 设置 {@link CursorPageable#isSkipCount()} 时不执行总数统计。
+     * </p>
+     *
+     * @param whereObject 查询条件对象，用于构建查询条件
+     * @param pageable    游标分页请求参数，不能为空
+     * @return 游标分页结果，包含当前页数据和下一页游标
+     */
+    CursorPageResult<T> getCursorPagination(Object whereObject, CursorPageable pageable);
+
 
     /**
      * 返回可用实体的数量。
@@ -345,6 +578,14 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     long count();
 
+    /**
+     * 返回符合条件的实体数量。
+     *
+     * @param whereExpression 查询条件表达式，不能为 {@literal null}
+     * @return 符合条件的实体数量
+     */
+    long countBy(SQLActionExpression1<TProxy> whereExpression);
+
     /**
      * 删除给定的实体。
      *
@@ -358,24 +599,28 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
     /**
      * 删除具有给定 ID 的实体。
      * <p>
-     * 如果在持久化存储中未找到实体，则静默忽略，不会抛出异常。
+     * 以单条删除语句执行（逻辑删除实体为一条UPDATE语句），不会预先查询实体，不校验乐观锁版本号，
+     * 租户过滤和逻辑删除策略仍然生效。是否存在通过受影响的行数判断。
      * </p>
      *
      * @param id 实体的唯一标识符，不能为 {@literal null}
-     * @throws IllegalArgumentException          如果给定的 {@literal id} 为 {@literal null}
-     * @throws OptimisticLockingFailureException 当实体使用乐观锁并且版本属性与持久化存储中的值不同时，
-     *                                           或者当实体被认为存在但数据库中不存在时
+     * @return 受影响的行数
+     * @throws com.lonbon.cloud.base.exception.BusinessException 实体不存在、已删除或属于其他租户（受影响行数为0）时
      */
-    void deleteById(UUID id);
+    long deleteById(UUID id);
 
     /**
      * 删除给定的所有实体。
+     * <p>
+     * 所有实体以同一条按主键和版本号删除的语句批量执行，只需一次数据库往返，并保留乐观锁校验。
+     * </p>
      *
      * @param entities 要删除的实体集合，不能为 {@literal null}，也不能包含 {@literal null} 元素
+     * @return 受影响的行数
      * @throws IllegalArgumentException          如果给定的 {@literal entities} 或其中一个实体为 {@literal null}
      * @throws OptimisticLockingFailureException 当至少一个实体使用乐观锁并且版本属性与持久化存储中的值不同时
      */
-    void deleteAll(Iterable<? extends T> entities);
+    long deleteAll(Iterable<? extends T> entities);
 
     /**
      * 删除由仓库管理的所有实体。
@@ -385,17 +630,30 @@ public interface Repository<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     void deleteAll();
 
+    /**
+     * 删除符合条件的所有实体。
+     * <p>
+     * 以单条表达式删除语句执行，不会预先查询实体；对于逻辑删除实体，实际执行的是一条UPDATE语句。
+     * 表达式删除不校验乐观锁版本号，适用于闭包表等由框架内部维护、不会被并发编辑的数据。
+     * </p>
+     *
+     * @param whereExpression 删除条件表达式，不能为 {@literal null}
+     * @return 受影响的行数
+     */
+    long deleteAll(SQLActionExpression1<TProxy> whereExpression);
+
     /**
      * 删除具有给定 ID 的所有实体。
      * <p>
-     * 在持久化存储中未找到的实体将被静默忽略。
+     * 以单条 {@code WHERE id IN (...)} 删除语句执行，不会预先查询实体，不校验乐观锁版本号。
+     * 在持久化存储中未找到的实体将被静默忽略，可通过返回的行数与ID数量比较得知。
      * </p>
      *
      * @param ids 实体ID集合，不能为 {@literal null}，也不能包含 {@literal null} 元素
-     * @throws IllegalArgumentException          如果给定的 {@literal ids} 或其中一个元素为 {@literal null}
-     * @throws OptimisticLockingFailureException 当至少一个实体使用乐观锁并且版本属性与持久化存储中的值不同时
+     * @return 受影响的行数
+     * @throws IllegalArgumentException 如果给定的 {@literal ids} 或其中一个元素为 {@literal null}
      */
-    void deleteAllById(Iterable<? extends UUID> ids);
+    long deleteAllById(Iterable<? extends UUID> ids);
 
     /**
      * 在事务追踪上下文中执行供应商函数。
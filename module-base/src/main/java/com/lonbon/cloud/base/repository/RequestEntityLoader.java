@@ -0,0 +1,177 @@
+package com.lonbon.cloud.base.repository;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 请求级的按ID批量加载器（DataLoader 模式）
+ * <p>
+ * 在同一个 HTTP 请求内维护一份实体的标识映射（identity map）：同一ID只查询一次数据库，之后直接返回同一个实体实例，
+ * 查询不到的ID同样会被记住。调用方可以先 {@link #prefetch} 登记稍后需要的ID，
+ * 在第一次真正 {@link #load} 时与当前ID合并为一条 {@code whereByIds} 查询，避免逐个查询。
+ * </p>
+ * <p>
+ * 状态保存在请求属性中，请求结束即丢弃；不在请求线程中（例如定时任务、异步线程）时不做任何缓存，直接查询。
+ * 通过仓库写入或删除的实体会从映射中移除，下一次加载时重新查询。
+ * </p>
+ *
+ * @param <T> 实体类型
+ * @author lonbon
+ * @since 1.0.0
+ */
+final class RequestEntityLoader<T> {
+
+    /**
+     * 单个请求内的加载状态
+     */
+    private static final class State<T> {
+        /**
+         * 已加载的实体，值为空表示数据库中不存在
+         */
+        private final Map<UUID, Optional<T>> loaded = new HashMap<>();
+        /**
+         * 已登记、尚未查询的ID
+         */
+        private final Set<UUID> pending = new LinkedHashSet<>();
+    }
+
+    /**
+     * 请求属性名，每个仓库实例一个
+     */
+    private final String attributeName;
+
+    /**
+     * 按ID集合批量查询实体
+     */
+    private final Function<Collection<UUID>, List<T>> batchLoader;
+
+    /**
+     * 读取实体ID
+     */
+    private final Function<T, @Nullable UUID> idGetter;
+
+    RequestEntityLoader(Object owner, Class<T> entityType, Function<Collection<UUID>, List<T>> batchLoader,
+                        Function<T, @Nullable UUID> idGetter) {
+        this.attributeName = RequestEntityLoader.class.getName() + "." + entityType.getName() + "@"
+                + Integer.toHexString(System.identityHashCode(owner));
+        this.batchLoader = batchLoader;
+        this.idGetter = idGetter;
+    }
+
+    /**
+     * 登记稍后需要加载的ID，不立即查询
+     *
+     * @param ids 实体ID集合
+     */
+    void prefetch(Collection<UUID> ids) {
+        State<T> state = state();
+        if (state == null) {
+            return;
+        }
+        for (UUID id : ids) {
+            if (!state.loaded.containsKey(id)) {
+                state.pending.add(id);
+            }
+        }
+    }
+
+    /**
+     * 按ID加载实体，与已登记的ID合并查询
+     *
+     * @param id 实体ID
+     * @return 实体，不存在时为空
+     */
+    Optional<T> load(UUID id) {
+        return Optional.ofNullable(loadAll(List.of(id)).get(id));
+    }
+
+    /**
+     * 按ID集合加载实体，未加载过的ID与已登记的ID合并为一次查询
+     *
+     * @param ids 实体ID集合
+     * @return ID到实体的映射，不存在的ID不包含在内，顺序与参数一致
+     */
+    Map<UUID, T> loadAll(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        State<T> state = state();
+        if (state == null) {
+            Map<UUID, T> result = new LinkedHashMap<>();
+            for (T entity : batchLoader.apply(ids)) {
+                UUID id = idGetter.apply(entity);
+                if (id != null) {
+                    result.put(id, entity);
+                }
+            }
+            return result;
+        }
+
+        prefetch(ids);
+        dispatch(state);
+
+        Map<UUID, T> result = new LinkedHashMap<>();
+        for (UUID id : ids) {
+            state.loaded.getOrDefault(id, Optional.empty()).ifPresent(entity -> result.put(id, entity));
+        }
+        return result;
+    }
+
+    /**
+     * 从当前请求的映射中移除给定ID
+     *
+     * @param ids 实体ID集合
+     */
+    void evict(Collection<UUID> ids) {
+        State<T> state = state();
+        if (state != null) {
+            ids.forEach(state.loaded::remove);
+        }
+    }
+
+    /**
+     * 清空当前请求的映射
+     */
+    void clear() {
+        State<T> state = state();
+        if (state != null) {
+            state.loaded.clear();
+        }
+    }
+
+    private void dispatch(State<T> state) {
+        if (state.pending.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(state.pending);
+        state.pending.clear();
+
+        for (UUID id : ids) {
+            state.loaded.put(id, Optional.empty());
+        }
+        for (T entity : batchLoader.apply(ids)) {
+            UUID id = idGetter.apply(entity);
+            if (id != null) {
+                state.loaded.put(id, Optional.of(entity));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable State<T> state() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object state = attributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+        if (state == null) {
+            state = new State<T>();
+            attributes.setAttribute(attributeName, state, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (State<T>) state;
+    }
+}
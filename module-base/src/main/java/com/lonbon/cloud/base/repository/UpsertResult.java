@@ -0,0 +1,23 @@
+package com.lonbon.cloud.base.repository;
+
+/**
+ * 批量插入或更新的结果
+ *
+ * @param inserted 新插入的行数
+ * @param updated  与已有行冲突并被更新的行数
+ * @param skipped  与已有行冲突但未更新的行数：已有行已被逻辑删除、属于其他租户，或实体携带的版本号与已有行不一致
+ * @author lonbon
+ * @since 1.0.0
+ */
+public record UpsertResult(long inserted, long updated, long skipped) {
+
+    /**
+     * 合并两次执行的结果
+     *
+     * @param other 另一次执行的结果
+     * @return 各项之和
+     */
+    public UpsertResult plus(UpsertResult other) {
+        return new UpsertResult(inserted + other.inserted, updated + other.updated, skipped + other.skipped);
+    }
+}
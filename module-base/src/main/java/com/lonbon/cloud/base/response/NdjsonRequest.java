@@ -0,0 +1,65 @@
+package com.lonbon.cloud.base.response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * NDJSON 请求体读取
+ * <p>
+ * 请求体每行一个 JSON 对象（{@code application/x-ndjson}），逐行反序列化并做 Bean Validation 校验，
+ * 不需要先把整个请求体读成一个 JSON 数组。空行被忽略；任意一行解析或校验失败时整个请求失败，错误信息带行号。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+public final class NdjsonRequest {
+
+    private NdjsonRequest() {
+    }
+
+    /**
+     * 读取并校验 NDJSON 请求体
+     *
+     * @param objectMapper JSON 反序列化工具
+     * @param validator    Bean Validation 校验器
+     * @param body         请求体
+     * @param type         每行的数据类型
+     * @param <T>          数据类型
+     * @return 按请求体顺序排列的数据项
+     * @throws BusinessException 某一行无法解析或校验失败时
+     */
+    public static <T> List<T> read(ObjectMapper objectMapper, Validator validator, InputStream body, Class<T> type) {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                T item = iterator.nextValue();
+                int line = iterator.getCurrentLocation().getLineNr();
+                Set<ConstraintViolation<T>> violations = validator.validate(item);
+                if (!violations.isEmpty()) {
+                    ConstraintViolation<T> violation = violations.iterator().next();
+                    throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                            "Line " + line + ": " + violation.getPropertyPath() + " " + violation.getMessage());
+                }
+                items.add(item);
+            }
+        } catch (JsonProcessingException e) {
+            String line = e.getLocation() == null ? "?" : String.valueOf(e.getLocation().getLineNr());
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Line " + line + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Failed to read request body: " + e.getMessage());
+        }
+        return items;
+    }
+}
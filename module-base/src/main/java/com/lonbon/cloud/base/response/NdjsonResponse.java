@@ -0,0 +1,71 @@
+package com.lonbon.cloud.base.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lonbon.cloud.base.satoken.CallerContext;
+import com.lonbon.cloud.base.satoken.SaTokenHelper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * NDJSON 流式响应
+ * <p>
+ * 每个数据项序列化为一行 JSON（{@code application/x-ndjson}），边查询边输出，不在内存中拼装完整列表，
+ * 适用于导出大量数据。流式响应不使用 {@link Response} 包装，出错时已输出的内容无法撤回，客户端以连接异常结束判断失败。
+ * </p>
+ * <p>
+ * 响应体在异步线程中写出，该线程没有 Sa-Token 请求上下文。构建响应时在请求线程中捕获登录用户和租户，
+ * 写出期间通过 {@link SaTokenHelper#callWithContext} 恢复，数据源的租户过滤和审计字段与发起请求的用户一致。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+public final class NdjsonResponse {
+
+    private NdjsonResponse() {
+    }
+
+    /**
+     * 构建 NDJSON 流式响应
+     * <p>
+     * 响应体在异步线程中写出，数据源需要自行开启事务，例如调用 {@code EntityService.streamEntities}。
+     * 必须在请求线程中调用，调用方上下文在此时捕获。
+     * </p>
+     *
+     * @param objectMapper JSON 序列化工具
+     * @param source       数据源，把每个数据项交给传入的回调输出
+     * @param <T>          数据项类型
+     * @return 流式响应
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper,
+                                                               Consumer<Consumer<T>> source) {
+        CallerContext context = SaTokenHelper.captureContext();
+        StreamingResponseBody body = outputStream -> SaTokenHelper.callWithContext(context, () -> {
+            // 逐行写入，由底层缓冲区决定何时刷新，不在每个数据项后刷新
+            try (SequenceWriter writer = objectMapper.writer()
+                                                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                                                     .withRootValueSeparator("\n")
+                                                     .writeValues(StreamUtils.nonClosing(outputStream))) {
+                source.accept(item -> {
+                    try {
+                        writer.write(item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            outputStream.write('\n');
+            outputStream.flush();
+            return null;
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
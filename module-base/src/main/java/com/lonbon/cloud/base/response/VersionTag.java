@@ -0,0 +1,65 @@
+package com.lonbon.cloud.base.response;
+
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+/**
+ * 以 ETag / If-Match 传递实体的乐观锁版本号
+ * <p>
+ * 版本号格式化为强 ETag（例如 {@code "3"}）；解析 {@code If-Match} 时同时接受弱 ETag（{@code W/"3"}）和不带引号的数字。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+public final class VersionTag {
+
+    private VersionTag() {
+    }
+
+    /**
+     * 解析 If-Match 请求头中的版本号
+     *
+     * @param ifMatch If-Match 请求头，可为空
+     * @return 版本号，请求头为空或为 {@code *} 时返回 null
+     * @throws BusinessException 请求头不是单个版本号时
+     */
+    public static @Nullable Integer parse(@Nullable String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Integer.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Invalid If-Match header: " + ifMatch);
+        }
+    }
+
+    /**
+     * 构建响应，已知新版本号时附带 ETag 响应头
+     *
+     * @param version 更新后的版本号
+     * @param body    响应体
+     * @param <T>     响应体类型
+     * @return 响应
+     */
+    public static <T> ResponseEntity<T> ok(Optional<Integer> version, T body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        version.ifPresent(v -> builder.eTag("\"" + v + "\""));
+        return builder.body(body);
+    }
+}
@@ -0,0 +1,18 @@
+package com.lonbon.cloud.base.satoken;
+
+import java.util.UUID;
+
+/**
+ * 调用方上下文
+ * <p>
+ * 在请求线程中捕获的登录用户ID和当前租户ID，用于在没有 Sa-Token 上下文的线程（例如流式响应的写出线程）中
+ * 恢复身份，使审计字段和租户过滤与发起请求的用户一致。
+ * </p>
+ *
+ * @param loginId  登录用户ID，未登录时为 {@link SaTokenHelper#NULL_UUID}
+ * @param tenantId 当前租户ID，未登录或不限定租户时为 {@link SaTokenHelper#NULL_UUID}
+ * @author lonbon
+ * @since 1.0.0
+ */
+public record CallerContext(UUID loginId, UUID tenantId) {
+}
@@ -9,7 +9,15 @@ public class SaTokenHelper {
 
     public static final UUID NULL_UUID = new UUID(0, 0);
 
+    /**
+     * 显式绑定的调用方上下文，绑定后优先于 Sa-Token 的请求上下文
+     */
+    private static final ScopedValue<CallerContext> BOUND_CONTEXT = ScopedValue.newInstance();
+
     public static UUID getLoginId() {
+        if (BOUND_CONTEXT.isBound()) {
+            return BOUND_CONTEXT.get().loginId();
+        }
         Object loginId = StpUtil.getLoginId();
         if (loginId instanceof String s) {
             return UUID.fromString(s);
@@ -33,7 +41,45 @@ public class SaTokenHelper {
     }
 
     public static UUID getCurrentTenantId() {
+        if (BOUND_CONTEXT.isBound()) {
+            return BOUND_CONTEXT.get().tenantId();
+        }
         LoginUser loginUser = getLoginUser();
         return loginUser != null ? loginUser.getCurrentTenantId() : NULL_UUID;
     }
+
+    /**
+     * 捕获当前线程的调用方上下文
+     * <p>
+     * 必须在请求线程中调用；已绑定上下文时返回绑定的上下文。
+     * </p>
+     *
+     * @return 调用方上下文
+     */
+    public static CallerContext captureContext() {
+        if (BOUND_CONTEXT.isBound()) {
+            return BOUND_CONTEXT.get();
+        }
+        UUID loginId = StpUtil.isLogin() ? getLoginId() : NULL_UUID;
+        return new CallerContext(loginId, getCurrentTenantId());
+    }
+
+    /**
+     * 以指定的调用方上下文执行操作
+     * <p>
+     * 操作执行期间 {@link #getLoginId()}、{@link #getCurrentTenantId()} 返回该上下文中的值，不访问 Sa-Token，
+     * 结束后自动解除绑定。
+     * </p>
+     *
+     * @param context 调用方上下文
+     * @param op      操作
+     * @param <R>     返回值类型
+     * @param <X>     操作抛出的异常类型
+     * @return 操作的返回值
+     * @throws X 操作抛出的异常
+     */
+    public static <R, X extends Throwable> R callWithContext(CallerContext context, ScopedValue.CallableOp<R, X> op)
+            throws X {
+        return ScopedValue.where(BOUND_CONTEXT, context).call(op);
+    }
 }
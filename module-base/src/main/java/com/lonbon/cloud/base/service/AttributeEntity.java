@@ -1,6 +1,7 @@
 package com.lonbon.cloud.base.service;
 
 import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.TableIndex;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -15,6 +16,7 @@ import java.util.UUID;
 @EqualsAndHashCode(callSuper = true)
 @AllArgsConstructor
 @NoArgsConstructor
+@TableIndex(columns = {AttributeEntity.Fields.entityId, AttributeEntity.Fields.attributeId})
 @NullUnmarked
 public abstract class AttributeEntity extends BaseEntity {
 
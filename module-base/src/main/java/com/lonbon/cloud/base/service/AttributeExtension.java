@@ -2,8 +2,10 @@ package com.lonbon.cloud.base.service;
 
 import com.easy.query.core.proxy.ProxyEntity;
 import com.easy.query.core.proxy.ProxyEntityAvailable;
+import com.lonbon.cloud.base.repository.BulkOptions;
 import com.lonbon.cloud.base.repository.Repository;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class AttributeExtension<T extends ProxyEntityAvailable<T, TProxy> & AttributeAvailable<A>,
@@ -38,4 +40,25 @@ public abstract class AttributeExtension<T extends ProxyEntityAvailable<T, TProx
         }
         attributeRepository.insert(attributes);
     }
+
+    /**
+     * 批量创建实体之后，所有实体的扩展属性以一次批量插入写入
+     */
+    @Override
+    public void postCreateAll(List<T> entities) {
+        List<A> attributes = new ArrayList<>();
+        for (T entity : entities) {
+            List<A> entityAttributes = entity.getAttributes();
+            if (entityAttributes == null) {
+                continue;
+            }
+            for (A attribute : entityAttributes) {
+                attribute.setEntityId(entity.getId());
+                attributes.add(attribute);
+            }
+        }
+        if (!attributes.isEmpty()) {
+            attributeRepository.bulkInsert(attributes, BulkOptions.DEFAULT);
+        }
+    }
 }
@@ -3,15 +3,8 @@ package com.lonbon.cloud.base.service;
 import org.jspecify.annotations.Nullable;
 
 import java.util.List;
-import java.util.UUID;
 
-public interface ClosureAvailable<T extends ClosureEntity> {
-
-    @Nullable UUID getId();
-
-    @Nullable UUID getParentId();
-
-    void setParentId(UUID parentId);
+public interface ClosureAvailable<T extends ClosureEntity> extends HierarchyAvailable {
 
     @Nullable List<T> getAncestors();
 }
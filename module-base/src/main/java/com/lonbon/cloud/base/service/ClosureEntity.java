@@ -1,6 +1,7 @@
 package com.lonbon.cloud.base.service;
 
 import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.TableIndex;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -15,6 +16,8 @@ import java.util.UUID;
 @EqualsAndHashCode(callSuper = true)
 @AllArgsConstructor
 @NoArgsConstructor
+@TableIndex(columns = {ClosureEntity.Fields.ancestorId, ClosureEntity.Fields.distance})
+@TableIndex(columns = {ClosureEntity.Fields.descendantId, ClosureEntity.Fields.distance})
 @NullUnmarked
 public abstract class ClosureEntity extends BaseEntity {
 
@@ -1,21 +1,52 @@
 package com.lonbon.cloud.base.service;
 
+import com.easy.query.core.expression.lambda.SQLActionExpression1;
 import com.easy.query.core.expression.lambda.SQLActionExpression2;
 import com.easy.query.core.expression.lambda.SQLFuncExpression1;
 import com.easy.query.core.proxy.AbstractProxyEntity;
 import com.easy.query.core.proxy.ProxyEntityAvailable;
 import com.easy.query.core.proxy.SQLSelectExpression;
+import com.easy.query.core.proxy.core.draft.Draft2;
+import com.easy.query.core.proxy.sql.GroupKeys;
+import com.easy.query.core.proxy.sql.Select;
 import com.easy.query.core.proxy.sql.include.IncludeContext;
+import com.lonbon.cloud.base.dto.DistanceRange;
+import com.lonbon.cloud.base.dto.LazyTreeNode;
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.dto.TreeNode;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.UUIDPrimaryKeyGenerator;
 import com.lonbon.cloud.base.exception.BusinessException;
 import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.base.repository.BulkOptions;
+import com.lonbon.cloud.base.repository.IdPredicates;
 import com.lonbon.cloud.base.repository.Repository;
+import com.lonbon.cloud.base.satoken.SaTokenHelper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.transaction.annotation.Transactional;
+import org.jspecify.annotations.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -43,6 +74,12 @@ import java.util.stream.Collectors;
  * }</pre>
  * </p>
  *
+ * <p>
+ * 扩展由 Service 在构造方法中直接创建，不是 Spring Bean，方法上的 {@code @Transactional} 不会生效。
+ * 事务由调用方提供：通过 {@link ClosureService} 调用时由 Service 代理开启事务，直接调用写操作
+ * （移动节点、删除子树、导入树）时调用方必须处于事务中，否则多条语句各自提交，失败时层级结构会不一致。
+ * </p>
+ *
  * @param <T>      实体类型
  * @param <TProxy> 实体代理类型
  * @param <U>      闭包实体类型
@@ -54,7 +91,7 @@ import java.util.stream.Collectors;
 public abstract class ClosureExtension<T extends ProxyEntityAvailable<T, TProxy> & ClosureAvailable<U>,
         TProxy extends AbstractProxyEntity<TProxy, T>, U extends ClosureEntity & ProxyEntityAvailable<U, UProxy>,
         UProxy extends AbstractProxyEntity<UProxy, U>>
-        implements ClosureOperation<T, TProxy, U, UProxy>, EntityServiceInterceptor<T> {
+        implements HierarchyExtension<T, TProxy, U, UProxy> {
 
     /**
      * 主实体仓库
@@ -73,15 +110,117 @@ public abstract class ClosureExtension<T extends ProxyEntityAvailable<T, TProxy>
      */
     private final SQLFuncExpression1<TProxy, SQLSelectExpression> setColumnParentId;
     /**
-     * 闭包表字段常量
-     * <p>
-     * 注意：接口中的字段默认是 {@code public static final}，可省略修饰符。
-     * 这些常量用于构建闭包表查询条件。
-     * </p>
+     * 闭包表字段常量，用于构建闭包表查询条件
+     */
+    static final String ANCESTOR_ID = ClosureEntity.Fields.ancestorId;
+    static final String DESCENDANT_ID = ClosureEntity.Fields.descendantId;
+    static final String DISTANCE = ClosureEntity.Fields.distance;
+    static final String ID = BaseEntity.Fields.id;
+    static final String PARENT_ID = "parentId";
+    static final String CHILD_COUNT = "childCount";
+    static final String SUBTREE_SIZE = "subtreeSize";
+
+    /**
+     * 只读取闭包记录中祖先和距离的投影，用于由父节点的祖先推导新节点的闭包
+     */
+    private static final List<String> ANCESTOR_COLUMNS = List.of(ANCESTOR_ID, DISTANCE);
+
+    /**
+     * 只读取闭包记录中三个关系列的投影，不读取审计、租户等公共列
+     */
+    private static final List<String> CLOSURE_COLUMNS = List.of(ANCESTOR_ID, DESCENDANT_ID, DISTANCE);
+
+    /**
+     * 移动子树时重连的查询：新父节点的每个祖先 × 子树中的每个节点，两个参数依次为新父节点ID和被移动节点ID
+     */
+    private static final String RECONNECT_SELECT =
+            "SELECT a.{ancestorId}, d.{descendantId}, a.{distance} + d.{distance} + 1"
+                    + " FROM {table} AS a CROSS JOIN {table} AS d"
+                    + " WHERE a.{descendantId} = ? AND d.{ancestorId} = ?"
+                    + " AND a.{isDelete} = FALSE AND d.{isDelete} = FALSE";
+
+    /**
+     * 获取树状结构时默认的最大层级深度
+     */
+    public static final int DEFAULT_TREE_MAX_DEPTH = 32;
+
+    /**
+     * 层级结构快照默认的最长有效期
+     */
+    public static final Duration DEFAULT_SNAPSHOT_TTL = Duration.ofSeconds(30);
+
+    /**
+     * 与 PostgreSQL uuid 排序一致的比较器，按无符号字节序比较
+     */
+    static final Comparator<UUID> UUID_ORDER = Comparator.comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+                                                         .thenComparing(UUID::getLeastSignificantBits,
+                                                                        Long::compareUnsigned);
+
+    /**
+     * 批量删除子树时默认的分块阈值
+     */
+    public static final int DEFAULT_DELETE_CHUNK_SIZE = 1000;
+
+    /**
+     * 批量删除子树时的分块阈值，子树节点数超过该值时按块删除
+     */
+    private int deleteChunkSize = DEFAULT_DELETE_CHUNK_SIZE;
+
+    /**
+     * 校验/重建闭包表时默认每批处理的节点数
      */
-    String ANCESTOR_ID = ClosureEntity.Fields.ancestorId;
-    String DESCENDANT_ID = ClosureEntity.Fields.descendantId;
-    String DISTANCE = ClosureEntity.Fields.distance;
+    public static final int DEFAULT_REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * 校验/重建闭包表时每批处理的节点数，决定单次查询、插入、删除的规模和内存占用
+     */
+    private int rebuildBatchSize = DEFAULT_REBUILD_BATCH_SIZE;
+
+    /**
+     * 实体是否实现了 {@link HierarchyCountAvailable}，是则在写操作中维护子节点数和子树大小
+     */
+    private final boolean countersEnabled;
+
+    /**
+     * 是否启用层级结构快照，启用后层级查询优先从内存快照读取节点ID
+     */
+    private boolean snapshotEnabled = false;
+
+    /**
+     * 快照的最长有效期，超过后即使版本号未变也重新构建
+     */
+    private Duration snapshotTtl = DEFAULT_SNAPSHOT_TTL;
+
+    /**
+     * 按租户记录的层级结构版本号，该租户的闭包表写入提交后递增，版本号不一致的快照视为过期。
+     * 不限定租户（{@link SaTokenHelper#NULL_UUID}）的写入可能涉及任何租户，记在 NULL_UUID 下，使所有租户的快照过期
+     */
+    private final Map<UUID, AtomicLong> snapshotVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 所有写入共同递增的版本号，用于不限定租户读取时的快照
+     */
+    private final AtomicLong globalSnapshotVersion = new AtomicLong();
+
+    /**
+     * 当前事务中有未提交层级修改的租户，作为事务资源绑定时使用的键
+     */
+    private final Object pendingSnapshotTenants = new Object();
+
+    /**
+     * 按租户缓存的层级结构快照
+     */
+    private final Map<UUID, SnapshotEntry> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 同级节点的排序列，为空时同级节点只按ID（即创建顺序）排序
+     */
+    private @Nullable String sortColumn;
+
+    /**
+     * 读取实体排序值的函数，与 {@link #sortColumn} 对应，用于键集分页的游标
+     */
+    private @Nullable Function<T, @Nullable Object> sortKey;
 
     public ClosureExtension(
             Repository<T, TProxy> entityRepository, Repository<U, UProxy> closureRepository,
@@ -91,6 +230,7 @@ public abstract class ClosureExtension<T extends ProxyEntityAvailable<T, TProxy>
         this.closureRepository = closureRepository;
         this.navigate = navigateExpression;
         this.setColumnParentId = setColumnParentIdExpression;
+        this.countersEnabled = HierarchyCountAvailable.class.isAssignableFrom(entityRepository.getEntityType());
     }
 
 
@@ -104,6 +244,17 @@ public abstract class ClosureExtension<T extends ProxyEntityAvailable<T, TProxy>
      */
     protected abstract U createClosure(UUID ancestorId, UUID descendantId, Integer distance);
 
+    /**
+     * 创建实体之前，初始化层级计数：没有子节点，子树只包含自身
+     */
+    @Override
+    public void preCreate(T entity) {
+        if (entity instanceof HierarchyCountAvailable counted) {
+            counted.setChildCount(0);
+            counted.setSubtreeSize(1L);
+        }
+    }
+
     /**
      * 创建实体之后，构建闭包表关系
      * <p>
@@ -114,6 +265,11 @@ public abstract class ClosureExtension<T extends ProxyEntityAvailable<T, TProxy>
      * - A到B的距离为1
      * - A到C的距离为2
      * - B到C的距离为1
+     * <p>
+     * 新节点的闭包记录 = 自引用记录 + 父节点的所有祖先记录（距离+1），
+     * 父节点的祖先记录通过一次闭包表查询获取（包含父节点自引用记录），所有记录通过一次批量插入写入。
+     * 实体实现 {@link HierarchyCountAvailable} 时，所有祖先的子树大小加1、父节点的子节点数加1。
+     * </p>
      */
     @Override
     public void postCreate(T entity) {
@@ -128,69 +284,499 @@ public abstract class ClosureExtension<T extends ProxyEntityAvailable<T, TProxy>
 
         UUID parentId = entity.getParentId();
         if (parentId != null) {
-            T parent = entityRepository.getById(parentId, navigate, false).orElseThrow(
-                    () -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND,
-                                                "Parent entity not found, ID: " + parentId));
+            List<U> parentClosures = closureRepository.getAll(u -> u.anyColumn(DESCENDANT_ID).eq(parentId),
+                                                              ANCESTOR_COLUMNS);
+            if (parentClosures.isEmpty()) {
+                throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Parent entity not found, ID: " + parentId);
+            }
+
+            for (U parentClosure : parentClosures) {
+                closures.add(createClosure(parentClosure.getAncestorId(), id, parentClosure.getDistance() + 1));
+            }
+        }
+
+        closureRepository.insert(closures);
+
+        if (countersEnabled && parentId != null) {
+            List<UUID> ancestorIds = closures.stream().map(U::getAncestorId).filter(a -> !a.equals(id)).toList();
+            addToCounter(SUBTREE_SIZE, 1, t -> idIn(t, ID, ancestorIds));
+            addToCounter(CHILD_COUNT, 1, t -> t.anyColumn(ID).eq(parentId));
+        }
+        invalidateSnapshot();
+    }
+
+    /**
+     * 批量创建实体之后，一次构建所有新节点的闭包关系
+     * <p>
+     * 所有父节点的祖先记录按父节点ID集合一次查询，全部闭包记录以一次批量插入写入；
+     * 层级计数按增量分组，每种增量一条更新语句。父节点必须是已存在的节点，不能是同一批中的其他实体，
+     * 同时创建上下级节点使用 {@link #importTree}。
+     * </p>
+     */
+    @Override
+    public void postCreateAll(List<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Set<UUID> parentIds = new HashSet<>();
+        for (T entity : entities) {
+            UUID parentId = entity.getParentId();
+            if (parentId != null) {
+                parentIds.add(parentId);
+            }
+        }
+        Map<UUID, List<U>> ancestorsByParent = parentIds.isEmpty() ? Map.of()
+                : closureRepository.getAll(u -> closureIdIn(u, DESCENDANT_ID, parentIds), CLOSURE_COLUMNS)
+                                   .stream()
+                                   .collect(Collectors.groupingBy(U::getDescendantId));
+
+        List<U> closures = new ArrayList<>();
+        Map<UUID, Long> subtreeDeltas = new HashMap<>();
+        Map<UUID, Long> childDeltas = new HashMap<>();
+        for (T entity : entities) {
+            UUID id = Objects.requireNonNull(entity.getId(), "entity id is null after insert");
+            closures.add(createClosure(id, id, 0));
+
+            UUID parentId = entity.getParentId();
+            if (parentId == null) {
+                continue;
+            }
+            List<U> parentClosures = ancestorsByParent.get(parentId);
+            if (parentClosures == null) {
+                throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Parent entity not found, ID: " + parentId);
+            }
+            for (U parentClosure : parentClosures) {
+                closures.add(createClosure(parentClosure.getAncestorId(), id, parentClosure.getDistance() + 1));
+                subtreeDeltas.merge(parentClosure.getAncestorId(), 1L, Long::sum);
+            }
+            childDeltas.merge(parentId, 1L, Long::sum);
+        }
 
-            closures.add(createClosure(parentId, id, 1));
+        closureRepository.bulkInsert(closures, BulkOptions.DEFAULT);
 
-            List<U> ancestors = parent.getAncestors();
-            if (ancestors != null && !ancestors.isEmpty()) {
-                for (U ancestor : ancestors) {
-                    closures.add(createClosure(ancestor.getAncestorId(), id, ancestor.getDistance() + 1));
+        if (countersEnabled) {
+            addToCounters(SUBTREE_SIZE, subtreeDeltas);
+            addToCounters(CHILD_COUNT, childDeltas);
+        }
+        invalidateSnapshot();
+    }
+
+    /**
+     * 批量导入一棵或多棵树
+     * <p>
+     * 导入数据为父子链接的节点列表，处理过程：
+     * <ol>
+     *     <li>校验 key 唯一、parentKey 引用存在，并按拓扑顺序（父节点在前）排列节点，存在环时拒绝导入</li>
+     *     <li>预先为所有节点分配 UUIDv7 主键并设置 parentId</li>
+     *     <li>在内存中计算所有闭包记录（以及层级计数），挂载点的祖先记录只查询一次</li>
+     *     <li>实体和闭包记录各以一次批量插入写入，与调用方处于同一事务</li>
+     * </ol>
+     * 导入不会逐个触发 {@link #postCreate}，也不会查询每个节点的父节点。
+     * </p>
+     *
+     * @param parentId 挂载点节点ID，parentKey 为空的节点挂到该节点下；为空时这些节点作为根节点
+     * @param nodes    导入节点，data 为尚未持久化的实体
+     * @return 按拓扑顺序排列的已导入实体
+     */
+    @Override
+    public List<T> importTree(@Nullable UUID parentId, List<TreeImportNode<T>> nodes) {
+        if (nodes.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+
+        List<TreeImportNode<T>> ordered = sortForImport(nodes);
+
+        List<U> mountAncestors = List.of();
+        if (parentId != null) {
+            mountAncestors = closureRepository.getAll(u -> u.anyColumn(DESCENDANT_ID).eq(parentId), ANCESTOR_COLUMNS);
+            if (mountAncestors.isEmpty()) {
+                throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Parent entity not found, ID: " + parentId);
+            }
+        }
+
+        // 每个节点的祖先列表（从自身到最远祖先，下标即距离），子节点在父节点列表的基础上追加
+        Map<String, List<UUID>> ancestorsByKey = new HashMap<>(ordered.size() * 2);
+        Map<String, T> entitiesByKey = new HashMap<>(ordered.size() * 2);
+        List<UUID> mountChain = mountAncestors.stream()
+                                              .sorted(Comparator.comparing(U::getDistance))
+                                              .map(U::getAncestorId)
+                                              .toList();
+        List<T> entities = new ArrayList<>(ordered.size());
+        List<U> closures = new ArrayList<>();
+        for (TreeImportNode<T> node : ordered) {
+            T entity = node.getData();
+            UUID id = UUIDPrimaryKeyGenerator.nextId();
+            entity.setId(id);
+
+            String parentKey = node.getParentKey();
+            List<UUID> parentChain;
+            if (parentKey == null) {
+                parentChain = mountChain;
+                if (parentId != null) {
+                    entity.setParentId(parentId);
                 }
+            } else {
+                parentChain = ancestorsByKey.get(parentKey);
+                entity.setParentId(Objects.requireNonNull(entitiesByKey.get(parentKey).getId()));
+            }
+
+            List<UUID> chain = new ArrayList<>(parentChain.size() + 1);
+            chain.add(id);
+            chain.addAll(parentChain);
+            for (int distance = 0; distance < chain.size(); distance++) {
+                closures.add(createClosure(chain.get(distance), id, distance));
             }
+
+            ancestorsByKey.put(node.getKey(), chain);
+            entitiesByKey.put(node.getKey(), entity);
+            entities.add(entity);
         }
 
-        for (U closure : closures) {
-            closureRepository.insert(closure);
+        if (countersEnabled) {
+            countImportedNodes(ordered, entitiesByKey);
         }
+
+        entityRepository.bulkInsert(entities, BulkOptions.DEFAULT);
+        closureRepository.bulkInsert(closures, BulkOptions.DEFAULT);
+
+        if (countersEnabled && parentId != null) {
+            long topLevel = ordered.stream().filter(n -> n.getParentKey() == null).count();
+            addToCounter(SUBTREE_SIZE, entities.size(), t -> idIn(t, ID, mountChain));
+            addToCounter(CHILD_COUNT, topLevel, t -> t.anyColumn(ID).eq(parentId));
+        }
+        invalidateSnapshot();
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("imported {} nodes with {} closures in {} ms ({} nodes/s)", entities.size(), closures.size(),
+                 elapsedMillis, entities.size() * 1000L / elapsedMillis);
+        return entities;
+    }
+
+    /**
+     * 校验导入节点并按拓扑顺序排列，保证父节点排在子节点之前
+     *
+     * @param nodes 导入节点
+     * @param <D>   节点数据类型
+     * @return 按拓扑顺序排列的导入节点
+     */
+    static <D> List<TreeImportNode<D>> sortForImport(List<TreeImportNode<D>> nodes) {
+        Map<String, List<TreeImportNode<D>>> childrenByKey = new HashMap<>(nodes.size() * 2);
+        Set<String> keys = new HashSet<>(nodes.size() * 2);
+        for (TreeImportNode<D> node : nodes) {
+            String key = node.getKey();
+            if (key == null || key.isEmpty()) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Import node key must not be empty");
+            }
+            if (!keys.add(key)) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Duplicate import node key: " + key);
+            }
+        }
+
+        Deque<TreeImportNode<D>> queue = new ArrayDeque<>();
+        for (TreeImportNode<D> node : nodes) {
+            String parentKey = node.getParentKey();
+            if (parentKey == null) {
+                queue.add(node);
+            } else if (!keys.contains(parentKey)) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                                            "Unknown parent key " + parentKey + " of import node " + node.getKey());
+            } else {
+                childrenByKey.computeIfAbsent(parentKey, k -> new ArrayList<>()).add(node);
+            }
+        }
+
+        List<TreeImportNode<D>> ordered = new ArrayList<>(nodes.size());
+        while (!queue.isEmpty()) {
+            TreeImportNode<D> node = queue.poll();
+            ordered.add(node);
+            queue.addAll(childrenByKey.getOrDefault(node.getKey(), List.of()));
+        }
+
+        // 环上的节点没有入口，无法从任何顶层节点到达
+        if (ordered.size() < nodes.size()) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                                        "Import nodes contain a cycle, " + (nodes.size() - ordered.size()) + " nodes unreachable");
+        }
+        return ordered;
+    }
+
+    /**
+     * 在内存中计算导入节点的子节点数和子树大小
+     *
+     * @param ordered       按拓扑顺序排列的导入节点
+     * @param entitiesByKey key 到实体的映射
+     */
+    private void countImportedNodes(List<TreeImportNode<T>> ordered, Map<String, T> entitiesByKey) {
+        Map<String, Integer> childCounts = new HashMap<>(ordered.size() * 2);
+        Map<String, Long> subtreeSizes = new HashMap<>(ordered.size() * 2);
+        // 逆拓扑顺序遍历，子节点总是先于父节点完成统计
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            TreeImportNode<T> node = ordered.get(i);
+            long size = subtreeSizes.merge(node.getKey(), 1L, Long::sum);
+            String parentKey = node.getParentKey();
+            if (parentKey != null) {
+                childCounts.merge(parentKey, 1, Integer::sum);
+                subtreeSizes.merge(parentKey, size, Long::sum);
+            }
+        }
+        entitiesByKey.forEach((key, entity) -> {
+            if (entity instanceof HierarchyCountAvailable counted) {
+                counted.setChildCount(childCounts.getOrDefault(key, 0));
+                counted.setSubtreeSize(subtreeSizes.getOrDefault(key, 1L));
+            }
+        });
     }
 
     /**
      * 查询直接子节点
+     * <p>
+     * 实体实现 {@link HierarchyCountAvailable} 时，返回的每个节点都带有子节点数和子树大小，
+     * 懒加载的树形界面无需额外查询即可判断节点是否可展开。
+     * 无论是否使用快照，结果都按 (排序列, ID) 排序，与 {@link #getChildren} 一致。
+     * </p>
      *
      * @param parentId 父节点ID
      * @return 直接子节点列表
      */
     @Override
-    @Transactional(rollbackFor = Exception.class, readOnly = true)
     public List<T> getDirectChildren(UUID parentId) {
-        List<U> childClosures = closureRepository.getAll(u -> {
-            u.anyColumn(ANCESTOR_ID).eq(parentId);
-            u.anyColumn(DISTANCE).eq(1);
-        });
+        if (useSnapshot()) {
+            List<T> children = new ArrayList<>(getAllByIds(getSnapshot().getChildIds(parentId)));
+            children.sort(siblingOrder());
+            return children;
+        }
 
-        List<UUID> childIds = childClosures.stream().map(U::getDescendantId).collect(Collectors.toList());
+        return queryChildren(entityRepository, parentId, null, sortColumn, sortKey, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 查询所有根节点
+     *
+     * @return 根节点列表，按排序列和ID排序
+     */
+    @Override
+    public List<T> getRoots() {
+        return queryChildren(entityRepository, null, null, sortColumn, sortKey, Integer.MAX_VALUE);
+    }
 
-        if (childIds.isEmpty()) {
+    /**
+     * 分页查询一层子节点，用于树形界面的懒加载展开
+     * <p>
+     * 子节点通过 parent_id 索引直接查询，按 (排序列, ID) 键集分页。是否存在子节点的标记：
+     * 实体实现 {@link HierarchyCountAvailable} 时直接读取已维护的子节点数，不产生额外查询；
+     * 否则对本页节点执行一次 {@code distance = 1} 的闭包表分组统计，与页大小无关，不会逐个节点查询。
+     * </p>
+     *
+     * @param parentId 父节点ID，为空时查询根节点
+     * @param cursor   上一页最后一个节点的ID，为空表示第一页
+     * @param limit    每页条数，必须大于0
+     * @return 懒加载树节点列表，少于 limit 条时表示已到最后一页
+     */
+    @Override
+    public List<LazyTreeNode<T>> getChildren(@Nullable UUID parentId, @Nullable UUID cursor, int limit) {
+        List<T> children = queryChildren(entityRepository, parentId, cursor, sortColumn, sortKey, limit);
+        if (children.isEmpty()) {
             return List.of();
         }
 
-        return entityRepository.getAllByIds(childIds);
+        Map<UUID, Long> childCounts = countersEnabled ? Map.of() : countClosures(
+                children.stream().map(T::getId).filter(Objects::nonNull).toList(), true);
+        return children.stream().map(child -> {
+            if (countersEnabled && child instanceof HierarchyCountAvailable counted) {
+                Integer childCount = counted.getChildCount();
+                return new LazyTreeNode<>(child, childCount != null && childCount > 0);
+            }
+            return new LazyTreeNode<>(child, childCounts.getOrDefault(child.getId(), 0L) > 0);
+        }).toList();
+    }
+
+    /**
+     * 按 parent_id 分页查询一层子节点
+     * <p>
+     * 按 (排序列, ID) 升序排列，排序列为空值的节点排在最后（与 PostgreSQL 升序默认的 NULLS LAST 一致）。
+     * 游标节点必须是同一父节点的子节点，其排序值用于构造 {@code (sort, id) > (cursorSort, cursorId)} 条件。
+     * </p>
+     *
+     * @param repository 实体仓库
+     * @param parentId   父节点ID，为空时查询根节点
+     * @param cursor     上一页最后一个节点的ID
+     * @param sortColumn 排序列，为空时只按ID排序
+     * @param sortKey    读取实体排序值的函数，与排序列对应
+     * @param limit      每页条数，必须大于0
+     * @return 子节点列表
+     */
+    static <T extends ProxyEntityAvailable<T, TProxy> & HierarchyAvailable, TProxy extends AbstractProxyEntity<TProxy, T>>
+    List<T> queryChildren(Repository<T, TProxy> repository, @Nullable UUID parentId, @Nullable UUID cursor,
+                          @Nullable String sortColumn, @Nullable Function<T, @Nullable Object> sortKey, int limit) {
+        if (limit <= 0) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "limit must be positive: " + limit);
+        }
+
+        Object cursorSort = null;
+        if (cursor != null) {
+            T after = repository.getById(cursor)
+                                .filter(node -> Objects.equals(node.getParentId(), parentId))
+                                .orElseThrow(() -> new BusinessException(
+                                        ErrorCode.INVALID_PARAMETER, "cursor is not a child of the parent node: " + cursor));
+            cursorSort = sortKey != null ? sortKey.apply(after) : null;
+        }
+        Object afterSort = cursorSort;
+
+        return repository.queryable()
+                         .where(t -> {
+                             if (parentId == null) {
+                                 t.anyColumn(PARENT_ID).isNull();
+                             } else {
+                                 t.anyColumn(PARENT_ID).eq(parentId);
+                             }
+                             if (cursor == null) {
+                                 return;
+                             }
+                             if (sortColumn == null) {
+                                 t.anyColumn(ID).gt(cursor);
+                             } else if (afterSort == null) {
+                                 t.anyColumn(sortColumn).isNull();
+                                 t.anyColumn(ID).gt(cursor);
+                             } else {
+                                 t.or(() -> {
+                                     t.anyColumn(sortColumn).gt(afterSort);
+                                     t.and(() -> {
+                                         t.anyColumn(sortColumn).eq(afterSort);
+                                         t.anyColumn(ID).gt(cursor);
+                                     });
+                                     t.anyColumn(sortColumn).isNull();
+                                 });
+                             }
+                         })
+                         .orderBy(t -> {
+                             if (sortColumn != null) {
+                                 t.anyColumn(sortColumn).asc();
+                             }
+                             t.anyColumn(ID).asc();
+                         })
+                         .limit(limit)
+                         .toList();
     }
 
     /**
      * 查询所有后代节点（包括多级）
+     * <p>
+     * 以闭包表与实体表连接的单条语句查询，结果按 (距离, ID) 排序，即按层级由近到远。
+     * 使用快照时按快照中的深度和ID排序，顺序与数据库查询一致。
+     * </p>
      *
      * @param parentId 父节点ID
      * @return 所有后代节点列表
      */
     @Override
-    @Transactional(rollbackFor = Exception.class, readOnly = true)
     public List<T> getDescendants(UUID parentId) {
-        List<U> childClosures = closureRepository.getAll(u -> {
-            u.anyColumn(ANCESTOR_ID).eq(parentId);
-            u.anyColumn(DISTANCE).gt(0);
-        });
+        if (useSnapshot()) {
+            HierarchySnapshot snapshot = getSnapshot();
+            List<UUID> descendantIds = new ArrayList<>(snapshot.getDescendantIds(parentId));
+            descendantIds.sort(Comparator.comparingInt(snapshot::getDepth).thenComparing(UUID_ORDER));
+            return getAllByIds(descendantIds);
+        }
 
-        List<UUID> childIds = childClosures.stream().map(U::getDescendantId).collect(Collectors.toList());
+        return entityRepository.queryable()
+                               .innerJoin(closureRepository.getEntityType(),
+                                          (t, u) -> t.anyColumn(ID).eq(u.anyColumn(DESCENDANT_ID)))
+                               .where((t, u) -> {
+                                   u.anyColumn(ANCESTOR_ID).eq(parentId);
+                                   u.anyColumn(DISTANCE).gt(0);
+                               })
+                               .orderBy((t, u) -> {
+                                   u.anyColumn(DISTANCE).asc();
+                                   t.anyColumn(ID).asc();
+                               })
+                               .select((t, u) -> t)
+                               .toList();
+    }
 
-        if (childIds.isEmpty()) {
-            return List.of();
+    /**
+     * 分页查询后代节点
+     * <p>
+     * 以闭包表与实体表连接的单条语句查询，按 (距离, ID) 排序并使用键集分页（keyset）：
+     * 传入上一页最后一个节点的ID作为 afterId，查询条件为 {@code (distance, id) > (afterDistance, afterId)}，
+     * 无需 OFFSET，也不需要在内存中加载整棵子树，翻页代价与页码无关。
+     * </p>
+     *
+     * @param parentId      父节点ID
+     * @param distanceRange 距离范围
+     * @param afterId       上一页最后一个节点的ID，为空表示第一页
+     * @param limit         每页条数，必须大于0
+     * @return 后代节点列表，少于 limit 条时表示已到最后一页
+     */
+    @Override
+    public List<T> getDescendants(UUID parentId, DistanceRange distanceRange, @Nullable UUID afterId, int limit) {
+        int minDistance = distanceRange.getMin();
+        Integer maxDistance = distanceRange.getMax();
+        if (minDistance < 0 || (maxDistance != null && maxDistance < minDistance)) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Invalid distance range: " + distanceRange);
+        }
+        if (limit <= 0) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "limit must be positive: " + limit);
         }
 
-        return entityRepository.getAllByIds(childIds);
+        Integer afterDistance = null;
+        if (afterId != null) {
+            afterDistance = closureRepository.getSingle(u -> {
+                u.anyColumn(ANCESTOR_ID).eq(parentId);
+                u.anyColumn(DESCENDANT_ID).eq(afterId);
+            }).map(U::getDistance).orElseThrow(() -> new BusinessException(
+                    ErrorCode.INVALID_PARAMETER, "afterId is not a descendant of the parent node: " + afterId));
+        }
+        Integer cursorDistance = afterDistance;
+
+        return entityRepository.queryable()
+                               .innerJoin(closureRepository.getEntityType(),
+                                          (t, u) -> t.anyColumn(ID).eq(u.anyColumn(DESCENDANT_ID)))
+                               .where((t, u) -> {
+                                   u.anyColumn(ANCESTOR_ID).eq(parentId);
+                                   u.anyColumn(DISTANCE).ge(minDistance);
+                                   if (maxDistance != null) {
+                                       u.anyColumn(DISTANCE).le(maxDistance);
+                                   }
+                                   if (cursorDistance != null) {
+                                       t.or(() -> {
+                                           u.anyColumn(DISTANCE).gt(cursorDistance);
+                                           t.and(() -> {
+                                               u.anyColumn(DISTANCE).eq(cursorDistance);
+                                               t.anyColumn(ID).gt(afterId);
+                                           });
+                                       });
+                                   }
+                               })
+                               .orderBy((t, u) -> {
+                                   u.anyColumn(DISTANCE).asc();
+                                   t.anyColumn(ID).asc();
+                               })
+                               .select((t, u) -> t)
+                               .limit(limit)
+                               .toList();
+    }
+
+    /**
+     * 判断 descendantId 是否为 ancestorId 的后代
+     * <p>
+     * 启用快照时比较快照中的区间端点；否则以 {@code SELECT 1 ... LIMIT 1} 检查闭包记录是否存在，不加载任何实体。
+     * </p>
+     *
+     * @param ancestorId   祖先节点ID
+     * @param descendantId 后代节点ID
+     * @return 是否为后代
+     */
+    @Override
+    public boolean isDescendant(UUID ancestorId, UUID descendantId) {
+        if (useSnapshot()) {
+            return getSnapshot().isDescendant(ancestorId, descendantId);
+        }
+
+        return closureRepository.exists(u -> {
+            u.anyColumn(ANCESTOR_ID).eq(ancestorId);
+            u.anyColumn(DESCENDANT_ID).eq(descendantId);
+            u.anyColumn(DISTANCE).gt(0);
+        });
     }
 
     /**
@@ -200,12 +786,16 @@ public abstract class ClosureExtension<T extends ProxyEntityAvailable<T, TProxy>
      * @return 直接父节点
      */
     @Override
-    @Transactional(rollbackFor = Exception.class, readOnly = true)
     public Optional<T> getDirectParent(UUID childId) {
+        if (useSnapshot()) {
+            UUID parentId = getSnapshot().getParentId(childId);
+            return parentId != null ? entityRepository.load(parentId) : Optional.empty();
+        }
+
         List<U> parentClosures = closureRepository.getAll(u -> {
             u.anyColumn(DESCENDANT_ID).eq(childId);
             u.anyColumn(DISTANCE).eq(1);
-        });
+        }, List.of(ANCESTOR_ID));
 
         if (parentClosures.isEmpty()) {
             return Optional.empty();
@@ -213,157 +803,912 @@ public abstract class ClosureExtension<T extends ProxyEntityAvailable<T, TProxy>
 
         UUID parentId = parentClosures.getFirst().getAncestorId();
 
-        return entityRepository.getById(parentId);
+        return entityRepository.load(parentId);
     }
 
     /**
      * 查询所有祖先节点
+     * <p>
+     * 以闭包表与实体表连接的单条语句查询，结果按距离排序，即从直接父节点到根节点。
+     * 使用快照时按快照中的祖先链返回，顺序相同。
+     * </p>
      *
      * @param childId 子节点ID
      * @return 所有祖先节点列表
      */
     @Override
-    @Transactional(rollbackFor = Exception.class, readOnly = true)
     public List<T> getAllAncestors(UUID childId) {
-        List<U> ancestorClosures = closureRepository.getAll(u -> {
-            u.anyColumn(DESCENDANT_ID).eq(childId);
-            u.anyColumn(DISTANCE).gt(0);
-        });
+        if (useSnapshot()) {
+            return getAllByIds(getSnapshot().getAncestorIds(childId));
+        }
 
-        List<UUID> ancestorIds = ancestorClosures.stream().map(U::getAncestorId).collect(Collectors.toList());
+        return entityRepository.queryable()
+                               .innerJoin(closureRepository.getEntityType(),
+                                          (t, u) -> t.anyColumn(ID).eq(u.anyColumn(ANCESTOR_ID)))
+                               .where((t, u) -> {
+                                   u.anyColumn(DESCENDANT_ID).eq(childId);
+                                   u.anyColumn(DISTANCE).gt(0);
+                               })
+                               .orderBy((t, u) -> u.anyColumn(DISTANCE).asc())
+                               .select((t, u) -> t)
+                               .toList();
+    }
 
-        if (ancestorIds.isEmpty()) {
-            return List.of();
+    /**
+     * 批量查询多个节点的祖先路径
+     * <p>
+     * 通过一次闭包表查询获取所有节点的祖先关系，再对去重后的祖先ID执行一次实体查询，
+     * 共享的祖先只加载一次；启用快照时祖先关系直接从快照读取。
+     * </p>
+     *
+     * @param nodeIds 节点ID集合
+     * @return 节点ID到祖先路径的映射，按传入顺序排列；路径从根节点到直接父节点，不包含节点自身，根节点的路径为空列表；
+     * 不存在的节点不包含在结果中
+     */
+    @Override
+    public Map<UUID, List<T>> getAncestorPaths(Collection<UUID> nodeIds) {
+        if (nodeIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, List<UUID>> pathIds = new LinkedHashMap<>(nodeIds.size() * 2);
+        if (useSnapshot()) {
+            HierarchySnapshot snapshot = getSnapshot();
+            for (UUID nodeId : nodeIds) {
+                if (snapshot.contains(nodeId)) {
+                    pathIds.put(nodeId, snapshot.getAncestorIds(nodeId).reversed());
+                }
+            }
+        } else {
+            List<U> closures = closureRepository.getAll(u -> closureIdIn(u, DESCENDANT_ID, nodeIds),
+                                                        CLOSURE_COLUMNS);
+            Map<UUID, List<U>> closuresByNode = closures.stream().collect(Collectors.groupingBy(U::getDescendantId));
+            for (UUID nodeId : nodeIds) {
+                List<U> nodeClosures = closuresByNode.get(nodeId);
+                if (nodeClosures != null) {
+                    pathIds.put(nodeId, nodeClosures.stream()
+                                                    .filter(c -> c.getDistance() > 0)
+                                                    .sorted(Comparator.comparing(U::getDistance).reversed())
+                                                    .map(U::getAncestorId)
+                                                    .toList());
+                }
+            }
         }
 
-        return entityRepository.getAllByIds(ancestorIds);
+        Set<UUID> ancestorIds = pathIds.values().stream().flatMap(List::stream).collect(Collectors.toSet());
+        // 同一请求内多次查询路径时，共同祖先只加载一次
+        Map<UUID, T> ancestors = entityRepository.loadAll(ancestorIds);
+
+        Map<UUID, List<T>> paths = new LinkedHashMap<>(pathIds.size() * 2);
+        pathIds.forEach((nodeId, ids) -> paths.put(nodeId, ids.stream()
+                                                                .map(ancestors::get)
+                                                                .filter(Objects::nonNull)
+                                                                .toList()));
+        return paths;
     }
 
     /**
-     * 移动节点到新的父节点下
+     * 移动节点（连同整棵子树）到新的父节点下
+     * <p>
+     * 使用闭包表的标准两步算法，语句数量与子树大小无关：
+     * <ol>
+     *     <li>断开：删除「子树外的旧祖先 × 子树节点」的所有闭包记录，子树内部的闭包记录保持不变</li>
+     *     <li>重连：插入「新父节点及其祖先 × 子树节点」的闭包记录，距离 = 祖先到新父节点距离 + 1 + 节点在子树中的深度</li>
+     * </ol>
+     * 重连以一条 {@code INSERT ... SELECT} 在数据库中完成，子树的闭包记录不读回应用。
+     * 新父节点的祖先记录同时用于校验新父节点存在，以及避免把节点移动到自身子树下。
+     * 实体实现 {@link HierarchyCountAvailable} 时，旧祖先的子树大小减去、新祖先的子树大小加上被移动子树的大小，
+     * 旧父节点和新父节点的子节点数分别减1、加1。
+     * </p>
+     * <p>
+     * 断开、重连和计数更新必须处于同一事务中，由调用方提供，见类注释。
+     * </p>
      *
      * @param nodeId      要移动的节点ID
      * @param newParentId 新的父节点ID
      * @return 移动后的节点
      */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public T moveNode(UUID nodeId, UUID newParentId) {
         T node = entityRepository.getById(nodeId).orElseThrow(
                 () -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Node not found, ID: " + nodeId));
 
-        T newParent = entityRepository.getById(newParentId, navigate, false).orElseThrow(
-                () -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "New parent not found, ID: " + newParentId));
-
-        if (isDescendant(nodeId, newParentId)) {
+        if (useSnapshot() && isDescendant(nodeId, newParentId)) {
             throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Cannot move node to its own descendant");
         }
 
-        List<U> nodeClosures = closureRepository.getAll(u -> u.anyColumn(DESCENDANT_ID).eq(nodeId));
-        for (U closure : nodeClosures) {
-            closureRepository.delete(closure);
+        List<U> newAncestors = closureRepository.getAll(u -> u.anyColumn(DESCENDANT_ID).eq(newParentId),
+                                                        ANCESTOR_COLUMNS);
+        if (newAncestors.isEmpty()) {
+            throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "New parent not found, ID: " + newParentId);
+        }
+        for (U ancestor : newAncestors) {
+            if (nodeId.equals(ancestor.getAncestorId())) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Cannot move node to its own descendant");
+            }
         }
 
-        List<U> newClosures = new ArrayList<>();
-        newClosures.add(createClosure(nodeId, nodeId, 0));
-        newClosures.add(createClosure(newParentId, nodeId, 1));
-
-        List<U> parentAncestors = newParent.getAncestors();
-        if (parentAncestors != null && !parentAncestors.isEmpty()) {
-            for (U ancestor : parentAncestors) {
-                newClosures.add(createClosure(ancestor.getAncestorId(), nodeId, ancestor.getDistance() + 1));
+        UUID oldParentId = node.getParentId();
+        long subtreeSize = countersEnabled ? closureRepository.countBy(u -> u.anyColumn(ANCESTOR_ID).eq(nodeId)) : 0;
+        if (countersEnabled) {
+            addToCounter(SUBTREE_SIZE, -subtreeSize, t -> t.anyColumn(ID).in(
+                    closureRepository.queryable().where(u -> {
+                        u.anyColumn(DESCENDANT_ID).eq(nodeId);
+                        u.anyColumn(DISTANCE).gt(0);
+                    }).selectColumn(u -> u.anyColumn(ANCESTOR_ID))));
+            if (oldParentId != null) {
+                addToCounter(CHILD_COUNT, -1, t -> t.anyColumn(ID).eq(oldParentId));
             }
         }
 
-        for (U closure : newClosures) {
-            closureRepository.insert(closure);
+        // 断开：子树节点与子树外祖先之间的闭包记录
+        closureRepository.deleteAll(u -> {
+            u.anyColumn(DESCENDANT_ID).in(closureRepository.queryable()
+                                                           .where(c -> c.anyColumn(ANCESTOR_ID).eq(nodeId))
+                                                           .selectColumn(c -> c.anyColumn(DESCENDANT_ID)));
+            u.anyColumn(ANCESTOR_ID).notIn(closureRepository.queryable()
+                                                            .where(c -> c.anyColumn(ANCESTOR_ID).eq(nodeId))
+                                                            .selectColumn(c -> c.anyColumn(DESCENDANT_ID)));
+        });
+
+        // 重连：新祖先 × 子树节点
+        closureRepository.insertSelect(CLOSURE_COLUMNS, RECONNECT_SELECT, List.of(newParentId, nodeId));
+
+        if (countersEnabled) {
+            List<UUID> newAncestorIds = newAncestors.stream().map(U::getAncestorId).toList();
+            addToCounter(SUBTREE_SIZE, subtreeSize, t -> idIn(t, ID, newAncestorIds));
+            addToCounter(CHILD_COUNT, 1, t -> t.anyColumn(ID).eq(newParentId));
         }
 
         node.setParentId(newParentId);
         entityRepository.update(node, setColumnParentId);
+        invalidateSnapshot();
         return node;
     }
 
     /**
      * 删除节点及其所有子节点
+     * <p>
+     * 子树规模不超过 {@link #getDeleteChunkSize()} 时，以闭包子查询驱动，只执行一条实体逻辑删除语句和一条闭包记录删除语句；
+     * 超过阈值时先查询出子树节点ID，再按阈值分块删除，避免单条语句的参数和锁范围过大。
+     * 闭包记录只需按 descendant_id 删除：祖先位于子树内的记录，其后代必然也位于子树内。
+     * 实体实现 {@link HierarchyCountAvailable} 时，先在删除闭包记录之前更新祖先的子树大小和父节点的子节点数。
+     * 分块删除和计数更新必须处于同一事务中，由调用方提供，见类注释。
+     * </p>
      *
      * @param nodeId 节点ID
+     * @return 实体表与闭包表各自受影响的行数
      */
-    @Transactional(rollbackFor = Exception.class)
-    public void deleteEntity(UUID nodeId) {
-        List<U> descendantClosures = closureRepository.getAll(u -> {
-            u.anyColumn(ANCESTOR_ID).eq(nodeId);
-            u.anyColumn(DISTANCE).gt(0);
+    @Override
+    public SubtreeDeleteResult deleteSubtree(UUID nodeId) {
+        long subtreeSize = closureRepository.countBy(u -> u.anyColumn(ANCESTOR_ID).eq(nodeId));
+        if (subtreeSize == 0) {
+            throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Node not found, ID: " + nodeId);
+        }
+
+        if (countersEnabled) {
+            addToCounter(SUBTREE_SIZE, -subtreeSize, t -> t.anyColumn(ID).in(
+                    closureRepository.queryable().where(u -> {
+                        u.anyColumn(DESCENDANT_ID).eq(nodeId);
+                        u.anyColumn(DISTANCE).gt(0);
+                    }).selectColumn(u -> u.anyColumn(ANCESTOR_ID))));
+            addToCounter(CHILD_COUNT, -1, t -> t.anyColumn(ID).in(
+                    closureRepository.queryable().where(u -> {
+                        u.anyColumn(DESCENDANT_ID).eq(nodeId);
+                        u.anyColumn(DISTANCE).eq(1);
+                    }).selectColumn(u -> u.anyColumn(ANCESTOR_ID))));
+        }
+
+        long entityRows = 0;
+        long closureRows = 0;
+        if (subtreeSize <= deleteChunkSize) {
+            entityRows = entityRepository.deleteAll(t -> t.anyColumn(ID).in(
+                    closureRepository.queryable().where(u -> u.anyColumn(ANCESTOR_ID).eq(nodeId))
+                                     .selectColumn(u -> u.anyColumn(DESCENDANT_ID))));
+            closureRows = closureRepository.deleteAll(u -> u.anyColumn(DESCENDANT_ID).in(
+                    closureRepository.queryable().where(c -> c.anyColumn(ANCESTOR_ID).eq(nodeId))
+                                     .selectColumn(c -> c.anyColumn(DESCENDANT_ID))));
+        } else {
+            List<UUID> ids = closureRepository.getAll(u -> u.anyColumn(ANCESTOR_ID).eq(nodeId), List.of(DESCENDANT_ID))
+                                              .stream()
+                                              .map(U::getDescendantId).collect(Collectors.toList());
+            for (int from = 0; from < ids.size(); from += deleteChunkSize) {
+                List<UUID> chunk = ids.subList(from, Math.min(from + deleteChunkSize, ids.size()));
+                entityRows += entityRepository.deleteAll(t -> idIn(t, ID, chunk));
+                closureRows += closureRepository.deleteAll(u -> closureIdIn(u, DESCENDANT_ID, chunk));
+            }
+        }
+
+        log.info("deleted subtree of node {}: {} entities, {} closures", nodeId, entityRows, closureRows);
+        invalidateSnapshot();
+        return new SubtreeDeleteResult(entityRows, closureRows);
+    }
+
+    /**
+     * 获取批量删除子树时的分块阈值
+     *
+     * @return 分块阈值
+     */
+    public int getDeleteChunkSize() {
+        return deleteChunkSize;
+    }
+
+    /**
+     * 设置批量删除子树时的分块阈值
+     *
+     * @param deleteChunkSize 分块阈值，必须大于0
+     */
+    public void setDeleteChunkSize(int deleteChunkSize) {
+        if (deleteChunkSize <= 0) {
+            throw new IllegalArgumentException("deleteChunkSize must be positive: " + deleteChunkSize);
+        }
+        this.deleteChunkSize = deleteChunkSize;
+    }
+
+    /**
+     * 根据 parentId 校验并修复闭包表
+     * <p>
+     * 从所有根节点（parentId 为空）出发沿 parentId 邻接关系深度优先遍历，每个节点的期望闭包记录由其祖先路径推导：
+     * 自引用记录 + 每个祖先一条记录（距离为层级差）。根节点和每批节点的子节点都按ID键集分页，
+     * 每页 {@link #getRebuildBatchSize()} 个节点，与库中以这些节点为后代的闭包记录比对，
+     * 只插入缺失记录、删除多余或距离错误的记录。
+     * 最后删除祖先或后代已不存在的闭包记录；实体实现 {@link HierarchyCountAvailable} 时，再按闭包表重新统计层级计数。
+     * </p>
+     * <p>
+     * 内存中只保留从根到当前页每层各一页的节点路径（祖先路径以共享前缀的链表表示），至多为树高 × 每批节点数，
+     * 与每层的宽度和整棵树的规模无关；实体只读取ID和 parentId，闭包记录只读取ID和三个关系列。
+     * 每批修改独立执行，不在事务中调用时各批次自动提交，可在线运行。进度和吞吐量按批输出到日志。
+     * </p>
+     *
+     * @param dryRun 为 true 时只校验并统计差异，不修改数据
+     * @return 校验/重建结果
+     */
+    @Override
+    public ClosureRebuildResult rebuildClosure(boolean dryRun) {
+        long start = System.nanoTime();
+        ClosureRebuildResult result = new ClosureRebuildResult();
+        result.setDryRun(dryRun);
+
+        UUID lastRootId = null;
+        while (true) {
+            List<T> page = loadRebuildPage(t -> t.anyColumn(PARENT_ID).isNull(), lastRootId);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastRootId = page.getLast().getId();
+            List<RebuildPath> roots = page.stream()
+                                          .map(T::getId)
+                                          .filter(Objects::nonNull)
+                                          .map(rootId -> new RebuildPath(rootId, null, 0))
+                                          .toList();
+            result.setRoots(result.getRoots() + roots.size());
+            rebuildSubtrees(roots, dryRun, result, start);
+        }
+
+        // 逐行关联判断是否存在，实体表的主键索引可以直接使用，不需要物化整张实体表的ID集合
+        SQLActionExpression1<UProxy> danglingClosures = u -> u.or(() -> {
+            u.expression().notExists(() -> entityRepository.queryable()
+                                                           .where(t -> t.anyColumn(ID).eq(u.anyColumn(DESCENDANT_ID))));
+            u.expression().notExists(() -> entityRepository.queryable()
+                                                           .where(t -> t.anyColumn(ID).eq(u.anyColumn(ANCESTOR_ID))));
         });
+        long dangling = dryRun ? closureRepository.countBy(danglingClosures)
+                               : closureRepository.deleteAll(danglingClosures);
+        result.setStaleRows(result.getStaleRows() + dangling);
+        if (countersEnabled) {
+            recountSubtrees(dryRun, result);
+        }
+        result.setUnreachableNodes(Math.max(0, entityRepository.count() - result.getNodes()));
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
 
-        List<UUID> ids = descendantClosures.stream().map(U::getDescendantId).collect(Collectors.toList());
+        if (!dryRun && !result.isConsistent()) {
+            invalidateSnapshot();
+        }
+        if (result.getUnreachableNodes() > 0) {
+            log.warn("closure rebuild found {} nodes unreachable from any root", result.getUnreachableNodes());
+        }
+        log.info("closure rebuild finished: {}", result);
+        return result;
+    }
 
-        ids.add(nodeId);
+    /**
+     * 校验/重建一批根节点及其所有后代
+     * <p>
+     * 栈中每一项是一页已处理的节点，以及其子节点已经处理到的位置；每次从栈顶节点的子节点中按ID取下一页，
+     * 处理后压栈，子节点取完时出栈。
+     * </p>
+     *
+     * @param roots  一页根节点路径
+     * @param dryRun 是否只统计差异
+     * @param result 累计结果
+     * @param start  开始时间，用于计算吞吐量
+     */
+    private void rebuildSubtrees(List<RebuildPath> roots, boolean dryRun, ClosureRebuildResult result, long start) {
+        reconcileClosures(roots, dryRun, result);
+        result.setNodes(result.getNodes() + roots.size());
 
-        List<U> allClosures = closureRepository.getAll(u -> u.or(() -> {
-            u.anyColumn(ANCESTOR_ID).in(ids);
-            u.anyColumn(DESCENDANT_ID).in(ids);
-        }));
+        Deque<RebuildFrame> stack = new ArrayDeque<>();
+        stack.push(new RebuildFrame(roots));
+        while (!stack.isEmpty()) {
+            RebuildFrame frame = stack.peek();
+            Set<UUID> parentIds = frame.parents.keySet();
+            List<T> page = loadRebuildPage(t -> idIn(t, PARENT_ID, parentIds), frame.lastChildId);
+            if (page.isEmpty()) {
+                stack.pop();
+                continue;
+            }
+            frame.lastChildId = page.getLast().getId();
 
-        for (U closure : allClosures) {
-            closureRepository.delete(closure);
+            List<RebuildPath> children = childPaths(frame.parents, page);
+            if (children.isEmpty()) {
+                continue;
+            }
+            reconcileClosures(children, dryRun, result);
+            result.setNodes(result.getNodes() + children.size());
+            logRebuildProgress(children.getFirst().depth(), result, start);
+            stack.push(new RebuildFrame(children));
         }
+    }
+
+    /**
+     * 按ID键集分页查询一页节点，只读取ID和 parentId
+     *
+     * @param whereExpression 查询条件
+     * @param afterId         上一页最后一个节点的ID，为空时从第一页开始
+     * @return 按ID排序的一页节点
+     */
+    private List<T> loadRebuildPage(SQLActionExpression1<TProxy> whereExpression, @Nullable UUID afterId) {
+        return entityRepository.queryable()
+                               .where(whereExpression)
+                               .where(t -> t.anyColumn(ID).gt(afterId != null, afterId))
+                               .orderBy(t -> t.anyColumn(ID).asc())
+                               .limit(rebuildBatchSize)
+                               .getClientQueryable()
+                               .select(s -> {
+                                   s.column(ID);
+                                   s.column(PARENT_ID);
+                               })
+                               .toList();
+    }
 
-        for (UUID id : ids) {
-            entityRepository.deleteById(id);
+    /**
+     * 比对一批节点的期望闭包记录与已存储记录，并应用差异
+     *
+     * @param batch  同一层的一批节点路径
+     * @param dryRun 是否只统计差异
+     * @param result 累计结果
+     */
+    private void reconcileClosures(List<RebuildPath> batch, boolean dryRun, ClosureRebuildResult result) {
+        Map<UUID, Map<UUID, Integer>> expected = new HashMap<>(batch.size() * 2);
+        for (RebuildPath path : batch) {
+            Map<UUID, Integer> ancestors = new HashMap<>((path.depth() + 1) * 2);
+            for (RebuildPath ancestor = path; ancestor != null; ancestor = ancestor.parent()) {
+                ancestors.put(ancestor.id(), path.depth() - ancestor.depth());
+            }
+            expected.put(path.id(), ancestors);
+            result.setExpectedRows(result.getExpectedRows() + ancestors.size());
+        }
+
+        List<UUID> stale = new ArrayList<>();
+        List<U> stored = closureRepository.getAll(u -> closureIdIn(u, DESCENDANT_ID, expected.keySet()),
+                                                  CLOSURE_COLUMNS);
+        for (U closure : stored) {
+            Map<UUID, Integer> ancestors = expected.get(closure.getDescendantId());
+            Integer distance = ancestors != null ? ancestors.get(closure.getAncestorId()) : null;
+            if (distance != null && distance.equals(closure.getDistance())) {
+                // 已匹配的记录从期望集合中移除，重复记录在第二次出现时会被视为多余
+                ancestors.remove(closure.getAncestorId());
+            } else {
+                stale.add(closure.getId());
+            }
+        }
+
+        List<U> missing = new ArrayList<>();
+        expected.forEach((descendantId, ancestors) -> ancestors.forEach(
+                (ancestorId, distance) -> missing.add(createClosure(ancestorId, descendantId, distance))));
+
+        result.setStaleRows(result.getStaleRows() + stale.size());
+        result.setMissingRows(result.getMissingRows() + missing.size());
+        if (dryRun) {
+            return;
+        }
+        if (!stale.isEmpty()) {
+            closureRepository.deleteAll(u -> closureIdIn(u, ID, stale));
+        }
+        if (!missing.isEmpty()) {
+            closureRepository.bulkInsert(missing, BulkOptions.DEFAULT);
         }
     }
 
     /**
-     * 获取树状结构
+     * 由一页子节点生成子节点的祖先路径
      *
-     * @param rootId 根节点ID
-     * @return 根节点（包含子节点）
+     * @param parents 父节点ID到父节点路径的映射
+     * @param page    一页子节点
+     * @return 子节点路径
      */
-    @Override
-    @Transactional(rollbackFor = Exception.class, readOnly = true)
-    public T getTree(UUID rootId) {
-        T root = entityRepository.getById(rootId, navigate, false).orElseThrow(
-                () -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Root node not found, ID: " + rootId));
+    private List<RebuildPath> childPaths(Map<UUID, RebuildPath> parents, List<T> page) {
+        List<RebuildPath> children = new ArrayList<>(page.size());
+        for (T child : page) {
+            RebuildPath parent = parents.get(child.getParentId());
+            UUID childId = child.getId();
+            if (parent == null || childId == null || parent.contains(childId)) {
+                log.warn("closure rebuild skipped node {} with invalid parent {}", childId, child.getParentId());
+                continue;
+            }
+            children.add(new RebuildPath(childId, parent, parent.depth() + 1));
+        }
+        return children;
+    }
 
-        getSubTree(root);
+    /**
+     * 按闭包表重新统计当前租户所有节点的子节点数和子树大小
+     * <p>
+     * 与表同步后的回填共用 {@link HierarchyCounters} 的集合语句，一条语句更新所有不一致的节点；
+     * 只校验时以同样的条件统计不一致的节点数。与租户过滤一致，不限定租户时统计全部租户。
+     * </p>
+     *
+     * @param dryRun 是否只统计差异
+     * @param result 累计结果
+     */
+    private void recountSubtrees(boolean dryRun, ClosureRebuildResult result) {
+        UUID tenantId = SaTokenHelper.getCurrentTenantId();
+        long stale = HierarchyCounters.recount(entityRepository.getEasyEntityQuery().getRuntimeContext(),
+                                               entityRepository.getEntityType(),
+                                               tenantId != SaTokenHelper.NULL_UUID ? tenantId : null, dryRun);
+        result.setStaleCounters(result.getStaleCounters() + stale);
+        if (!dryRun && stale > 0) {
+            // 语句绕过了仓库，缓存中的计数已经过期
+            entityRepository.invalidateCache();
+        }
+    }
 
-        return root;
+    /**
+     * 按祖先节点分组统计闭包记录数
+     *
+     * @param ancestorIds 祖先节点ID
+     * @param directOnly  为 true 时只统计距离为1的记录（子节点数），否则统计全部记录（子树大小，包含自身）
+     * @return 祖先节点ID到记录数的映射
+     */
+    private Map<UUID, Long> countClosures(List<UUID> ancestorIds, boolean directOnly) {
+        return closureRepository.queryable()
+                                .where(u -> {
+                                    closureIdIn(u, ANCESTOR_ID, ancestorIds);
+                                    u.anyColumn(DISTANCE).eq(directOnly, 1);
+                                })
+                                .groupBy(u -> GroupKeys.of(u.anyColumn(ANCESTOR_ID)))
+                                .select(g -> Select.DRAFT.of(g.key1(), g.count()))
+                                .toList()
+                                .stream()
+                                .collect(Collectors.toMap(d -> (UUID) d.getValue1(), Draft2::getValue2));
+    }
+
+    /**
+     * 添加“实体属性值属于ID集合”的条件，按实体仓库配置的阈值选择 IN 或数组参数
+     */
+    private void idIn(TProxy t, String property, Collection<UUID> ids) {
+        IdPredicates.in(t, property, ids, entityRepository.getIdArrayThreshold());
     }
 
     /**
-     * 检查节点是否是另一个节点的后代
+     * 添加“闭包记录属性值属于ID集合”的条件，按闭包表仓库配置的阈值选择 IN 或数组参数
+     */
+    private void closureIdIn(UProxy u, String property, Collection<UUID> ids) {
+        IdPredicates.in(u, property, ids, closureRepository.getIdArrayThreshold());
+    }
+
+    /**
+     * 按节点累加计数列，增量相同的节点合并为一条更新语句
      *
-     * @param nodeId     节点ID
-     * @param ancestorId 祖先节点ID
-     * @return 是否是后代
+     * @param column 计数列
+     * @param deltas 节点ID到增量的映射
      */
-    private boolean isDescendant(UUID nodeId, UUID ancestorId) {
-        List<U> closures = closureRepository.getAll(u -> {
-            u.anyColumn(ANCESTOR_ID).eq(ancestorId);
-            u.anyColumn(DESCENDANT_ID).eq(nodeId);
+    private void addToCounters(String column, Map<UUID, Long> deltas) {
+        Map<Long, List<UUID>> idsByDelta = deltas.entrySet().stream().collect(Collectors.groupingBy(
+                Map.Entry::getValue, Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        idsByDelta.forEach((delta, ids) -> addToCounter(column, delta, t -> idIn(t, ID, ids)));
+    }
+
+    /**
+     * 以单条UPDATE语句为符合条件的节点的计数列加上增量
+     *
+     * @param column 计数列
+     * @param delta  增量，可以为负数
+     * @param where  条件
+     */
+    private void addToCounter(String column, long delta, SQLActionExpression1<TProxy> where) {
+        entityRepository.updateAll(t -> t.anyColumn(column).set(t.expression().sqlSegment(
+                "{0} + {1}", c -> c.expression(t.anyColumn(column)).value(delta), Long.class)), where);
+    }
+
+    /**
+     * 输出校验/重建进度
+     *
+     * @param depth  当前批节点的层级
+     * @param result 累计结果
+     * @param start  开始时间（纳秒）
+     */
+    private void logRebuildProgress(int depth, ClosureRebuildResult result, long start) {
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("closure rebuild progress: depth {}, {} nodes, {} missing, {} stale, {} nodes/s",
+                 depth, result.getNodes(), result.getMissingRows(), result.getStaleRows(),
+                 result.getNodes() * 1000 / elapsedMillis);
+    }
+
+    /**
+     * 获取校验/重建闭包表时每批处理的节点数
+     *
+     * @return 每批处理的节点数
+     */
+    public int getRebuildBatchSize() {
+        return rebuildBatchSize;
+    }
+
+    /**
+     * 设置校验/重建闭包表时每批处理的节点数
+     *
+     * @param rebuildBatchSize 每批处理的节点数，必须大于0
+     */
+    public void setRebuildBatchSize(int rebuildBatchSize) {
+        if (rebuildBatchSize <= 0) {
+            throw new IllegalArgumentException("rebuildBatchSize must be positive: " + rebuildBatchSize);
+        }
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    /**
+     * 是否启用层级结构快照
+     *
+     * @return 是否启用
+     */
+    public boolean isSnapshotEnabled() {
+        return snapshotEnabled;
+    }
+
+    /**
+     * 设置是否启用层级结构快照
+     * <p>
+     * 启用后 {@link #getDirectChildren}、{@link #getDescendants}、{@link #getDirectParent}、{@link #getAllAncestors}
+     * 通过内存快照获取节点ID，只需一次按ID批量查询实体；{@link #moveNode} 也会先用快照快速拒绝非法移动。
+     * 快照反映的是本实例最近一次已提交的层级结构；多实例部署时，其他实例的写入最迟在 {@link #setSnapshotTtl 有效期}
+     * 之后可见。
+     * </p>
+     *
+     * @param snapshotEnabled 是否启用
+     */
+    public void setSnapshotEnabled(boolean snapshotEnabled) {
+        this.snapshotEnabled = snapshotEnabled;
+    }
+
+    /**
+     * 设置同级节点的排序列
+     * <p>
+     * {@link #getRoots()} 和 {@link #getChildren} 按 (排序列, ID) 排序，排序列应与 parent_id 建立联合索引。
+     * </p>
+     *
+     * @param sortColumn 排序列（实体属性名）
+     * @param sortKey    读取实体排序值的函数
+     */
+    public void setSortColumn(String sortColumn, Function<T, @Nullable Object> sortKey) {
+        this.sortColumn = sortColumn;
+        this.sortKey = sortKey;
+    }
+
+    /**
+     * 获取当前租户的层级结构快照
+     * <p>
+     * 快照不存在、版本过期或超过有效期时，一次性加载闭包表中 {@code distance <= 1} 的记录重新构建，并以原子方式替换旧快照。
+     * 版本号按租户维护，一个租户的写入不会使其他租户的快照过期。同一租户并发读取时只有一个线程执行构建，
+     * 其余线程等待同一结果；构建期间若有新的写入提交，版本号已递增，下一次读取会再次重建。
+     * </p>
+     *
+     * @return 层级结构快照
+     */
+    public HierarchySnapshot getSnapshot() {
+        UUID tenantId = SaTokenHelper.getCurrentTenantId();
+        long version = getSnapshotVersion(tenantId);
+        long now = System.nanoTime();
+        SnapshotEntry entry = snapshots.compute(tenantId, (key, old) -> {
+            if (old != null && old.version() >= version && now - old.createdAt() < snapshotTtl.toNanos()) {
+                return old;
+            }
+            return new SnapshotEntry(version, now, new FutureTask<>(() -> buildSnapshot(tenantId, version)));
         });
-        return !closures.isEmpty();
+
+        // 同一租户同一版本只构建一次：第一个调用 run 的线程执行构建，其余线程等待结果
+        entry.task().run();
+        try {
+            return entry.task().get();
+        } catch (ExecutionException e) {
+            snapshots.remove(tenantId, entry);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to build hierarchy snapshot", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building hierarchy snapshot", e);
+        }
     }
 
     /**
-     * 递归获取子树
+     * 设置快照的最长有效期
+     * <p>
+     * 版本号只在本实例内递增，其他实例的写入不会使本实例的快照过期，有效期即多实例部署时可接受的最大陈旧时间。
+     * </p>
      *
-     * @param parent 父节点
+     * @param snapshotTtl 最长有效期，必须大于0
      */
-    private void getSubTree(T parent) {
-        UUID id = parent.getId();
-        if (id == null) {
-            log.error("entity id is null when getting subtree for node: {}", parent);
+    public void setSnapshotTtl(Duration snapshotTtl) {
+        if (snapshotTtl.isNegative() || snapshotTtl.isZero()) {
+            throw new IllegalArgumentException("snapshotTtl must be positive: " + snapshotTtl);
+        }
+        this.snapshotTtl = snapshotTtl;
+    }
+
+    /**
+     * 获取租户当前的层级结构版本号
+     * <p>
+     * 租户的版本号为该租户的写入次数加上不限定租户的写入次数，两者都只增不减，任一方递增都会使版本号变化；
+     * 不限定租户读取时使用所有写入共同递增的版本号。
+     * </p>
+     *
+     * @param tenantId 租户ID
+     * @return 版本号
+     */
+    private long getSnapshotVersion(UUID tenantId) {
+        if (SaTokenHelper.NULL_UUID.equals(tenantId)) {
+            return globalSnapshotVersion.get();
+        }
+        return versionOf(tenantId).get() + versionOf(SaTokenHelper.NULL_UUID).get();
+    }
+
+    private AtomicLong versionOf(UUID tenantId) {
+        return snapshotVersions.computeIfAbsent(tenantId, key -> new AtomicLong());
+    }
+
+    private HierarchySnapshot buildSnapshot(UUID tenantId, long version) {
+        HierarchySnapshot built = HierarchySnapshot.build(version, closureRepository.getAll(
+                u -> u.anyColumn(DISTANCE).le(1), CLOSURE_COLUMNS));
+        log.debug("built hierarchy snapshot for tenant {}: version {}, {} nodes", tenantId, version, built.size());
+        return built;
+    }
+
+    /**
+     * 递增租户的层级结构版本号
+     *
+     * @param tenantId 写入时的租户ID
+     */
+    private void advanceSnapshotVersion(UUID tenantId) {
+        versionOf(tenantId).incrementAndGet();
+        globalSnapshotVersion.incrementAndGet();
+    }
+
+    /**
+     * 当前调用是否可以从快照读取
+     * <p>
+     * 当前事务中已经写入过闭包表时，快照尚未包含这些修改，此时回退到数据库查询。
+     * </p>
+     *
+     * @return 是否使用快照
+     */
+    private boolean useSnapshot() {
+        return snapshotEnabled && !TransactionSynchronizationManager.hasResource(pendingSnapshotTenants);
+    }
+
+    /**
+     * 闭包表写入后使快照失效
+     * <p>
+     * 只有写入时所在租户的快照过期。处于事务中时，记录当前事务存在未提交层级修改的租户，
+     * 并在事务提交后递增这些租户的版本号；事务回滚则快照保持有效。不在事务中时立即递增版本号。
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    private void invalidateSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        UUID tenantId = SaTokenHelper.getCurrentTenantId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            advanceSnapshotVersion(tenantId);
+            return;
+        }
+        Set<UUID> pending = (Set<UUID>) TransactionSynchronizationManager.getResource(pendingSnapshotTenants);
+        if (pending != null) {
+            pending.add(tenantId);
             return;
         }
 
-        List<T> children = getDirectChildren(id);
+        Set<UUID> tenants = new HashSet<>();
+        tenants.add(tenantId);
+        TransactionSynchronizationManager.bindResource(pendingSnapshotTenants, tenants);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(pendingSnapshotTenants);
+                if (status == STATUS_COMMITTED) {
+                    tenants.forEach(ClosureExtension.this::advanceSnapshotVersion);
+                }
+            }
+        });
+    }
+
+    /**
+     * 按当前配置的排序列排列同级节点
+     *
+     * @return 比较器
+     */
+    private Comparator<T> siblingOrder() {
+        return siblingOrder(sortKey);
+    }
 
-        for (T child : children) {
-            getSubTree(child);
+    /**
+     * 同级节点的排序，与 {@link #queryChildren} 的 (排序列 NULLS LAST, ID) 一致
+     *
+     * @param sortKey 读取实体排序值的函数，为空时只按ID排序
+     * @param <T>     实体类型
+     * @return 比较器
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends HierarchyAvailable> Comparator<T> siblingOrder(@Nullable Function<T, @Nullable Object> sortKey) {
+        Comparator<T> byId = Comparator.comparing(node -> Objects.requireNonNull(node.getId()), UUID_ORDER);
+        if (sortKey == null) {
+            return byId;
         }
+        return Comparator.comparing((T node) -> (Comparable<Object>) sortKey.apply(node),
+                                    Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(byId);
     }
 
+    /**
+     * 快照缓存项
+     *
+     * @param version   构建时的版本号
+     * @param createdAt 创建时间（{@link System#nanoTime()}）
+     * @param task      构建快照的任务，同一缓存项只执行一次
+     */
+    private record SnapshotEntry(long version, long createdAt, FutureTask<HierarchySnapshot> task) {
+    }
 
+    /**
+     * 按ID批量查询实体，结果按给定ID的顺序排列，ID为空时不访问数据库
+     *
+     * @param ids 实体ID列表
+     * @return 实体列表
+     */
+    private List<T> getAllByIds(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, T> entities = entityRepository.getAllByIds(ids).stream().collect(
+                Collectors.toMap(entity -> Objects.requireNonNull(entity.getId()), Function.identity()));
+        return ids.stream().map(entities::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * 获取树状结构，层级深度使用默认值 {@link #DEFAULT_TREE_MAX_DEPTH}
+     *
+     * @param rootId 根节点ID
+     * @return 根节点（包含子节点）
+     */
+    @Override
+    public TreeNode<T> getTree(UUID rootId) {
+        return getTree(rootId, DEFAULT_TREE_MAX_DEPTH);
+    }
+
+    /**
+     * 获取树状结构，限制最大层级深度
+     * <p>
+     * 通过闭包表一次性查询 {@code ancestor_id = rootId AND distance <= maxDepth} 的所有节点，
+     * 再根据 parentId 在内存中组装父子关系，总体复杂度 O(n)，不会随节点数量产生额外的数据库往返。
+     * </p>
+     *
+     * @param rootId   根节点ID
+     * @param maxDepth 最大层级深度，0表示只返回根节点
+     * @return 根节点（包含子节点）
+     */
+    @Override
+    public TreeNode<T> getTree(UUID rootId, int maxDepth) {
+        if (maxDepth < 0) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "maxDepth must not be negative: " + maxDepth);
+        }
+
+        List<T> nodes = entityRepository.queryable()
+                                        .where(t -> t.anyColumn(ID).in(closureRepository.queryable().where(u -> {
+                                            u.anyColumn(ANCESTOR_ID).eq(rootId);
+                                            u.anyColumn(DISTANCE).le(maxDepth);
+                                        }).selectColumn(u -> u.anyColumn(DESCENDANT_ID))))
+                                        .toList();
+
+        return buildTree(rootId, nodes, siblingOrder());
+    }
+
+    /**
+     * 根据 parentId 在内存中组装树
+     * <p>
+     * 节点先按同级排序规则排好，再依次挂到父节点下，每个节点的子节点列表都按该顺序排列，
+     * 与 {@link #queryChildren} 返回的子节点顺序一致，多次调用结果稳定。
+     * </p>
+     *
+     * @param rootId 根节点ID
+     * @param nodes  子树中的所有节点（包含根节点）
+     * @param order  同级节点的排序
+     * @param <T>    实体类型
+     * @return 根节点（包含子节点）
+     */
+    static <T extends HierarchyAvailable> TreeNode<T> buildTree(UUID rootId, List<T> nodes, Comparator<T> order) {
+        List<T> sorted = nodes.stream().filter(node -> node.getId() != null).sorted(order).toList();
+        Map<UUID, TreeNode<T>> nodeMap = new HashMap<>(nodes.size() * 2);
+        for (T node : nodes) {
+            UUID id = node.getId();
+            if (id == null) {
+                log.error("entity id is null when building tree for node: {}", node);
+                continue;
+            }
+            nodeMap.put(id, new TreeNode<>(node));
+        }
+
+        TreeNode<T> root = nodeMap.get(rootId);
+        if (root == null) {
+            throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Root node not found, ID: " + rootId);
+        }
+
+        for (T data : sorted) {
+            TreeNode<T> node = Objects.requireNonNull(nodeMap.get(data.getId()));
+            if (node == root) {
+                continue;
+            }
+            UUID parentId = node.getData().getParentId();
+            TreeNode<T> parent = parentId != null ? nodeMap.get(parentId) : null;
+            if (parent != null) {
+                parent.getChildren().add(node);
+            }
+        }
+
+        return root;
+    }
+
+    /**
+     * 校验/重建时节点的祖先路径，子节点通过 parent 引用共享父节点的路径
+     *
+     * @param id     节点ID
+     * @param parent 父节点路径，根节点为空
+     * @param depth  节点深度，根节点为0
+     */
+    private record RebuildPath(UUID id, @Nullable RebuildPath parent, int depth) {
+
+        /**
+         * 路径中是否包含节点，用于发现 parentId 形成的环
+         */
+        boolean contains(UUID nodeId) {
+            for (RebuildPath path = this; path != null; path = path.parent()) {
+                if (path.id().equals(nodeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 校验/重建时深度优先遍历的一项：一页已处理的节点，以及其子节点已经取到的位置
+     */
+    private static final class RebuildFrame {
+
+        /**
+         * 节点ID到节点路径的映射
+         */
+        private final Map<UUID, RebuildPath> parents;
+
+        /**
+         * 已取出的最后一个子节点ID，为空时尚未取子节点
+         */
+        private @Nullable UUID lastChildId;
+
+        RebuildFrame(List<RebuildPath> paths) {
+            this.parents = new HashMap<>(paths.size() * 2);
+            for (RebuildPath path : paths) {
+                parents.put(path.id(), path);
+            }
+        }
+    }
 }
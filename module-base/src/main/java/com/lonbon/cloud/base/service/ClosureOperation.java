@@ -1,8 +1,15 @@
 package com.lonbon.cloud.base.service;
 
 import com.easy.query.core.proxy.ProxyEntity;
+import com.lonbon.cloud.base.dto.DistanceRange;
+import com.lonbon.cloud.base.dto.LazyTreeNode;
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.dto.TreeNode;
+import org.jspecify.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -27,6 +34,23 @@ public interface ClosureOperation<T, TProxy extends ProxyEntity<TProxy, T>, U, U
      */
     List<T> getDirectChildren(UUID parentId);
 
+    /**
+     * 查询所有根节点（没有父节点的节点），按排序列和ID排序
+     *
+     * @return 根节点列表
+     */
+    List<T> getRoots();
+
+    /**
+     * 分页查询一层子节点，按排序列和ID排序，使用键集分页，每个节点附带是否存在子节点的标记
+     *
+     * @param parentId 父节点ID，为空时查询根节点
+     * @param cursor   上一页最后一个节点的ID，为空表示第一页
+     * @param limit    每页条数
+     * @return 懒加载树节点列表
+     */
+    List<LazyTreeNode<T>> getChildren(@Nullable UUID parentId, @Nullable UUID cursor, int limit);
+
     /**
      * 查询所有后代节点（包括多级）
      *
@@ -35,6 +59,26 @@ public interface ClosureOperation<T, TProxy extends ProxyEntity<TProxy, T>, U, U
      */
     List<T> getDescendants(UUID parentId);
 
+    /**
+     * 分页查询后代节点，按 (距离, ID) 排序，使用键集分页
+     *
+     * @param parentId      父节点ID
+     * @param distanceRange 距离范围
+     * @param afterId       上一页最后一个节点的ID，为空表示第一页
+     * @param limit         每页条数
+     * @return 后代节点列表
+     */
+    List<T> getDescendants(UUID parentId, DistanceRange distanceRange, @Nullable UUID afterId, int limit);
+
+    /**
+     * 判断 descendantId 是否为 ancestorId 的后代（不包含自身）
+     *
+     * @param ancestorId   祖先节点ID
+     * @param descendantId 后代节点ID
+     * @return 是否为后代
+     */
+    boolean isDescendant(UUID ancestorId, UUID descendantId);
+
     /**
      * 查询直接父节点
      *
@@ -51,6 +95,14 @@ public interface ClosureOperation<T, TProxy extends ProxyEntity<TProxy, T>, U, U
      */
     List<T> getAllAncestors(UUID childId);
 
+    /**
+     * 批量查询多个节点的祖先路径
+     *
+     * @param nodeIds 节点ID集合
+     * @return 节点ID到祖先路径（从根节点到直接父节点）的映射
+     */
+    Map<UUID, List<T>> getAncestorPaths(Collection<UUID> nodeIds);
+
     /**
      * 移动节点到新的父节点下
      *
@@ -60,11 +112,45 @@ public interface ClosureOperation<T, TProxy extends ProxyEntity<TProxy, T>, U, U
      */
     T moveNode(UUID nodeId, UUID newParentId);
 
+    /**
+     * 删除节点及其所有子节点
+     *
+     * @param nodeId 节点ID
+     * @return 实体表与闭包表各自受影响的行数
+     */
+    SubtreeDeleteResult deleteSubtree(UUID nodeId);
+
     /**
      * 获取树状结构
      *
      * @param rootId 根节点ID
      * @return 根节点（包含子节点）
      */
-    T getTree(UUID rootId);
+    TreeNode<T> getTree(UUID rootId);
+
+    /**
+     * 获取树状结构，限制最大层级深度
+     *
+     * @param rootId   根节点ID
+     * @param maxDepth 最大层级深度，0表示只返回根节点
+     * @return 根节点（包含子节点）
+     */
+    TreeNode<T> getTree(UUID rootId, int maxDepth);
+
+    /**
+     * 根据 parentId 校验并修复闭包表
+     *
+     * @param dryRun 为 true 时只校验并统计差异，不修改数据
+     * @return 校验/重建结果
+     */
+    ClosureRebuildResult rebuildClosure(boolean dryRun);
+
+    /**
+     * 批量导入一棵或多棵树
+     *
+     * @param parentId 挂载点节点ID，为空时顶层节点作为根节点
+     * @param nodes    以 key/parentKey 链接的导入节点
+     * @return 按拓扑顺序排列的已导入实体
+     */
+    List<T> importTree(@Nullable UUID parentId, List<TreeImportNode<T>> nodes);
 }
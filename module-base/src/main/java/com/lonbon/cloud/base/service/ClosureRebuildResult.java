@@ -0,0 +1,71 @@
+package com.lonbon.cloud.base.service;
+
+import lombok.Data;
+
+/**
+ * 闭包表校验/重建结果
+ * <p>
+ * 记录根据 parentId 邻接关系重新计算闭包记录，并与已存储记录比对后的差异数量。
+ * 校验模式（dryRun）下只统计差异，不写入数据库。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Data
+public class ClosureRebuildResult {
+
+    /**
+     * 是否为校验模式，校验模式下不修改数据
+     */
+    private boolean dryRun;
+
+    /**
+     * 处理的根节点数
+     */
+    private long roots;
+
+    /**
+     * 从根节点可到达的节点数
+     */
+    private long nodes;
+
+    /**
+     * 无法从任何根节点到达的节点数（父节点不存在或存在环）
+     */
+    private long unreachableNodes;
+
+    /**
+     * 期望的闭包记录数
+     */
+    private long expectedRows;
+
+    /**
+     * 缺失（需要插入）的闭包记录数
+     */
+    private long missingRows;
+
+    /**
+     * 多余或错误（需要删除）的闭包记录数
+     */
+    private long staleRows;
+
+    /**
+     * 子节点数或子树大小计数错误的节点数
+     */
+    private long staleCounters;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long elapsedMillis;
+
+    /**
+     * 数据是否一致
+     *
+     * @return 没有缺失和多余记录、计数也正确时为 true
+     */
+    public boolean isConsistent() {
+        return missingRows == 0 && staleRows == 0 && staleCounters == 0;
+    }
+}
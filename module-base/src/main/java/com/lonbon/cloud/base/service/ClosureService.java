@@ -1,8 +1,16 @@
 package com.lonbon.cloud.base.service;
 
 import com.easy.query.core.proxy.ProxyEntity;
+import com.lonbon.cloud.base.dto.DistanceRange;
+import com.lonbon.cloud.base.dto.LazyTreeNode;
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.dto.TreeNode;
+import org.jspecify.annotations.Nullable;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,6 +20,10 @@ import java.util.UUID;
  * 该接口提供了对树形结构的各种操作，包括查询上下级、移动节点、删除节点等功能。
  * 适用于需要处理层级关系的实体，如租户、部门等。
  * </p>
+ * <p>
+ * 层级扩展（{@link ClosureExtension}、{@link MaterializedPathExtension}）不是 Spring Bean，
+ * 事务声明在这里的默认方法上，经由 Service 的代理调用时生效。
+ * </p>
  *
  * @param <T> 实体类型
  * @author lonbon
@@ -23,32 +35,91 @@ public interface ClosureService<T, TProxy extends ProxyEntity<TProxy, T>, U, UPr
     ClosureOperation<T, TProxy, U, UProxy> getClosureOperation();
     
     @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
     default List<T> getDirectChildren(UUID parentId) {
         return getClosureOperation().getDirectChildren(parentId);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    default List<T> getRoots() {
+        return getClosureOperation().getRoots();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    default List<LazyTreeNode<T>> getChildren(@Nullable UUID parentId, @Nullable UUID cursor, int limit) {
+        return getClosureOperation().getChildren(parentId, cursor, limit);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
     default List<T> getDescendants(UUID parentId) {
         return getClosureOperation().getDescendants(parentId);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    default List<T> getDescendants(UUID parentId, DistanceRange distanceRange, @Nullable UUID afterId, int limit) {
+        return getClosureOperation().getDescendants(parentId, distanceRange, afterId, limit);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    default boolean isDescendant(UUID ancestorId, UUID descendantId) {
+        return getClosureOperation().isDescendant(ancestorId, descendantId);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
     default Optional<T> getDirectParent(UUID childId) {
         return getClosureOperation().getDirectParent(childId);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
     default List<T> getAllAncestors(UUID childId) {
         return getClosureOperation().getAllAncestors(childId);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    default Map<UUID, List<T>> getAncestorPaths(Collection<UUID> nodeIds) {
+        return getClosureOperation().getAncestorPaths(nodeIds);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
     default T moveNode(UUID nodeId, UUID newParentId) {
         return getClosureOperation().moveNode(nodeId, newParentId);
     }
 
     @Override
-    default T getTree(UUID rootId) {
+    @Transactional(rollbackFor = Exception.class)
+    default SubtreeDeleteResult deleteSubtree(UUID nodeId) {
+        return getClosureOperation().deleteSubtree(nodeId);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    default TreeNode<T> getTree(UUID rootId) {
         return getClosureOperation().getTree(rootId);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    default TreeNode<T> getTree(UUID rootId, int maxDepth) {
+        return getClosureOperation().getTree(rootId, maxDepth);
+    }
+
+    @Override
+    default ClosureRebuildResult rebuildClosure(boolean dryRun) {
+        return getClosureOperation().rebuildClosure(dryRun);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    default List<T> importTree(@Nullable UUID parentId, List<TreeImportNode<T>> nodes) {
+        return getClosureOperation().importTree(parentId, nodes);
+    }
+}
@@ -7,13 +7,19 @@ import com.easy.query.core.expression.lambda.SQLFuncExpression1;
 import com.easy.query.core.proxy.ProxyEntity;
 import com.easy.query.core.proxy.SQLSelectExpression;
 import com.easy.query.core.proxy.sql.include.IncludeContext;
+import com.lonbon.cloud.base.dto.CursorPageResult;
+import com.lonbon.cloud.base.dto.CursorPageable;
 import com.lonbon.cloud.base.dto.PageResult;
 import com.lonbon.cloud.base.dto.Pageable;
 import com.lonbon.cloud.base.exception.BusinessException;
+import org.jspecify.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -41,6 +47,17 @@ public interface EntityService<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     T createEntity(Object createDto);
 
+    /**
+     * 批量创建实体。
+     * <p>
+     * 所有实体以一次批量插入写入，拦截器通过批量钩子处理整批实体，适用于导入等一次创建大量实体的场景。
+     * </p>
+     *
+     * @param createDtos 创建DTO对象列表
+     * @return 创建的实体，顺序与参数一致
+     */
+    List<T> createEntities(List<?> createDtos);
+
     /**
      * 更新实体。
      * <p>
@@ -67,6 +84,21 @@ public interface EntityService<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     void updateEntity(UUID id, Function<T, T> updateFunc);
 
+    /**
+     * 局部更新实体，不预先查询。
+     * <p>
+     * 把更新DTO转换为实体后，以其中非空的属性执行一条带版本校验的 UPDATE，比 {@link #updateEntity(UUID, Object)}
+     * 少一次查询。DTO 中的基本类型字段总是非空，会被写入。
+     * </p>
+     *
+     * @param id        实体的唯一标识符
+     * @param updateDto 更新DTO对象，值为 null 的字段不更新
+     * @param version   期望的版本号（例如取自 {@code If-Match} 请求头），为 null 时取 DTO 中的版本号
+     * @return 数据库中更新后的版本号，未提供期望版本号时同样返回，实体没有版本号时为空
+     * @throws BusinessException 如果实体不存在或版本冲突
+     */
+    Optional<Integer> patchEntity(UUID id, Object updateDto, @Nullable Integer version);
+
 
     void updateEntity(UUID id, SQLActionExpression1<TProxy> columns);
 
@@ -124,6 +156,63 @@ public interface EntityService<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     Optional<T> getEntityById(UUID id, List<String> navigate, boolean tracking);
 
+    /**
+     * 在当前请求内按ID加载实体。
+     * <p>
+     * 同一请求内同一ID只查询一次数据库，先通过 {@link #prefetchEntities} 登记的ID会合并为一次查询。
+     * 返回的实体在请求内共享，需要修改时应使用 {@link #getEntityById(UUID)}。
+     * </p>
+     *
+     * @param id 实体的唯一标识符
+     * @return 包含实体的 Optional，如果未找到则为 Optional.empty()
+     */
+    Optional<T> loadEntity(UUID id);
+
+    /**
+     * 在当前请求内按ID集合加载实体，未加载过的ID合并为一次查询。
+     *
+     * @param ids 实体ID集合
+     * @return ID到实体的映射，不存在的ID不包含在内
+     */
+    Map<UUID, T> loadEntities(Collection<UUID> ids);
+
+    /**
+     * 登记当前请求稍后需要加载的实体ID，在下一次加载时一并查询。
+     *
+     * @param ids 实体ID集合
+     */
+    void prefetchEntities(Collection<UUID> ids);
+
+    /**
+     * 判断具有给定ID的实体是否存在。
+     * <p>
+     * 只执行 {@code SELECT 1 ... LIMIT 1}，不加载实体。
+     * </p>
+     *
+     * @param id 实体的唯一标识符
+     * @return 存在时返回 true
+     */
+    boolean existsEntity(UUID id);
+
+    /**
+     * 判断是否存在符合条件的实体。
+     * <p>
+     * 只执行 {@code SELECT 1 ... LIMIT 1}，不加载实体，用于代替 {@code getEntity(...).isPresent()}。
+     * </p>
+     *
+     * @param whereExpression 查询条件表达式
+     * @return 存在时返回 true
+     */
+    boolean existsEntity(SQLActionExpression1<TProxy> whereExpression);
+
+    /**
+     * 统计符合条件的实体数量。
+     *
+     * @param whereExpression 查询条件表达式
+     * @return 实体数量
+     */
+    long countEntities(SQLActionExpression1<TProxy> whereExpression);
+
     /**
      * 根据条件获取单个实体。
      * <p>
@@ -226,6 +315,32 @@ public interface EntityService<T, TProxy extends ProxyEntity<TProxy, T>> {
      */
     List<T> getAllEntities();
 
+    /**
+     * 获取所有实体，只读取指定的字段。
+     * <p>
+     * 用于列表接口的稀疏字段集（{@code fields=}），字段名通过实体的抓取器解析，总是包含ID，
+     * 未指定的字段为 null；字段为空时返回完整实体。
+     * </p>
+     *
+     * @param fields 需要读取的实体属性名
+     * @return 只填充了指定字段的实体列表
+     * @throws com.lonbon.cloud.base.exception.BusinessException 字段名不是实体的属性时抛出
+     */
+    List<T> getAllEntities(Collection<String> fields);
+
+    /**
+     * 在只读事务中以流的方式逐条处理符合条件的实体。
+     * <p>
+     * 结果由服务端游标分批读取，内存占用只与 fetchSize 有关；所有实体处理完毕后才结束事务并释放连接。
+     * </p>
+     *
+     * @param whereExpression 查询条件表达式
+     * @param fetchSize       每批从数据库读取的行数
+     * @param action          处理每个实体的回调
+     * @return 处理的实体数量
+     */
+    long streamEntities(SQLActionExpression1<TProxy> whereExpression, int fetchSize, Consumer<? super T> action);
+
     /**
      * 获取分页实体。
      * <p>
@@ -238,4 +353,27 @@ public interface EntityService<T, TProxy extends ProxyEntity<TProxy, T>> {
      * @throws IllegalArgumentException 如果 pageable 为 null
      */
     PageResult<T> getPaginationEntities(Object whereObject, Pageable pageable);
+
+    /**
+     * 获取分页实体，只读取指定的字段，字段规则与 {@link #getAllEntities(Collection)} 相同。
+     *
+     * @param whereObject 查询条件对象
+     * @param pageable    分页参数
+     * @param fields      需要读取的实体属性名，为空时返回完整实体
+     * @return 分页结果
+     * @throws com.lonbon.cloud.base.exception.BusinessException 字段名不是实体的属性时抛出
+     */
+    PageResult<T> getPaginationEntities(Object whereObject, Pageable pageable, Collection<String> fields);
+
+    /**
+     * 获取游标分页实体。
+     * <p>
+     * 以上一页返回的游标作为起点查询下一页，不使用 OFFSET，适合大表的深分页；可以选择跳过总数统计。
+     * </p>
+     *
+     * @param whereObject 查询条件对象
+     * @param pageable    游标分页参数
+     * @return 游标分页结果
+     */
+    CursorPageResult<T> getCursorPaginationEntities(Object whereObject, CursorPageable pageable);
 }
@@ -7,16 +7,24 @@ import com.easy.query.core.proxy.AbstractProxyEntity;
 import com.easy.query.core.proxy.ProxyEntityAvailable;
 import com.easy.query.core.proxy.SQLSelectExpression;
 import com.easy.query.core.proxy.sql.include.IncludeContext;
+import com.lonbon.cloud.base.dto.CursorPageResult;
+import com.lonbon.cloud.base.dto.CursorPageable;
 import com.lonbon.cloud.base.dto.PageResult;
 import com.lonbon.cloud.base.dto.Pageable;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.UUIDPrimaryKeyGenerator;
 import com.lonbon.cloud.base.exception.BusinessException;
 import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.base.repository.BulkOptions;
 import com.lonbon.cloud.base.repository.Repository;
 import io.github.linpeilie.Converter;
+import org.jspecify.annotations.Nullable;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 简单实体服务基类
@@ -52,14 +60,9 @@ public abstract class EntityServiceImpl<T extends ProxyEntityAvailable<T, TProxy
     protected final Class<T> entityType;
 
     /**
-     * 拦截器列表，用于扩展实体服务功能
+     * 拦截器列表，用于扩展实体服务功能，按注册顺序执行
      */
-    protected final List<EntityServiceInterceptor<T>> interceptors = new ArrayList<>();
-
-    /**
-     * 拦截器是否已初始化的标志
-     */
-    private volatile boolean interceptorsInitialized = false;
+    private final List<EntityServiceInterceptor<T>> interceptors = new ArrayList<>();
 
     /**
      * 构造简单实体服务
@@ -75,51 +78,19 @@ public abstract class EntityServiceImpl<T extends ProxyEntityAvailable<T, TProxy
     }
 
     /**
-     * 确保拦截器已初始化
+     * 注册拦截器
      * <p>
-     * 使用懒加载方式，在第一次需要拦截器时进行收集。
-     * 此时子类已完全构造完成，可以通过反射获取所有实现了EntityServiceInterceptor的字段。
+     * 由子类在构造方法中调用，拦截器按注册顺序执行。
      * </p>
+     *
+     * @param interceptor 拦截器
      */
-    private void ensureInterceptorsInitialized() {
-        if (!interceptorsInitialized) {
-            synchronized (this) {
-                if (!interceptorsInitialized) {
-                    collectInterceptors();
-                    interceptorsInitialized = true;
-                }
-            }
-        }
-    }
-
-    /**
-     * 收集子类中实现了EntityServiceInterceptor的字段
-     */
-    private void collectInterceptors() {
-        Class<?> currentClass = this.getClass();
-        while (currentClass != EntityServiceImpl.class && currentClass != Object.class) {
-            for (var field : currentClass.getDeclaredFields()) {
-                if (EntityServiceInterceptor.class.isAssignableFrom(field.getType())) {
-                    try {
-                        field.setAccessible(true);
-                        Object value = field.get(this);
-                        if (value != null) {
-                            @SuppressWarnings("unchecked")
-                            EntityServiceInterceptor<T> interceptor = (EntityServiceInterceptor<T>) value;
-                            interceptors.add(interceptor);
-                        }
-                    } catch (IllegalAccessException e) {
-                        throw new RuntimeException("Failed to collect interceptor from field: " + field.getName(), e);
-                    }
-                }
-            }
-            currentClass = currentClass.getSuperclass();
-        }
+    protected final void registerInterceptor(EntityServiceInterceptor<T> interceptor) {
+        interceptors.add(interceptor);
     }
 
     public List<EntityServiceInterceptor<T>> getInterceptors() {
-        ensureInterceptorsInitialized();
-        return interceptors;
+        return Collections.unmodifiableList(interceptors);
     }
 
     public Repository<T, TProxy> getEntityRepository() {
@@ -138,7 +109,6 @@ public abstract class EntityServiceImpl<T extends ProxyEntityAvailable<T, TProxy
     @Override
     public T createEntity(Object createDto) {
         T entity = converter.convert(createDto, entityType);
-        List<EntityServiceInterceptor<T>> interceptors = getInterceptors();
         for (EntityServiceInterceptor<T> interceptor : interceptors) {
             interceptor.preCreate(entity);
         }
@@ -149,6 +119,39 @@ public abstract class EntityServiceImpl<T extends ProxyEntityAvailable<T, TProxy
         return entity;
     }
 
+    /**
+     * 批量创建实体
+     * <p>
+     * 所有DTO转换为实体后，依次调用各拦截器的批量钩子，实体以一次批量插入写入。
+     * 批量插入会保留实体上已有的主键，因此与单条创建一样在这里重新生成主键，不采用DTO中带入的ID。
+     * </p>
+     *
+     * @param createDtos 创建DTO列表
+     * @return 创建的实体，顺序与参数一致
+     */
+    @Override
+    public List<T> createEntities(List<?> createDtos) {
+        if (createDtos.isEmpty()) {
+            return List.of();
+        }
+        List<T> entities = new ArrayList<>(createDtos.size());
+        for (Object createDto : createDtos) {
+            T entity = converter.convert(createDto, entityType);
+            if (entity instanceof BaseEntity baseEntity) {
+                baseEntity.setId(UUIDPrimaryKeyGenerator.nextId());
+            }
+            entities.add(entity);
+        }
+        for (EntityServiceInterceptor<T> interceptor : interceptors) {
+            interceptor.preCreateAll(entities);
+        }
+        repository.bulkInsert(entities, BulkOptions.DEFAULT);
+        for (EntityServiceInterceptor<T> interceptor : interceptors) {
+            interceptor.postCreateAll(entities);
+        }
+        return entities;
+    }
+
     /**
      * 更新实体
      * <p>
@@ -185,6 +188,23 @@ public abstract class EntityServiceImpl<T extends ProxyEntityAvailable<T, TProxy
         });
     }
 
+    /**
+     * 局部更新实体
+     * <p>
+     * 使用MapStruct将DTO转换为新实体，不查询数据库，由仓库以非空属性直接更新。
+     * </p>
+     *
+     * @param id        实体ID
+     * @param updateDto 更新DTO
+     * @param version   期望的版本号
+     * @return 更新后的版本号
+     */
+    @Override
+    public Optional<Integer> patchEntity(UUID id, Object updateDto, @Nullable Integer version) {
+        T patch = converter.convert(updateDto, entityType);
+        return repository.patchById(id, patch, version);
+    }
+
     /**
      * 根据ID更新实体指定列
      *
@@ -232,6 +252,41 @@ public abstract class EntityServiceImpl<T extends ProxyEntityAvailable<T, TProxy
         return repository.getById(id, navigate, tracking);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public Optional<T> loadEntity(UUID id) {
+        return repository.load(id);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public Map<UUID, T> loadEntities(Collection<UUID> ids) {
+        return repository.loadAll(ids);
+    }
+
+    @Override
+    public void prefetchEntities(Collection<UUID> ids) {
+        repository.prefetch(ids);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public boolean existsEntity(UUID id) {
+        return repository.existsById(id);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public boolean existsEntity(SQLActionExpression1<TProxy> whereExpression) {
+        return repository.exists(whereExpression);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public long countEntities(SQLActionExpression1<TProxy> whereExpression) {
+        return repository.countBy(whereExpression);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class, readOnly = true)
     public Optional<T> getEntity(SQLActionExpression1<TProxy> whereExpression) {
@@ -281,9 +336,43 @@ public abstract class EntityServiceImpl<T extends ProxyEntityAvailable<T, TProxy
         return repository.getAll();
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public List<T> getAllEntities(Collection<String> fields) {
+        return repository.fetchAll(t -> {
+        }, fields);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public long streamEntities(
+            SQLActionExpression1<TProxy> whereExpression, int fetchSize, Consumer<? super T> action) {
+        try (Stream<T> stream = repository.stream(whereExpression, fetchSize)) {
+            long count = 0;
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                count++;
+            }
+            return count;
+        }
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class, readOnly = true)
     public PageResult<T> getPaginationEntities(Object whereObject, Pageable pageable) {
         return repository.getPagination(whereObject, pageable);
     }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public PageResult<T> getPaginationEntities(Object whereObject, Pageable pageable, Collection<String> fields) {
+        return repository.getPagination(whereObject, pageable, fields);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, readOnly = true)
+    public CursorPageResult<T> getCursorPaginationEntities(Object whereObject, CursorPageable pageable) {
+        return repository.getCursorPagination(whereObject, pageable);
+    }
 }
@@ -1,9 +1,46 @@
 package com.lonbon.cloud.base.service;
 
+import java.util.List;
+
+/**
+ * 实体服务拦截器
+ * <p>
+ * 在 {@link EntityServiceImpl} 创建实体的前后执行扩展逻辑，由服务在构造时通过
+ * {@link EntityServiceImpl#registerInterceptor} 注册，按注册顺序执行。
+ * 批量创建时调用 {@link #preCreateAll}/{@link #postCreateAll}，默认逐个调用单实体方法，
+ * 需要访问数据库的拦截器应重写为基于集合的实现。
+ * </p>
+ *
+ * @param <T> 实体类型
+ * @author lonbon
+ * @since 1.0.0
+ */
 public interface EntityServiceInterceptor<T> {
     default void preCreate(T entity) {
     }
 
     default void postCreate(T entity) {
     }
+
+    /**
+     * 批量创建实体之前调用
+     *
+     * @param entities 待插入的实体，主键可能尚未分配，拦截器可以预先分配
+     */
+    default void preCreateAll(List<T> entities) {
+        for (T entity : entities) {
+            preCreate(entity);
+        }
+    }
+
+    /**
+     * 批量创建实体之后调用
+     *
+     * @param entities 已插入的实体，主键已分配
+     */
+    default void postCreateAll(List<T> entities) {
+        for (T entity : entities) {
+            postCreate(entity);
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.lonbon.cloud.base.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * 层级结构实体接口
+ * <p>
+ * 所有层级存储方式（闭包表、物化路径）共同依赖的 parentId 邻接关系。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+public interface HierarchyAvailable {
+
+    @Nullable UUID getId();
+
+    void setId(UUID id);
+
+    @Nullable UUID getParentId();
+
+    void setParentId(UUID parentId);
+}
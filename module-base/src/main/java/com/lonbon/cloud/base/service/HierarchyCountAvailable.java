@@ -0,0 +1,25 @@
+package com.lonbon.cloud.base.service;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * 层级计数实体接口
+ * <p>
+ * 实现该接口的实体由 {@link ClosureExtension} 在创建、移动、删除节点的同一事务中增量维护计数：
+ * childCount 为直接子节点数，subtreeSize 为子树节点数（包含自身）。
+ * 树形界面据此即可判断是否显示展开箭头，不需要额外查询。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+public interface HierarchyCountAvailable {
+
+    @Nullable Integer getChildCount();
+
+    void setChildCount(Integer childCount);
+
+    @Nullable Long getSubtreeSize();
+
+    void setSubtreeSize(Long subtreeSize);
+}
@@ -0,0 +1,110 @@
+package com.lonbon.cloud.base.service;
+
+import com.easy.query.core.context.QueryRuntimeContext;
+import com.easy.query.core.metadata.EntityMetadata;
+import com.easy.query.core.metadata.EntityMetadataManager;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.ResolvableType;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * 由闭包表统计并修正层级计数
+ * <p>
+ * 以一条集合语句按祖先分组统计闭包记录：记录总数即子树大小（包含自身），{@code distance = 1} 的记录数即子节点数，
+ * 只更新与统计结果不一致的行，重复执行是安全的；只校验时以同样的条件统计不一致的行数。
+ * 表同步后的回填（{@link SystemService#backfillHierarchyCounters}）和闭包表校验/重建
+ * （{@link ClosureExtension#rebuildClosure}）共用这一实现。
+ * </p>
+ * <p>
+ * 语句直接访问表，不经过 easy-query 的租户过滤，按租户统计时由调用方传入租户ID；
+ * 连接通过 {@link DataSourceUtils} 获取，在 Spring 事务中与 easy-query 共用同一个连接。
+ * </p>
+ */
+@Slf4j
+final class HierarchyCounters {
+
+    private HierarchyCounters() {
+    }
+
+    /**
+     * 统计并修正层级计数
+     *
+     * @param runtimeContext easy-query 运行时上下文
+     * @param entity         实现了 {@link HierarchyCountAvailable} 和 {@link ClosureAvailable} 的实体类型
+     * @param tenantId       只统计该租户的闭包记录，为空时统计全部租户
+     * @param dryRun         为 true 时只统计不一致的行数，不修改数据
+     * @return 不一致（已更新）的行数
+     */
+    static long recount(QueryRuntimeContext runtimeContext, Class<?> entity, @Nullable UUID tenantId,
+                        boolean dryRun) {
+        Class<?> closureType = ResolvableType.forClass(entity).as(ClosureAvailable.class).getGeneric(0).resolve();
+        if (!HierarchyCountAvailable.class.isAssignableFrom(entity) || closureType == null) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                                        "Entity has no hierarchy counters: " + entity.getName());
+        }
+
+        EntityMetadataManager entityMetadataManager = runtimeContext.getEntityMetadataManager();
+        EntityMetadata node = entityMetadataManager.getEntityMetadata(entity);
+        EntityMetadata closure = entityMetadataManager.getEntityMetadata(closureType);
+        boolean byTenant = tenantId != null && closure.getColumnOrNull(BaseEntity.Fields.tenantId) != null;
+        String ancestorId = quote(column(closure, ClosureEntity.Fields.ancestorId));
+        String childCount = quote(column(node, ClosureExtension.CHILD_COUNT));
+        String subtreeSize = quote(column(node, ClosureExtension.SUBTREE_SIZE));
+        String counts = "(SELECT " + ancestorId + " AS id,"
+                + " count(*) FILTER (WHERE " + quote(column(closure, ClosureEntity.Fields.distance)) + " = 1)"
+                + " AS child_count, count(*) AS subtree_size"
+                + " FROM " + quote(closure.getTableName())
+                + " WHERE " + quote(column(closure, BaseEntity.Fields.isDelete)) + " = FALSE"
+                + (byTenant ? " AND " + quote(column(closure, BaseEntity.Fields.tenantId)) + " = ?" : "")
+                + " GROUP BY " + ancestorId + ") AS c";
+        String stale = " WHERE n." + quote(column(node, BaseEntity.Fields.id)) + " = c.id"
+                + " AND (n." + childCount + " IS DISTINCT FROM c.child_count"
+                + " OR n." + subtreeSize + " IS DISTINCT FROM c.subtree_size)";
+        String sql = dryRun
+                ? "SELECT count(*) FROM " + quote(node.getTableName()) + " AS n, " + counts + stale
+                : "UPDATE " + quote(node.getTableName()) + " AS n"
+                        + " SET " + childCount + " = c.child_count, " + subtreeSize + " = c.subtree_size"
+                        + " FROM " + counts + stale;
+
+        DataSource dataSource = runtimeContext.getService(DataSource.class);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            log.debug(sql);
+            if (byTenant) {
+                statement.setObject(1, tenantId);
+            }
+            if (!dryRun) {
+                return statement.executeLargeUpdate();
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        } catch (SQLException e) {
+            log.error("Failed to recount hierarchy counters of {}", node.getTableName(), e);
+            throw new BusinessException(ErrorCode.DATABASE_ERROR,
+                                        "Failed to recount hierarchy counters of " + node.getTableName());
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static String column(EntityMetadata entityMetadata, String property) {
+        return entityMetadata.getColumnNotNull(property).getName();
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,26 @@
+package com.lonbon.cloud.base.service;
+
+import com.easy.query.core.proxy.ProxyEntity;
+
+/**
+ * 层级结构扩展
+ * <p>
+ * 层级存储方式的统一入口，同时作为实体创建拦截器维护层级数据。
+ * 目前有两种实现，可按实体在 Service 构造时选择：
+ * <ul>
+ *     <li>{@link ClosureExtension}：闭包表，查询最快，存储为 O(节点数 × 深度)</li>
+ *     <li>{@link MaterializedPathExtension}：物化路径，存储为 O(节点数)，移动节点需要改写整棵子树的路径</li>
+ * </ul>
+ * Service 中以该类型声明字段时，{@link EntityServiceImpl} 会自动将其收集为拦截器。
+ * </p>
+ *
+ * @param <T>      实体类型
+ * @param <TProxy> 实体代理类型
+ * @param <U>      闭包实体类型，物化路径实现中不使用
+ * @param <UProxy> 闭包实体代理类型，物化路径实现中不使用
+ * @author lonbon
+ * @since 1.0.0
+ */
+public interface HierarchyExtension<T, TProxy extends ProxyEntity<TProxy, T>, U, UProxy extends ProxyEntity<UProxy, U>>
+        extends ClosureOperation<T, TProxy, U, UProxy>, EntityServiceInterceptor<T> {
+}
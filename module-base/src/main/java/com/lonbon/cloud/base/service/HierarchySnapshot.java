@@ -0,0 +1,276 @@
+package com.lonbon.cloud.base.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 层级结构快照
+ * <p>
+ * 根据闭包表中 {@code distance <= 1} 的记录（自引用记录 + 父子记录）构建的不可变树结构，
+ * 节点按先序遍历（Euler tour）顺序存放在紧凑数组中，每个节点对应一个区间 {@code [enter, exit)}，
+ * 其子树中的所有节点恰好位于该区间内：
+ * <ul>
+ *     <li>祖先/后代判断：比较区间端点，O(1)</li>
+ *     <li>所有后代：区间内的连续片段，O(子树大小)</li>
+ *     <li>所有祖先：沿父节点数组向上，O(深度)</li>
+ * </ul>
+ * 快照一经构建不再修改，可被多个线程安全地共享；层级变化时由 {@link ClosureExtension} 整体替换。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Slf4j
+public final class HierarchySnapshot {
+
+    /**
+     * 构建快照时使用的版本号
+     */
+    private final long version;
+
+    /**
+     * 先序遍历顺序的节点ID
+     */
+    private final UUID[] order;
+
+    /**
+     * 节点ID到先序位置的映射，位置即区间起点 enter
+     */
+    private final Map<UUID, Integer> positions;
+
+    /**
+     * 每个位置的子树区间终点 exit（不包含）
+     */
+    private final int[] exits;
+
+    /**
+     * 每个位置的父节点位置，根节点为 -1
+     */
+    private final int[] parents;
+
+    /**
+     * 每个位置的层级深度，根节点为 0
+     */
+    private final int[] depths;
+
+    private HierarchySnapshot(long version, UUID[] order, Map<UUID, Integer> positions, int[] exits, int[] parents,
+                              int[] depths) {
+        this.version = version;
+        this.order = order;
+        this.positions = positions;
+        this.exits = exits;
+        this.parents = parents;
+        this.depths = depths;
+    }
+
+    /**
+     * 根据闭包记录构建快照
+     * <p>
+     * 只使用 {@code distance = 0} 的记录确定节点集合、{@code distance = 1} 的记录确定父子关系，其余记录忽略。
+     * 同一父节点下的子节点按ID排序（UUIDv7 即创建顺序），保证相同数据构建出的快照一致。
+     * 无法从任何根节点到达的节点（数据损坏导致的环）会被记录日志并忽略。
+     * </p>
+     *
+     * @param version  快照版本号
+     * @param closures 闭包记录
+     * @return 层级结构快照
+     */
+    public static HierarchySnapshot build(long version, Collection<? extends ClosureEntity> closures) {
+        Map<UUID, UUID> parentOf = new HashMap<>(closures.size() * 2);
+        List<UUID> nodes = new ArrayList<>();
+        for (ClosureEntity closure : closures) {
+            if (closure.getDistance() == 0) {
+                nodes.add(closure.getDescendantId());
+            } else if (closure.getDistance() == 1) {
+                parentOf.put(closure.getDescendantId(), closure.getAncestorId());
+            }
+        }
+        nodes.sort(Comparator.naturalOrder());
+
+        Map<UUID, List<UUID>> childrenOf = new HashMap<>(nodes.size() * 2);
+        List<UUID> roots = new ArrayList<>();
+        for (UUID node : nodes) {
+            UUID parent = parentOf.get(node);
+            if (parent == null) {
+                roots.add(node);
+            } else {
+                childrenOf.computeIfAbsent(parent, k -> new ArrayList<>()).add(node);
+            }
+        }
+
+        int size = nodes.size();
+        UUID[] order = new UUID[size];
+        Map<UUID, Integer> positions = new HashMap<>(size * 2);
+        int[] exits = new int[size];
+        int[] parents = new int[size];
+        int[] depths = new int[size];
+
+        // 迭代式先序遍历，避免深层级时栈溢出；节点出栈时才分配位置，保证子树在数组中连续
+        int next = 0;
+        Deque<Visit> stack = new ArrayDeque<>();
+        for (UUID root : roots) {
+            stack.push(new Visit(root, -1));
+            while (!stack.isEmpty()) {
+                Visit visit = stack.pop();
+                UUID id = visit.id();
+                if (id == null) {
+                    exits[visit.pos()] = next;
+                    continue;
+                }
+                if (positions.containsKey(id)) {
+                    continue;
+                }
+                int pos = next++;
+                order[pos] = id;
+                positions.put(id, pos);
+                parents[pos] = visit.pos();
+                depths[pos] = visit.pos() < 0 ? 0 : depths[visit.pos()] + 1;
+                stack.push(new Visit(null, pos));
+                List<UUID> children = childrenOf.getOrDefault(id, List.of());
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(new Visit(children.get(i), pos));
+                }
+            }
+        }
+
+        if (next < size) {
+            log.warn("hierarchy snapshot skipped {} unreachable nodes, closure table may be corrupted", size - next);
+        }
+
+        return new HierarchySnapshot(version, Arrays.copyOf(order, next), positions, Arrays.copyOf(exits, next),
+                                     Arrays.copyOf(parents, next), Arrays.copyOf(depths, next));
+    }
+
+    /**
+     * 获取快照版本号
+     *
+     * @return 版本号
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 节点数量
+     *
+     * @return 节点数量
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * 是否包含节点
+     *
+     * @param id 节点ID
+     * @return 是否包含
+     */
+    public boolean contains(UUID id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * 判断 descendantId 是否为 ancestorId 的后代（不包含自身）
+     *
+     * @param ancestorId   祖先节点ID
+     * @param descendantId 后代节点ID
+     * @return 是否为后代
+     */
+    public boolean isDescendant(UUID ancestorId, UUID descendantId) {
+        Integer a = positions.get(ancestorId);
+        Integer d = positions.get(descendantId);
+        return a != null && d != null && a < d && d < exits[a];
+    }
+
+    /**
+     * 获取节点层级深度
+     *
+     * @param id 节点ID
+     * @return 层级深度，根节点为0，节点不存在时为-1
+     */
+    public int getDepth(UUID id) {
+        Integer pos = positions.get(id);
+        return pos != null ? depths[pos] : -1;
+    }
+
+    /**
+     * 获取直接父节点ID
+     *
+     * @param id 节点ID
+     * @return 父节点ID，根节点或节点不存在时为 null
+     */
+    public @Nullable UUID getParentId(UUID id) {
+        Integer pos = positions.get(id);
+        if (pos == null || parents[pos] < 0) {
+            return null;
+        }
+        return order[parents[pos]];
+    }
+
+    /**
+     * 获取直接子节点ID
+     *
+     * @param id 节点ID
+     * @return 直接子节点ID列表，节点不存在时为空列表
+     */
+    public List<UUID> getChildIds(UUID id) {
+        Integer pos = positions.get(id);
+        if (pos == null) {
+            return List.of();
+        }
+        List<UUID> children = new ArrayList<>();
+        for (int child = pos + 1; child < exits[pos]; child = exits[child]) {
+            children.add(order[child]);
+        }
+        return children;
+    }
+
+    /**
+     * 获取所有后代节点ID（不包含自身），按先序遍历顺序
+     *
+     * @param id 节点ID
+     * @return 后代节点ID列表，节点不存在时为空列表
+     */
+    public List<UUID> getDescendantIds(UUID id) {
+        Integer pos = positions.get(id);
+        if (pos == null) {
+            return List.of();
+        }
+        return List.of(Arrays.copyOfRange(order, pos + 1, exits[pos]));
+    }
+
+    /**
+     * 获取所有祖先节点ID（不包含自身），从直接父节点到根节点
+     *
+     * @param id 节点ID
+     * @return 祖先节点ID列表，节点不存在时为空列表
+     */
+    public List<UUID> getAncestorIds(UUID id) {
+        Integer pos = positions.get(id);
+        if (pos == null) {
+            return List.of();
+        }
+        List<UUID> ancestors = new ArrayList<>(depths[pos]);
+        for (int p = parents[pos]; p >= 0; p = parents[p]) {
+            ancestors.add(order[p]);
+        }
+        return ancestors;
+    }
+
+    /**
+     * 遍历栈中的元素：id 不为空时表示进入节点，pos 为父节点位置；id 为空时表示离开节点，pos 为该节点位置
+     */
+    private record Visit(@Nullable UUID id, int pos) {
+    }
+}
@@ -0,0 +1,557 @@
+package com.lonbon.cloud.base.service;
+
+import com.easy.query.core.proxy.AbstractProxyEntity;
+import com.easy.query.core.proxy.ProxyEntity;
+import com.easy.query.core.proxy.ProxyEntityAvailable;
+import com.easy.query.core.proxy.core.draft.Draft1;
+import com.easy.query.core.proxy.sql.GroupKeys;
+import com.easy.query.core.proxy.sql.Select;
+import com.lonbon.cloud.base.dto.DistanceRange;
+import com.lonbon.cloud.base.dto.LazyTreeNode;
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.dto.TreeNode;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.UUIDPrimaryKeyGenerator;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.base.repository.BulkOptions;
+import com.lonbon.cloud.base.repository.IdPredicates;
+import com.lonbon.cloud.base.repository.Repository;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 物化路径层级扩展
+ * <p>
+ * 以实体自身的 path 列（{@code /rootId/.../selfId/}）和 depth 列存储层级结构，不需要额外的闭包表，
+ * 存储量为 O(节点数)，适合层级很深、闭包表行数远大于实体表的场景：
+ * <ul>
+ *     <li>后代查询：{@code path LIKE 'prefix%'}，依赖 path 列的前缀索引</li>
+ *     <li>祖先查询：直接解析 path 中的ID，按ID批量查询</li>
+ *     <li>移动节点：一条UPDATE改写整棵子树的 path 前缀和 depth，代价与子树大小成正比</li>
+ * </ul>
+ * 与 {@link ClosureExtension} 实现同一个 {@link ClosureOperation} 接口，可在 Service 构造时按实体选择。
+ * 与 {@link ClosureExtension} 一样不是 Spring Bean，事务由调用方提供。
+ * </p>
+ * <p>
+ * 使用示例：
+ * <pre>{@code
+ * this.hierarchyExtension = new MaterializedPathExtension<>(repository);
+ * }</pre>
+ * </p>
+ *
+ * @param <T>      实体类型
+ * @param <TProxy> 实体代理类型
+ * @param <U>      闭包实体类型，本实现中不使用，仅用于与 {@link ClosureOperation} 的类型参数保持一致
+ * @param <UProxy> 闭包实体代理类型，本实现中不使用
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Slf4j
+public class MaterializedPathExtension<T extends ProxyEntityAvailable<T, TProxy> & PathAvailable,
+        TProxy extends AbstractProxyEntity<TProxy, T>, U, UProxy extends ProxyEntity<UProxy, U>>
+        implements HierarchyExtension<T, TProxy, U, UProxy> {
+
+    /**
+     * 路径分隔符
+     */
+    public static final String SEPARATOR = "/";
+
+    /**
+     * 实体字段常量，用于构建路径查询条件
+     */
+    static final String ID = BaseEntity.Fields.id;
+    static final String PARENT_ID = "parentId";
+    static final String PATH = "path";
+    static final String DEPTH = "depth";
+
+    /**
+     * 主实体仓库
+     */
+    private final Repository<T, TProxy> entityRepository;
+
+    /**
+     * 同级节点的排序列，为空时同级节点只按ID排序
+     */
+    private @Nullable String sortColumn;
+
+    /**
+     * 读取实体排序值的函数，与 {@link #sortColumn} 对应
+     */
+    private @Nullable Function<T, @Nullable Object> sortKey;
+
+    public MaterializedPathExtension(Repository<T, TProxy> entityRepository) {
+        this.entityRepository = entityRepository;
+    }
+
+    /**
+     * 创建实体之后，根据父节点的路径写入自身的 path 和 depth
+     */
+    @Override
+    public void postCreate(T entity) {
+        UUID id = entity.getId();
+        if (id == null) {
+            log.error("entity id is null when post create entity: {}", entity);
+            return;
+        }
+
+        UUID parentId = entity.getParentId();
+        String path;
+        int depth;
+        if (parentId == null) {
+            path = SEPARATOR + id + SEPARATOR;
+            depth = 0;
+        } else {
+            T parent = getNode(parentId, "Parent entity not found, ID: ");
+            path = pathOf(parent) + id + SEPARATOR;
+            depth = depthOf(parent) + 1;
+        }
+
+        entityRepository.updateById(id, t -> {
+            t.anyColumn(PATH).set(path);
+            t.anyColumn(DEPTH).set(depth);
+        });
+        entity.setPath(path);
+        entity.setDepth(depth);
+    }
+
+    /**
+     * 批量导入一棵或多棵树
+     * <p>
+     * 预先分配主键，在内存中按拓扑顺序推导每个节点的 path 和 depth，实体以一次批量插入写入。
+     * </p>
+     */
+    @Override
+    public List<T> importTree(@Nullable UUID parentId, List<TreeImportNode<T>> nodes) {
+        if (nodes.isEmpty()) {
+            return List.of();
+        }
+
+        List<TreeImportNode<T>> ordered = ClosureExtension.sortForImport(nodes);
+        String mountPath = SEPARATOR;
+        int mountDepth = -1;
+        if (parentId != null) {
+            T parent = getNode(parentId, "Parent entity not found, ID: ");
+            mountPath = pathOf(parent);
+            mountDepth = depthOf(parent);
+        }
+
+        Map<String, T> entitiesByKey = new HashMap<>(ordered.size() * 2);
+        List<T> entities = new ArrayList<>(ordered.size());
+        for (TreeImportNode<T> node : ordered) {
+            T entity = node.getData();
+            UUID id = UUIDPrimaryKeyGenerator.nextId();
+            entity.setId(id);
+
+            String parentKey = node.getParentKey();
+            T parent = parentKey != null ? entitiesByKey.get(parentKey) : null;
+            if (parent != null) {
+                entity.setParentId(Objects.requireNonNull(parent.getId()));
+                entity.setPath(pathOf(parent) + id + SEPARATOR);
+                entity.setDepth(depthOf(parent) + 1);
+            } else {
+                if (parentId != null) {
+                    entity.setParentId(parentId);
+                }
+                entity.setPath(mountPath + id + SEPARATOR);
+                entity.setDepth(mountDepth + 1);
+            }
+
+            entitiesByKey.put(node.getKey(), entity);
+            entities.add(entity);
+        }
+
+        entityRepository.bulkInsert(entities, BulkOptions.DEFAULT);
+        log.info("imported {} nodes", entities.size());
+        return entities;
+    }
+
+    @Override
+    public List<T> getDirectChildren(UUID parentId) {
+        return entityRepository.getAll(t -> t.anyColumn(PARENT_ID).eq(parentId));
+    }
+
+    @Override
+    public List<T> getRoots() {
+        return ClosureExtension.queryChildren(entityRepository, null, null, sortColumn, sortKey, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 分页查询一层子节点
+     * <p>
+     * 是否存在子节点通过对本页节点执行一次 parent_id 分组统计得到。
+     * </p>
+     */
+    @Override
+    public List<LazyTreeNode<T>> getChildren(@Nullable UUID parentId, @Nullable UUID cursor, int limit) {
+        List<T> children = ClosureExtension.queryChildren(entityRepository, parentId, cursor, sortColumn, sortKey, limit);
+        if (children.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> ids = children.stream().map(T::getId).filter(Objects::nonNull).toList();
+        Set<Object> parents = entityRepository.queryable()
+                                              .where(t -> idIn(t, PARENT_ID, ids))
+                                              .groupBy(t -> GroupKeys.of(t.anyColumn(PARENT_ID)))
+                                              .select(g -> Select.DRAFT.of(g.key1()))
+                                              .toList()
+                                              .stream()
+                                              .map(Draft1::getValue1)
+                                              .collect(Collectors.toSet());
+        return children.stream().map(child -> new LazyTreeNode<>(child, parents.contains(child.getId()))).toList();
+    }
+
+    @Override
+    public List<T> getDescendants(UUID parentId) {
+        Optional<T> parent = entityRepository.getById(parentId);
+        if (parent.isEmpty()) {
+            return List.of();
+        }
+
+        String prefix = pathOf(parent.get());
+        return entityRepository.queryable()
+                               .where(t -> {
+                                   t.anyColumn(PATH).startsWith(prefix);
+                                   t.anyColumn(ID).ne(parentId);
+                               })
+                               .orderBy(t -> {
+                                   t.anyColumn(DEPTH).asc();
+                                   t.anyColumn(ID).asc();
+                               })
+                               .toList();
+    }
+
+    /**
+     * 分页查询后代节点
+     * <p>
+     * 距离即 depth 之差，按 (depth, id) 排序并使用键集分页。
+     * </p>
+     */
+    @Override
+    public List<T> getDescendants(UUID parentId, DistanceRange distanceRange, @Nullable UUID afterId, int limit) {
+        int minDistance = distanceRange.getMin();
+        Integer maxDistance = distanceRange.getMax();
+        if (minDistance < 0 || (maxDistance != null && maxDistance < minDistance)) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Invalid distance range: " + distanceRange);
+        }
+        if (limit <= 0) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "limit must be positive: " + limit);
+        }
+
+        T parent = getNode(parentId, "Node not found, ID: ");
+        String prefix = pathOf(parent);
+        int baseDepth = depthOf(parent);
+
+        Integer afterDepth = null;
+        if (afterId != null) {
+            T after = entityRepository.getById(afterId)
+                                      .filter(a -> pathOf(a).startsWith(prefix))
+                                      .orElseThrow(() -> new BusinessException(ErrorCode.INVALID_PARAMETER,
+                                                                               "afterId is not a descendant of the parent node: " + afterId));
+            afterDepth = depthOf(after);
+        }
+        Integer cursorDepth = afterDepth;
+
+        return entityRepository.queryable()
+                               .where(t -> {
+                                   t.anyColumn(PATH).startsWith(prefix);
+                                   t.anyColumn(DEPTH).ge(baseDepth + minDistance);
+                                   if (maxDistance != null) {
+                                       t.anyColumn(DEPTH).le(baseDepth + maxDistance);
+                                   }
+                                   if (cursorDepth != null) {
+                                       t.or(() -> {
+                                           t.anyColumn(DEPTH).gt(cursorDepth);
+                                           t.and(() -> {
+                                               t.anyColumn(DEPTH).eq(cursorDepth);
+                                               t.anyColumn(ID).gt(afterId);
+                                           });
+                                       });
+                                   }
+                               })
+                               .orderBy(t -> {
+                                   t.anyColumn(DEPTH).asc();
+                                   t.anyColumn(ID).asc();
+                               })
+                               .limit(limit)
+                               .toList();
+    }
+
+    /**
+     * 判断 descendantId 是否为 ancestorId 的后代：后代的 path 中包含祖先ID，以 {@code SELECT 1 ... LIMIT 1} 查询
+     */
+    @Override
+    public boolean isDescendant(UUID ancestorId, UUID descendantId) {
+        if (ancestorId.equals(descendantId)) {
+            return false;
+        }
+        return entityRepository.exists(t -> {
+            t.anyColumn(ID).eq(descendantId);
+            t.anyColumn(PATH).like(SEPARATOR + ancestorId + SEPARATOR);
+        });
+    }
+
+    @Override
+    public Optional<T> getDirectParent(UUID childId) {
+        return entityRepository.getById(childId)
+                               .map(PathAvailable::getParentId)
+                               .flatMap(entityRepository::getById);
+    }
+
+    /**
+     * 查询所有祖先节点
+     * <p>
+     * 祖先ID直接从 path 中解析，只需一次按ID批量查询，结果从直接父节点到根节点排列。
+     * </p>
+     */
+    @Override
+    public List<T> getAllAncestors(UUID childId) {
+        Optional<T> child = entityRepository.getById(childId);
+        if (child.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> ancestorIds = ancestorIdsOf(child.get()).reversed();
+        Map<UUID, T> ancestors = loadByIds(ancestorIds);
+        return ancestorIds.stream().map(ancestors::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public Map<UUID, List<T>> getAncestorPaths(Collection<UUID> nodeIds) {
+        if (nodeIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, T> nodes = loadByIds(nodeIds);
+        Map<UUID, List<UUID>> pathIds = new LinkedHashMap<>(nodes.size() * 2);
+        Set<UUID> ancestorIds = new HashSet<>();
+        for (UUID nodeId : nodeIds) {
+            T node = nodes.get(nodeId);
+            if (node != null) {
+                List<UUID> ids = ancestorIdsOf(node);
+                pathIds.put(nodeId, ids);
+                ancestorIds.addAll(ids);
+            }
+        }
+
+        Map<UUID, T> ancestors = loadByIds(ancestorIds);
+        Map<UUID, List<T>> paths = new LinkedHashMap<>(pathIds.size() * 2);
+        pathIds.forEach((nodeId, ids) -> paths.put(nodeId, ids.stream()
+                                                                .map(ancestors::get)
+                                                                .filter(Objects::nonNull)
+                                                                .toList()));
+        return paths;
+    }
+
+    /**
+     * 移动节点（连同整棵子树）到新的父节点下
+     * <p>
+     * 以一条UPDATE语句把子树中所有节点的 path 前缀从旧路径替换为新路径，并按层级差调整 depth。
+     * </p>
+     */
+    @Override
+    public T moveNode(UUID nodeId, UUID newParentId) {
+        T node = getNode(nodeId, "Node not found, ID: ");
+        T newParent = getNode(newParentId, "New parent not found, ID: ");
+
+        String oldPrefix = pathOf(node);
+        String newParentPath = pathOf(newParent);
+        if (newParentPath.startsWith(oldPrefix)) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Cannot move node to its own descendant");
+        }
+
+        String newPrefix = newParentPath + nodeId + SEPARATOR;
+        int depthDelta = depthOf(newParent) + 1 - depthOf(node);
+        int suffixStart = oldPrefix.length() + 1;
+
+        long rows = entityRepository.updateAll(t -> {
+            t.anyColumn(PATH).set(t.expression().sqlSegment("CONCAT({0}, SUBSTRING({1}, {2}))",
+                                                            c -> c.value(newPrefix).expression(t.anyColumn(PATH))
+                                                                  .value(suffixStart), String.class));
+            t.anyColumn(DEPTH).set(t.expression().sqlSegment("{0} + {1}",
+                                                             c -> c.expression(t.anyColumn(DEPTH)).value(depthDelta),
+                                                             Integer.class));
+        }, t -> t.anyColumn(PATH).startsWith(oldPrefix));
+        entityRepository.updateById(nodeId, t -> t.anyColumn(PARENT_ID).set(newParentId));
+        log.info("moved subtree of node {} to parent {}: {} paths rewritten", nodeId, newParentId, rows);
+
+        node.setParentId(newParentId);
+        node.setPath(newPrefix);
+        node.setDepth(depthOf(node) + depthDelta);
+        return node;
+    }
+
+    /**
+     * 删除节点及其所有子节点，以一条按路径前缀匹配的逻辑删除语句完成
+     */
+    @Override
+    public SubtreeDeleteResult deleteSubtree(UUID nodeId) {
+        String prefix = pathOf(getNode(nodeId, "Node not found, ID: "));
+        long entityRows = entityRepository.deleteAll(t -> t.anyColumn(PATH).startsWith(prefix));
+        log.info("deleted subtree of node {}: {} entities", nodeId, entityRows);
+        return new SubtreeDeleteResult(entityRows, 0);
+    }
+
+    @Override
+    public TreeNode<T> getTree(UUID rootId) {
+        return getTree(rootId, ClosureExtension.DEFAULT_TREE_MAX_DEPTH);
+    }
+
+    @Override
+    public TreeNode<T> getTree(UUID rootId, int maxDepth) {
+        if (maxDepth < 0) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "maxDepth must not be negative: " + maxDepth);
+        }
+
+        T root = getNode(rootId, "Root node not found, ID: ");
+        String prefix = pathOf(root);
+        int depthLimit = depthOf(root) + maxDepth;
+        List<T> nodes = entityRepository.getAll(t -> {
+            t.anyColumn(PATH).startsWith(prefix);
+            t.anyColumn(DEPTH).le(depthLimit);
+        });
+        return ClosureExtension.buildTree(rootId, nodes, ClosureExtension.siblingOrder(sortKey));
+    }
+
+    /**
+     * 根据 parentId 校验并修复 path 和 depth
+     * <p>
+     * 从根节点出发按层遍历，path 或 depth 与 parentId 推导结果不一致的节点逐个修正。
+     * 结果中 missingRows 为未设置 path 的节点数，staleRows 为 path 或 depth 错误的节点数。
+     * </p>
+     */
+    @Override
+    public ClosureRebuildResult rebuildClosure(boolean dryRun) {
+        long start = System.nanoTime();
+        ClosureRebuildResult result = new ClosureRebuildResult();
+        result.setDryRun(dryRun);
+
+        List<T> level = entityRepository.getAll(t -> t.anyColumn(PARENT_ID).isNull());
+        result.setRoots(level.size());
+        Map<UUID, String> levelPaths = new HashMap<>();
+        for (T root : level) {
+            levelPaths.put(Objects.requireNonNull(root.getId()), SEPARATOR);
+        }
+
+        int depth = 0;
+        while (!level.isEmpty()) {
+            Map<UUID, String> nextPaths = new HashMap<>(level.size() * 2);
+            for (T node : level) {
+                UUID id = Objects.requireNonNull(node.getId());
+                String parentPath = levelPaths.get(id);
+                if (parentPath == null || parentPath.contains(SEPARATOR + id + SEPARATOR)) {
+                    log.warn("path rebuild skipped node {} with invalid parent {}", id, node.getParentId());
+                    continue;
+                }
+                String path = parentPath + id + SEPARATOR;
+                int expectedDepth = depth;
+                result.setNodes(result.getNodes() + 1);
+                result.setExpectedRows(result.getExpectedRows() + 1);
+                if (!path.equals(node.getPath()) || !Integer.valueOf(expectedDepth).equals(node.getDepth())) {
+                    if (node.getPath() == null) {
+                        result.setMissingRows(result.getMissingRows() + 1);
+                    } else {
+                        result.setStaleRows(result.getStaleRows() + 1);
+                    }
+                    if (!dryRun) {
+                        entityRepository.updateById(id, t -> {
+                            t.anyColumn(PATH).set(path);
+                            t.anyColumn(DEPTH).set(expectedDepth);
+                        });
+                    }
+                }
+                nextPaths.put(id, path);
+            }
+
+            Set<UUID> parentIds = nextPaths.keySet();
+            level = parentIds.isEmpty() ? List.of()
+                                        : entityRepository.getAll(t -> idIn(t, PARENT_ID, parentIds));
+            levelPaths = new HashMap<>(level.size() * 2);
+            for (T child : level) {
+                levelPaths.put(Objects.requireNonNull(child.getId()), nextPaths.get(child.getParentId()));
+            }
+            depth++;
+        }
+
+        result.setUnreachableNodes(Math.max(0, entityRepository.count() - result.getNodes()));
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        log.info("path rebuild finished: {}", result);
+        return result;
+    }
+
+    /**
+     * 设置同级节点的排序列
+     *
+     * @param sortColumn 排序列（实体属性名）
+     * @param sortKey    读取实体排序值的函数
+     */
+    public void setSortColumn(String sortColumn, Function<T, @Nullable Object> sortKey) {
+        this.sortColumn = sortColumn;
+        this.sortKey = sortKey;
+    }
+
+    /**
+     * 查询节点，不存在时抛出资源不存在异常
+     */
+    private T getNode(UUID id, String message) {
+        return entityRepository.getById(id).orElseThrow(
+                () -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, message + id));
+    }
+
+    /**
+     * 获取节点路径，未初始化时提示执行重建
+     */
+    private String pathOf(T node) {
+        String path = node.getPath();
+        if (path == null) {
+            throw new BusinessException(ErrorCode.DATABASE_ERROR, "Path is not initialized, ID: " + node.getId());
+        }
+        return path;
+    }
+
+    private int depthOf(T node) {
+        Integer depth = node.getDepth();
+        return depth != null ? depth : 0;
+    }
+
+    /**
+     * 从路径中解析祖先ID，从根节点到直接父节点，不包含自身
+     */
+    private List<UUID> ancestorIdsOf(T node) {
+        String[] segments = pathOf(node).split(SEPARATOR);
+        List<UUID> ids = new ArrayList<>(segments.length);
+        for (int i = 1; i < segments.length - 1; i++) {
+            ids.add(UUID.fromString(segments[i]));
+        }
+        return ids;
+    }
+
+    private Map<UUID, T> loadByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return entityRepository.getAllByIds(ids).stream()
+                               .collect(Collectors.toMap(t -> Objects.requireNonNull(t.getId()), Function.identity()));
+    }
+
+    /**
+     * 添加“实体属性值属于ID集合”的条件，按实体仓库配置的阈值选择 IN 或数组参数
+     */
+    private void idIn(TProxy t, String property, Collection<UUID> ids) {
+        IdPredicates.in(t, property, ids, entityRepository.getIdArrayThreshold());
+    }
+}
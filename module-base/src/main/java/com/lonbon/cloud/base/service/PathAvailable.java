@@ -0,0 +1,25 @@
+package com.lonbon.cloud.base.service;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * 物化路径实体接口
+ * <p>
+ * 使用 {@link MaterializedPathExtension} 存储层级结构的实体需要提供 path 和 depth 两列：
+ * path 为从根节点到自身的ID序列，格式为 {@code /rootId/.../selfId/}；depth 为层级深度，根节点为0。
+ * path 列需要建立支持前缀匹配的索引（PostgreSQL 中为 {@code text_pattern_ops} 的 btree 索引）。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+public interface PathAvailable extends HierarchyAvailable {
+
+    @Nullable String getPath();
+
+    void setPath(String path);
+
+    @Nullable Integer getDepth();
+
+    void setDepth(Integer depth);
+}
@@ -0,0 +1,28 @@
+package com.lonbon.cloud.base.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 子树删除结果
+ * <p>
+ * 记录批量删除子树时，实体表与闭包表各自受影响的行数。
+ * </p>
+ *
+ * @author lonbon
+ * @since 1.0.0
+ */
+@Data
+@AllArgsConstructor
+public class SubtreeDeleteResult {
+
+    /**
+     * 被逻辑删除的实体行数
+     */
+    private long entityRows;
+
+    /**
+     * 被删除的闭包记录行数
+     */
+    private long closureRows;
+}
@@ -4,14 +4,29 @@ import com.easy.query.api.proxy.client.EasyEntityQuery;
 import com.easy.query.core.annotation.Table;
 import com.easy.query.core.basic.api.database.CodeFirstCommand;
 import com.easy.query.core.basic.api.database.DatabaseCodeFirst;
+import com.easy.query.core.context.QueryRuntimeContext;
+import com.easy.query.core.metadata.EntityMetadata;
+import com.easy.query.core.metadata.EntityMetadataManager;
+import com.easy.query.core.migration.DatabaseMigrationProvider;
+import com.lonbon.cloud.base.entity.IndexSyncResult;
 import com.lonbon.cloud.base.entity.MigrationEntityParser;
+import com.lonbon.cloud.base.entity.MyDatabaseMigrationProvider;
+import com.lonbon.cloud.base.entity.TableIndex;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.util.ClassUtils;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -19,6 +34,16 @@ import java.util.Set;
 @Slf4j
 public class SystemService {
 
+    /**
+     * 查询表上已有的列，表不存在时结果为空
+     */
+    private static final String EXISTING_COLUMNS_SQL = """
+            SELECT column_name
+            FROM information_schema.columns
+            WHERE table_schema = current_schema()
+              AND table_name = ?
+            """;
+
     protected final EasyEntityQuery easyEntityQuery;
 
     protected final List<Class<?>> entities;
@@ -54,11 +79,108 @@ public class SystemService {
 
     public void syncTable() {
         easyEntityQuery.setMigrationParser(new MigrationEntityParser());
+        // 层级计数列加到已有数据的表上时只能取列默认值，同步后需要由闭包表回填，必须在同步前判断
+        List<Class<?>> counterBackfills = entities.stream().filter(this::isMissingHierarchyCounters).toList();
+
         DatabaseCodeFirst databaseCodeFirst = easyEntityQuery.getDatabaseCodeFirst();
         CodeFirstCommand codeFirstCommand = databaseCodeFirst.syncTableCommand(entities);
         codeFirstCommand.executeWithTransaction(arg -> {
             log.info(arg.getSQL());
             arg.commit();
         });
+        syncIndexes();
+        counterBackfills.forEach(this::backfillHierarchyCounters);
+    }
+
+    /**
+     * 由闭包表回填层级计数
+     * <p>
+     * 以一条 {@code UPDATE ... FROM} 语句按祖先分组统计所有租户的闭包记录，只更新与统计结果不一致的行，
+     * 重复执行是安全的，见 {@link HierarchyCounters}。
+     * 表同步时新增计数列会自动执行一次；之后计数由 {@link ClosureExtension} 在每次写入时增量维护。
+     * </p>
+     *
+     * @param entity 实现了 {@link HierarchyCountAvailable} 和 {@link ClosureAvailable} 的实体类型
+     * @return 更新的行数
+     */
+    public long backfillHierarchyCounters(Class<?> entity) {
+        long updated = HierarchyCounters.recount(easyEntityQuery.getRuntimeContext(), entity, null, false);
+        log.info("Hierarchy counters of {} backfilled, {} rows updated", entity.getSimpleName(), updated);
+        return updated;
+    }
+
+    /**
+     * 判断实体的表已存在但缺少层级计数列
+     * <p>
+     * 表不存在时由同步新建，没有需要回填的数据。
+     * </p>
+     *
+     * @param entity 实体类型
+     * @return 同步后是否需要回填层级计数
+     */
+    private boolean isMissingHierarchyCounters(Class<?> entity) {
+        if (!HierarchyCountAvailable.class.isAssignableFrom(entity)
+                || !ClosureAvailable.class.isAssignableFrom(entity)) {
+            return false;
+        }
+
+        EntityMetadata entityMetadata = easyEntityQuery.getRuntimeContext().getEntityMetadataManager()
+                                                       .getEntityMetadata(entity);
+        DataSource dataSource = easyEntityQuery.getRuntimeContext().getService(DataSource.class);
+        Set<String> existing = new HashSet<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(EXISTING_COLUMNS_SQL)) {
+            statement.setString(1, entityMetadata.getTableName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    existing.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Failed to read columns of table {}", entityMetadata.getTableName(), e);
+            throw new BusinessException(ErrorCode.DATABASE_ERROR,
+                                        "Failed to read columns of table " + entityMetadata.getTableName());
+        }
+        List<String> counters = List.of(column(entityMetadata, ClosureExtension.CHILD_COUNT),
+                                        column(entityMetadata, ClosureExtension.SUBTREE_SIZE));
+        return !existing.isEmpty() && !existing.containsAll(counters);
+    }
+
+    private static String column(EntityMetadata entityMetadata, String property) {
+        return entityMetadata.getColumnNotNull(property).getName();
+    }
+
+    /**
+     * 同步实体上声明的 {@link TableIndex} 索引
+     * <p>
+     * 表结构同步不会创建二级索引，这里按实体解析索引声明，再由 {@link MyDatabaseMigrationProvider}
+     * 与数据库已有索引比对后并发创建缺失的索引。
+     * </p>
+     *
+     * @return 实际执行的建索引语句和创建失败的索引，单个索引失败不影响其余索引
+     */
+    public IndexSyncResult syncIndexes() {
+        QueryRuntimeContext runtimeContext = easyEntityQuery.getRuntimeContext();
+        DatabaseMigrationProvider provider = runtimeContext.getService(DatabaseMigrationProvider.class);
+        if (!(provider instanceof MyDatabaseMigrationProvider migrationProvider)) {
+            log.warn("Index sync skipped, unsupported migration provider: {}", provider.getClass().getName());
+            return IndexSyncResult.EMPTY;
+        }
+
+        MigrationEntityParser parser = new MigrationEntityParser();
+        EntityMetadataManager entityMetadataManager = runtimeContext.getEntityMetadataManager();
+        IndexSyncResult result = IndexSyncResult.EMPTY;
+        for (Class<?> entity : entities) {
+            EntityMetadata entityMetadata = entityMetadataManager.getEntityMetadata(entity);
+            result = result.plus(migrationProvider.syncIndexes(entityMetadata.getTableName(),
+                                                               parser.parseIndexes(entityMetadata)));
+        }
+        if (result.failed().isEmpty()) {
+            log.info("Index sync finished, {} indexes created", result.executed().size());
+        } else {
+            log.warn("Index sync finished, {} indexes created, {} failed: {}", result.executed().size(),
+                     result.failed().size(), result.failed());
+        }
+        return result;
     }
 }
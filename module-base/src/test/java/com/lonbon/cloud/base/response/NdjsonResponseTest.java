@@ -0,0 +1,70 @@
+package com.lonbon.cloud.base.response;
+
+import com.easy.query.core.expression.parser.core.base.WherePredicate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.DefaultEntityInterceptor;
+import com.lonbon.cloud.base.satoken.CallerContext;
+import com.lonbon.cloud.base.satoken.SaTokenHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * NDJSON 流式响应在异步写出线程中的租户隔离
+ */
+class NdjsonResponseTest {
+
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+    private static final UUID TENANT_A = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID TENANT_B = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamOnWriterThreadOnlyReturnsCallerTenant() throws Exception {
+        List<Row> rows = List.of(new Row(TENANT_A, "a1"), new Row(TENANT_B, "b1"), new Row(TENANT_A, "a2"));
+        DefaultEntityInterceptor interceptor = new DefaultEntityInterceptor();
+        WherePredicate<Object> predicate = mock(WherePredicate.class);
+
+        // 请求线程：以租户A的身份构建响应，数据源与仓库查询一样经过实体拦截器的租户过滤
+        ResponseEntity<StreamingResponseBody> response = SaTokenHelper.callWithContext(
+                new CallerContext(USER_ID, TENANT_A), () -> NdjsonResponse.<Row>of(objectMapper, writer -> {
+                    interceptor.configure(Row.class, null, predicate);
+                    UUID tenantId = SaTokenHelper.getCurrentTenantId();
+                    rows.stream().filter(row -> row.tenantId().equals(tenantId)).forEach(writer);
+                }));
+
+        // 写出线程：与 Servlet 异步线程一样没有任何调用方上下文
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                Objects.requireNonNull(response.getBody()).writeTo(out);
+                return null;
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().filter(line -> !line.isBlank()).toList();
+        assertThat(lines).hasSize(2).allMatch(line -> line.contains(TENANT_A.toString()));
+        verify(predicate).eq(BaseEntity.Fields.tenantId, TENANT_A);
+    }
+
+    private record Row(UUID tenantId, String name) {
+    }
+}
@@ -1,6 +1,15 @@
 package com.lonbon.cloud.user.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lonbon.cloud.base.dto.DistanceRange;
+import com.lonbon.cloud.base.dto.LazyTreeNode;
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.dto.TreeNode;
+import com.lonbon.cloud.base.response.NdjsonRequest;
+import com.lonbon.cloud.base.response.NdjsonResponse;
 import com.lonbon.cloud.base.response.Response;
+import com.lonbon.cloud.base.response.VersionTag;
+import com.lonbon.cloud.base.service.ClosureRebuildResult;
 import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
 import com.lonbon.cloud.user.domain.dto.DepartmentUpdateDTO;
 import com.lonbon.cloud.user.domain.entity.Department;
@@ -8,13 +17,21 @@ import com.lonbon.cloud.user.domain.service.DepartmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,11 +53,26 @@ import java.util.UUID;
 @Tag(name = "部门", description = "部门操作")
 public class DepartmentController {
 
+    /**
+     * 流式导出时每批从数据库读取的行数
+     */
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
     /**
      * 部门服务
      */
     private final DepartmentService departmentService;
 
+    /**
+     * JSON 序列化工具，用于流式导出
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Bean Validation 校验器，用于校验 NDJSON 请求体中的每一行
+     */
+    private final Validator validator;
+
     /**
      * 创建部门
      *
@@ -54,6 +86,60 @@ public class DepartmentController {
         return Response.success(createdDepartment.getId(), "Department created successfully");
     }
 
+    /**
+     * 批量创建部门
+     * <p>
+     * 所有部门在一个事务中批量插入，任意一项失败时全部回滚。
+     * 部门ID由服务端生成，parentId 只能引用已存在的部门；需要同时创建上下级部门时使用 {@code /import}。
+     * </p>
+     *
+     * @param departments 部门创建DTO列表
+     * @return 按请求顺序排列的已创建部门ID
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "批量创建", description = "批量创建部门，请求体为 JSON 数组")
+    public Response<List<UUID>> createAll(@RequestBody @NotNull List<@Valid DepartmentCreateDTO> departments) {
+        List<Department> created = departmentService.createEntities(departments);
+        return Response.success(created.stream().map(Department::getId).toList(), "Departments created successfully");
+    }
+
+    /**
+     * 以 NDJSON 请求体批量创建部门
+     * <p>
+     * 请求体每行一个部门创建DTO，逐行解析校验后与 JSON 数组形式一样在一个事务中批量插入。
+     * </p>
+     *
+     * @param body 请求体
+     * @return 按请求顺序排列的已创建部门ID
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "批量创建（NDJSON）", description = "批量创建部门，请求体每行一个 JSON 对象")
+    public Response<List<UUID>> createAllNdjson(InputStream body) {
+        List<DepartmentCreateDTO> departments = NdjsonRequest.read(objectMapper, validator, body, DepartmentCreateDTO.class);
+        List<Department> created = departmentService.createEntities(departments);
+        return Response.success(created.stream().map(Department::getId).toList(), "Departments created successfully");
+    }
+
+    /**
+     * 批量导入部门树
+     * <p>
+     * 请求体为以 key/parentKey 链接的节点列表，parentKey 为空的节点挂到 parentId 指定的部门下，
+     * 所有节点的层级关系在一个事务中一次性写入。
+     * </p>
+     *
+     * @param parentId 挂载点部门ID，不传时顶层部门作为根节点
+     * @param nodes    导入节点列表
+     * @return 按拓扑顺序排列的已导入部门ID
+     */
+    @PostMapping("/import")
+    @Operation(summary = "批量导入", description = "批量导入部门树")
+    public Response<List<UUID>> importTree(
+            @Parameter(description = "挂载点部门ID") @RequestParam(required = false) UUID parentId,
+            @RequestBody @NotNull List<TreeImportNode<DepartmentCreateDTO>> nodes) {
+        List<Department> imported = departmentService.importDepartments(parentId, nodes);
+        return Response.success(imported.stream().map(Department::getId).toList(), "Department tree imported successfully");
+    }
+
     /**
      * 删除部门
      *
@@ -72,13 +158,17 @@ public class DepartmentController {
      *
      * @param id         部门ID
      * @param department 部门更新DTO
-     * @return 更新成功的部门ID
+     * @param ifMatch    If-Match 请求头，期望的版本号
+     * @return 更新成功的部门ID，响应头 ETag 为更新后的版本号
      */
     @PostMapping("/{id}/update")
-    @Operation(summary = "更新", description = "更新部门")
-    public Response<UUID> update(@PathVariable("id") UUID id, @RequestBody @Validated DepartmentUpdateDTO department) {
-        departmentService.updateEntity(id, department);
-        return Response.success(id, "Department updated successfully");
+    @Operation(summary = "更新", description = "更新部门，只写入非空字段，带 If-Match 时校验版本")
+    public ResponseEntity<Response<UUID>> update(
+            @PathVariable("id") UUID id, @RequestBody @Validated DepartmentUpdateDTO department,
+            @Parameter(description = "期望的版本号，即查询结果中的 version，不传时不校验")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Integer> version = departmentService.patchEntity(id, department, VersionTag.parse(ifMatch));
+        return VersionTag.ok(version, Response.success(id, "Department updated successfully"));
     }
 
     /**
@@ -100,12 +190,65 @@ public class DepartmentController {
     /**
      * 查询所有部门
      *
+     * @param fields 需要返回的字段，为空时返回全部字段
      * @return 所有部门列表
      */
     @GetMapping
     @Operation(summary = "查询所有", description = "查询所有部门")
-    public Response<List<Department>> getAllDepartments() {
-        return Response.success(departmentService.getAllEntities());
+    public Response<List<Department>> getAllDepartments(
+            @Parameter(description = "需要返回的字段列表，如 id, name，为空时返回全部字段") @RequestParam(required = false)
+            List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return Response.success(departmentService.getAllEntities());
+        }
+        return Response.success(departmentService.getAllEntities(fields));
+    }
+
+    /**
+     * 以 NDJSON 流式导出所有部门
+     * <p>
+     * 请求头 {@code Accept: application/x-ndjson} 时使用，每行一个部门，边读取边输出，内存占用与部门数量无关。
+     * </p>
+     *
+     * @return 流式响应
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "流式导出", description = "以 NDJSON 流式导出所有部门")
+    public ResponseEntity<StreamingResponseBody> getAllDepartmentsStream() {
+        return NdjsonResponse.<Department>of(objectMapper, writer -> departmentService.streamEntities(t -> {
+        }, EXPORT_FETCH_SIZE, writer));
+    }
+
+    /**
+     * 获取所有根部门
+     *
+     * @return 根部门列表，按显示顺序和ID排序
+     */
+    @GetMapping("/roots")
+    @Operation(summary = "获取根部门", description = "获取所有没有上级的部门")
+    public Response<List<Department>> getRoots() {
+        return Response.success(departmentService.getRoots());
+    }
+
+    /**
+     * 懒加载获取一层子部门
+     * <p>
+     * 用于树形界面逐级展开，每个部门附带是否存在下级的标记；按显示顺序和ID排序，
+     * 下一页以本页最后一个部门的ID作为 cursor。
+     * </p>
+     *
+     * @param parentId 上级部门ID，不传时查询根部门
+     * @param cursor   上一页最后一个部门的ID
+     * @param limit    每页条数
+     * @return 子部门列表
+     */
+    @GetMapping("/children")
+    @Operation(summary = "懒加载子部门", description = "分页获取一层子部门，并标记是否存在下级部门")
+    public Response<List<LazyTreeNode<Department>>> getChildren(
+            @Parameter(description = "上级部门ID，不传时查询根部门") @RequestParam(required = false) UUID parentId,
+            @Parameter(description = "上一页最后一个部门的ID") @RequestParam(required = false) UUID cursor,
+            @Parameter(description = "每页条数") @RequestParam(defaultValue = "100") int limit) {
+        return Response.success(departmentService.getChildren(parentId, cursor, limit));
     }
 
     /**
@@ -121,15 +264,32 @@ public class DepartmentController {
     }
 
     /**
-     * 获取所有后代部门
+     * 获取后代部门
+     * <p>
+     * 不传 limit 时返回所有后代部门；传入 limit 时按 (距离, ID) 排序分页返回，
+     * 下一页以本页最后一个部门的ID作为 afterId。
+     * </p>
      *
-     * @param id 部门ID
-     * @return 所有后代部门列表（包括多级）
+     * @param id          部门ID
+     * @param minDistance 最小层级距离（包含），默认1
+     * @param maxDistance 最大层级距离（包含），不传表示不限制
+     * @param afterId     上一页最后一个部门的ID
+     * @param limit       每页条数
+     * @return 后代部门列表（包括多级）
      */
     @GetMapping("/{id}/descendants")
-    @Operation(summary = "获取所有后代部门", description = "获取指定部门的所有后代部门（包括多级）")
-    public Response<List<Department>> getDescendants(@PathVariable("id") UUID id) {
-        return Response.success(departmentService.getDescendants(id));
+    @Operation(summary = "获取后代部门", description = "获取指定部门的后代部门（包括多级），传入 limit 时按键集分页")
+    public Response<List<Department>> getDescendants(
+            @PathVariable("id") UUID id,
+            @Parameter(description = "最小层级距离（包含）") @RequestParam(defaultValue = "1") int minDistance,
+            @Parameter(description = "最大层级距离（包含），不传表示不限制") @RequestParam(required = false) Integer maxDistance,
+            @Parameter(description = "上一页最后一个部门的ID") @RequestParam(required = false) UUID afterId,
+            @Parameter(description = "每页条数，不传时返回全部") @RequestParam(required = false) Integer limit) {
+        if (limit == null) {
+            return Response.success(departmentService.getDescendants(id));
+        }
+        return Response.success(
+                departmentService.getDescendants(id, DistanceRange.of(minDistance, maxDistance), afterId, limit));
     }
 
     /**
@@ -157,6 +317,22 @@ public class DepartmentController {
         return Response.success(departmentService.getAllAncestors(id));
     }
 
+    /**
+     * 批量获取部门的祖先路径
+     * <p>
+     * 用于列表页展示每一行的完整层级路径，所有部门的祖先路径通过一次闭包查询和一次部门查询获取。
+     * </p>
+     *
+     * @param ids 部门ID列表
+     * @return 部门ID到祖先路径的映射，路径从根部门到直接父部门
+     */
+    @GetMapping("/ancestor-paths")
+    @Operation(summary = "批量获取祖先路径", description = "批量获取多个部门从根部门到直接父部门的祖先路径")
+    public Response<Map<UUID, List<Department>>> getAncestorPaths(
+            @Parameter(description = "部门ID列表") @RequestParam("ids") List<UUID> ids) {
+        return Response.success(departmentService.getAncestorPaths(ids));
+    }
+
     /**
      * 移动部门
      * <p>
@@ -174,16 +350,35 @@ public class DepartmentController {
         return Response.success(moved.getId(), "Department moved successfully");
     }
 
+    /**
+     * 校验并修复部门闭包表
+     * <p>
+     * 根据 parentId 重新计算期望的层级关系，与闭包表比对；dryRun 为 false 时只写入差异部分。
+     * </p>
+     *
+     * @param dryRun 是否只校验不修改，默认 true
+     * @return 校验/重建结果
+     */
+    @PostMapping("/closure/rebuild")
+    @Operation(summary = "校验/修复闭包表", description = "根据 parentId 校验部门闭包表，dryRun 为 false 时修复差异")
+    public Response<ClosureRebuildResult> rebuildClosure(
+            @Parameter(description = "是否只校验不修改") @RequestParam(defaultValue = "true") boolean dryRun) {
+        return Response.success(departmentService.rebuildClosure(dryRun));
+    }
+
     /**
      * 获取部门树
      *
-     * @param id 根节点部门ID
+     * @param id       根节点部门ID
+     * @param maxDepth 最大层级深度，不传时使用默认值
      * @return 部门树（包含所有子节点）
      */
     @GetMapping("/{id}/tree")
     @Operation(summary = "获取部门树", description = "以指定部门为根节点获取部门树")
-    public Response<Department> getTree(@PathVariable("id") UUID id) {
-        Department tree = departmentService.getTree(id);
+    public Response<TreeNode<Department>> getTree(
+            @PathVariable("id") UUID id,
+            @Parameter(description = "最大层级深度，0表示只返回根节点，不传时使用默认值") @RequestParam(required = false) Integer maxDepth) {
+        TreeNode<Department> tree = maxDepth != null ? departmentService.getTree(id, maxDepth) : departmentService.getTree(id);
         return Response.success(tree, "Department tree retrieved successfully");
     }
 
@@ -1,15 +1,19 @@
 package com.lonbon.cloud.user.api.controller;
 
 import com.lonbon.cloud.base.response.Response;
+import com.lonbon.cloud.base.response.VersionTag;
 import com.lonbon.cloud.user.domain.dto.PermissionCreateDTO;
 import com.lonbon.cloud.user.domain.dto.PermissionUpdateDTO;
 import com.lonbon.cloud.user.domain.entity.Permission;
 import com.lonbon.cloud.user.domain.service.PermissionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -41,10 +45,13 @@ public class PermissionController {
     }
 
     @PostMapping("/{id}/update")
-    @Operation(summary = "更新", description = "更新权限")
-    public Response<UUID> update(@PathVariable("id") UUID id, @RequestBody @Validated PermissionUpdateDTO permission) {
-        permissionService.updateEntity(id, permission);
-        return Response.success(id, "Permission updated successfully");
+    @Operation(summary = "更新", description = "更新权限，只写入非空字段，带 If-Match 时校验版本")
+    public ResponseEntity<Response<UUID>> update(
+            @PathVariable("id") UUID id, @RequestBody @Validated PermissionUpdateDTO permission,
+            @Parameter(description = "期望的版本号，即查询结果中的 version，不传时不校验")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Integer> version = permissionService.patchEntity(id, permission, VersionTag.parse(ifMatch));
+        return VersionTag.ok(version, Response.success(id, "Permission updated successfully"));
     }
 
     @GetMapping("/{id}")
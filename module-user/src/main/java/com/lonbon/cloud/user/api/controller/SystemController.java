@@ -1,5 +1,6 @@
 package com.lonbon.cloud.user.api.controller;
 
+import com.lonbon.cloud.base.entity.IndexSyncResult;
 import com.lonbon.cloud.base.response.Response;
 import com.lonbon.cloud.base.service.SystemService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -25,4 +26,10 @@ public class SystemController {
         systemService.syncTable();
         return Response.success();
     }
+
+    @PostMapping("/sync-index")
+    @Operation(summary = "同步索引", description = "根据实体上的索引声明并发创建缺失的索引，返回执行的语句和失败的索引")
+    public Response<IndexSyncResult> syncIndexes() {
+        return Response.success(systemService.syncIndexes());
+    }
 }
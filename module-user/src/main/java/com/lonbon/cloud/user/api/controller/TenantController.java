@@ -1,8 +1,18 @@
 package com.lonbon.cloud.user.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lonbon.cloud.base.dto.CursorPageResult;
+import com.lonbon.cloud.base.dto.CursorPageable;
+import com.lonbon.cloud.base.dto.DistanceRange;
+import com.lonbon.cloud.base.dto.LazyTreeNode;
 import com.lonbon.cloud.base.dto.PageResult;
 import com.lonbon.cloud.base.dto.Pageable;
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.dto.TreeNode;
+import com.lonbon.cloud.base.response.NdjsonRequest;
 import com.lonbon.cloud.base.response.Response;
+import com.lonbon.cloud.base.response.VersionTag;
+import com.lonbon.cloud.base.service.ClosureRebuildResult;
 import com.lonbon.cloud.user.domain.dto.tenant.CreateDTO;
 import com.lonbon.cloud.user.domain.dto.tenant.QueryDTO;
 import com.lonbon.cloud.user.domain.dto.tenant.UpdateDTO;
@@ -11,13 +21,20 @@ import com.lonbon.cloud.user.domain.service.TenantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -44,6 +61,16 @@ public class TenantController {
      */
     private final TenantService tenantService;
 
+    /**
+     * JSON 反序列化工具，用于读取 NDJSON 请求体
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Bean Validation 校验器，用于校验 NDJSON 请求体中的每一行
+     */
+    private final Validator validator;
+
     /**
      * 创建租户
      *
@@ -57,6 +84,59 @@ public class TenantController {
         return Response.success(createdTenant.getId(), "Tenant created successfully");
     }
 
+    /**
+     * 批量创建租户
+     * <p>
+     * 所有租户在一个事务中批量插入，任意一项失败时全部回滚。
+     * </p>
+     *
+     * @param tenants 租户创建DTO列表
+     * @return 按请求顺序排列的已创建租户ID
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "批量创建", description = "批量创建租户，请求体为 JSON 数组")
+    public Response<List<UUID>> createAll(@RequestBody @NotNull List<@Valid CreateDTO> tenants) {
+        List<Tenant> created = tenantService.createEntities(tenants);
+        return Response.success(created.stream().map(Tenant::getId).toList(), "Tenants created successfully");
+    }
+
+    /**
+     * 以 NDJSON 请求体批量创建租户
+     * <p>
+     * 请求体每行一个租户创建DTO，逐行解析校验后与 JSON 数组形式一样在一个事务中批量插入。
+     * </p>
+     *
+     * @param body 请求体
+     * @return 按请求顺序排列的已创建租户ID
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "批量创建（NDJSON）", description = "批量创建租户，请求体每行一个 JSON 对象")
+    public Response<List<UUID>> createAllNdjson(InputStream body) {
+        List<CreateDTO> tenants = NdjsonRequest.read(objectMapper, validator, body, CreateDTO.class);
+        List<Tenant> created = tenantService.createEntities(tenants);
+        return Response.success(created.stream().map(Tenant::getId).toList(), "Tenants created successfully");
+    }
+
+    /**
+     * 批量导入租户树
+     * <p>
+     * 请求体为以 key/parentKey 链接的节点列表，parentKey 为空的节点挂到 parentId 指定的租户下，
+     * 所有节点的层级关系在一个事务中一次性写入。
+     * </p>
+     *
+     * @param parentId 挂载点租户ID，不传时顶层租户作为根节点
+     * @param nodes    导入节点列表
+     * @return 按拓扑顺序排列的已导入租户ID
+     */
+    @PostMapping("/import")
+    @Operation(summary = "批量导入", description = "批量导入租户树")
+    public Response<List<UUID>> importTree(
+            @Parameter(description = "挂载点租户ID") @RequestParam(required = false) UUID parentId,
+            @RequestBody @NotNull List<TreeImportNode<CreateDTO>> nodes) {
+        List<Tenant> imported = tenantService.importTenants(parentId, nodes);
+        return Response.success(imported.stream().map(Tenant::getId).toList(), "Tenant tree imported successfully");
+    }
+
     /**
      * 删除租户
      *
@@ -73,15 +153,19 @@ public class TenantController {
     /**
      * 更新租户
      *
-     * @param id     租户ID
-     * @param tenant 租户更新DTO
-     * @return 更新成功的租户ID
+     * @param id      租户ID
+     * @param tenant  租户更新DTO
+     * @param ifMatch If-Match 请求头，期望的版本号
+     * @return 更新成功的租户ID，响应头 ETag 为更新后的版本号
      */
     @PostMapping("/{id}/update")
-    @Operation(summary = "更新", description = "更新租户")
-    public Response<UUID> update(@PathVariable("id") UUID id, @RequestBody @Validated UpdateDTO tenant) {
-        tenantService.updateEntity(id, tenant);
-        return Response.success(id, "Tenant updated successfully");
+    @Operation(summary = "更新", description = "更新租户，只写入非空字段，带 If-Match 时校验版本")
+    public ResponseEntity<Response<UUID>> update(
+            @PathVariable("id") UUID id, @RequestBody @Validated UpdateDTO tenant,
+            @Parameter(description = "期望的版本号，即查询结果中的 version，不传时不校验")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Integer> version = tenantService.patchEntity(id, tenant, VersionTag.parse(ifMatch));
+        return VersionTag.ok(version, Response.success(id, "Tenant updated successfully"));
     }
 
     /**
@@ -104,16 +188,72 @@ public class TenantController {
      *
      * @param query    查询条件
      * @param pageable 分页参数
+     * @param fields   需要返回的字段，为空时返回全部字段
      * @return 分页后的租户列表
      */
     @GetMapping()
     @Operation(summary = "分页查询", description = "分页查询租户")
-    public Response<PageResult<Tenant>> getTenants(QueryDTO query, Pageable pageable) {
-        log.info("query: {}, pageable: {}", query, pageable);
-        PageResult<Tenant> tenants = tenantService.getPaginationEntities(query, pageable);
+    public Response<PageResult<Tenant>> getTenants(
+            QueryDTO query, Pageable pageable,
+            @Parameter(description = "需要返回的字段列表，如 id, name，为空时返回全部字段") @RequestParam(required = false)
+            List<String> fields) {
+        log.info("query: {}, pageable: {}, fields: {}", query, pageable, fields);
+        PageResult<Tenant> tenants = fields == null || fields.isEmpty()
+                ? tenantService.getPaginationEntities(query, pageable)
+                : tenantService.getPaginationEntities(query, pageable, fields);
         return Response.success(tenants);
     }
 
+    /**
+     * 游标分页查询租户
+     * <p>
+     * 以上一页返回的 nextCursor 继续查询，不使用 OFFSET，深分页代价与第一页相同；可设置 skipCount 跳过总数统计。
+     * </p>
+     *
+     * @param query    查询条件
+     * @param pageable 游标分页参数
+     * @return 游标分页后的租户列表
+     */
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页查询", description = "游标分页查询租户，适用于大数据量的连续翻页")
+    public Response<CursorPageResult<Tenant>> getTenantsByCursor(QueryDTO query, CursorPageable pageable) {
+        log.info("query: {}, cursorPageable: {}", query, pageable);
+        CursorPageResult<Tenant> tenants = tenantService.getCursorPaginationEntities(query, pageable);
+        return Response.success(tenants);
+    }
+
+    /**
+     * 获取所有根租户
+     *
+     * @return 根租户列表，按ID排序
+     */
+    @GetMapping("/roots")
+    @Operation(summary = "获取根租户", description = "获取所有没有上级的租户")
+    public Response<List<Tenant>> getRoots() {
+        return Response.success(tenantService.getRoots());
+    }
+
+    /**
+     * 懒加载获取一层子租户
+     * <p>
+     * 用于树形界面逐级展开，每个租户附带是否存在下级的标记；按ID排序，
+     * 下一页以本页最后一个租户的ID作为 cursor。
+     * </p>
+     *
+     * @param parentId 上级租户ID，不传时查询根租户
+     * @param cursor   上一页最后一个租户的ID
+     * @param limit    每页条数
+     * @return 子租户列表
+     */
+    @GetMapping("/children")
+    @Operation(summary = "懒加载子租户", description = "分页获取一层子租户，并标记是否存在下级租户")
+    public Response<List<LazyTreeNode<Tenant>>> getChildren(
+            @Parameter(description = "上级租户ID，不传时查询根租户") @RequestParam(required = false) UUID parentId,
+            @Parameter(description = "上一页最后一个租户的ID") @RequestParam(required = false) UUID cursor,
+            @Parameter(description = "每页条数") @RequestParam(defaultValue = "100") int limit) {
+        return Response.success(tenantService.getChildren(parentId, cursor, limit));
+    }
+
     /**
      * 获取直接子租户
      *
@@ -127,15 +267,32 @@ public class TenantController {
     }
 
     /**
-     * 获取所有后代租户
+     * 获取后代租户
+     * <p>
+     * 不传 limit 时返回所有后代租户；传入 limit 时按 (距离, ID) 排序分页返回，
+     * 下一页以本页最后一个租户的ID作为 afterId。
+     * </p>
      *
-     * @param id 租户ID
-     * @return 所有后代租户列表（包括多级）
+     * @param id          租户ID
+     * @param minDistance 最小层级距离（包含），默认1
+     * @param maxDistance 最大层级距离（包含），不传表示不限制
+     * @param afterId     上一页最后一个租户的ID
+     * @param limit       每页条数
+     * @return 后代租户列表（包括多级）
      */
     @GetMapping("/{id}/descendants")
-    @Operation(summary = "获取所有后代租户", description = "获取指定租户的所有后代租户（包括多级）")
-    public Response<List<Tenant>> getDescendants(@PathVariable("id") UUID id) {
-        return Response.success(tenantService.getDescendants(id));
+    @Operation(summary = "获取后代租户", description = "获取指定租户的后代租户（包括多级），传入 limit 时按键集分页")
+    public Response<List<Tenant>> getDescendants(
+            @PathVariable("id") UUID id,
+            @Parameter(description = "最小层级距离（包含）") @RequestParam(defaultValue = "1") int minDistance,
+            @Parameter(description = "最大层级距离（包含），不传表示不限制") @RequestParam(required = false) Integer maxDistance,
+            @Parameter(description = "上一页最后一个租户的ID") @RequestParam(required = false) UUID afterId,
+            @Parameter(description = "每页条数，不传时返回全部") @RequestParam(required = false) Integer limit) {
+        if (limit == null) {
+            return Response.success(tenantService.getDescendants(id));
+        }
+        return Response.success(
+                tenantService.getDescendants(id, DistanceRange.of(minDistance, maxDistance), afterId, limit));
     }
 
     /**
@@ -163,6 +320,22 @@ public class TenantController {
         return Response.success(tenantService.getAllAncestors(id));
     }
 
+    /**
+     * 批量获取租户的祖先路径
+     * <p>
+     * 用于列表页展示每一行的完整层级路径，所有租户的祖先路径通过一次闭包查询和一次租户查询获取。
+     * </p>
+     *
+     * @param ids 租户ID列表
+     * @return 租户ID到祖先路径的映射，路径从根租户到直接父租户
+     */
+    @GetMapping("/ancestor-paths")
+    @Operation(summary = "批量获取祖先路径", description = "批量获取多个租户从根租户到直接父租户的祖先路径")
+    public Response<Map<UUID, List<Tenant>>> getAncestorPaths(
+            @Parameter(description = "租户ID列表") @RequestParam("ids") List<UUID> ids) {
+        return Response.success(tenantService.getAncestorPaths(ids));
+    }
+
     /**
      * 移动租户
      * <p>
@@ -180,16 +353,35 @@ public class TenantController {
         return Response.success(moved.getId(), "Tenant moved successfully");
     }
 
+    /**
+     * 校验并修复租户闭包表
+     * <p>
+     * 根据 parentId 重新计算期望的层级关系，与闭包表比对；dryRun 为 false 时只写入差异部分。
+     * </p>
+     *
+     * @param dryRun 是否只校验不修改，默认 true
+     * @return 校验/重建结果
+     */
+    @PostMapping("/closure/rebuild")
+    @Operation(summary = "校验/修复闭包表", description = "根据 parentId 校验租户闭包表，dryRun 为 false 时修复差异")
+    public Response<ClosureRebuildResult> rebuildClosure(
+            @Parameter(description = "是否只校验不修改") @RequestParam(defaultValue = "true") boolean dryRun) {
+        return Response.success(tenantService.rebuildClosure(dryRun));
+    }
+
     /**
      * 获取租户树
      *
-     * @param id 根节点租户ID
+     * @param id       根节点租户ID
+     * @param maxDepth 最大层级深度，不传时使用默认值
      * @return 租户树（包含所有子节点）
      */
     @GetMapping("/{id}/tree")
     @Operation(summary = "获取租户树", description = "以指定租户为根节点获取租户树")
-    public Response<Tenant> getTree(@PathVariable("id") UUID id) {
-        Tenant tree = tenantService.getTree(id);
+    public Response<TreeNode<Tenant>> getTree(
+            @PathVariable("id") UUID id,
+            @Parameter(description = "最大层级深度，0表示只返回根节点，不传时使用默认值") @RequestParam(required = false) Integer maxDepth) {
+        TreeNode<Tenant> tree = maxDepth != null ? tenantService.getTree(id, maxDepth) : tenantService.getTree(id);
         return Response.success(tree, "Tenant tree retrieved successfully");
     }
 
@@ -1,6 +1,10 @@
 package com.lonbon.cloud.user.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lonbon.cloud.base.response.NdjsonRequest;
+import com.lonbon.cloud.base.response.NdjsonResponse;
 import com.lonbon.cloud.base.response.Response;
+import com.lonbon.cloud.base.response.VersionTag;
 import com.lonbon.cloud.user.domain.dto.user.CreateDTO;
 import com.lonbon.cloud.user.domain.dto.user.UpdateDTO;
 import com.lonbon.cloud.user.domain.entity.User;
@@ -8,12 +12,19 @@ import com.lonbon.cloud.user.domain.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -35,11 +46,26 @@ import java.util.UUID;
 @Tag(name = "用户", description = "用户操作")
 public class UserController {
 
+    /**
+     * 流式导出时每批从数据库读取的行数
+     */
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
     /**
      * 用户服务
      */
     private final UserService userService;
 
+    /**
+     * JSON 序列化工具，用于流式导出
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Bean Validation 校验器，用于校验 NDJSON 请求体中的每一行
+     */
+    private final Validator validator;
+
     /**
      * 创建用户
      *
@@ -53,6 +79,39 @@ public class UserController {
         return Response.success(createdUser.getId(), "User created successfully");
     }
 
+    /**
+     * 批量创建用户
+     * <p>
+     * 所有用户在一个事务中批量插入，任意一项失败时全部回滚。
+     * </p>
+     *
+     * @param users 用户创建DTO列表
+     * @return 按请求顺序排列的已创建用户ID
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "批量创建", description = "批量创建用户，请求体为 JSON 数组")
+    public Response<List<UUID>> createAll(@RequestBody @NotNull List<@Valid CreateDTO> users) {
+        List<User> created = userService.createEntities(users);
+        return Response.success(created.stream().map(User::getId).toList(), "Users created successfully");
+    }
+
+    /**
+     * 以 NDJSON 请求体批量创建用户
+     * <p>
+     * 请求体每行一个用户创建DTO，逐行解析校验后与 JSON 数组形式一样在一个事务中批量插入。
+     * </p>
+     *
+     * @param body 请求体
+     * @return 按请求顺序排列的已创建用户ID
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "批量创建（NDJSON）", description = "批量创建用户，请求体每行一个 JSON 对象")
+    public Response<List<UUID>> createAllNdjson(InputStream body) {
+        List<CreateDTO> users = NdjsonRequest.read(objectMapper, validator, body, CreateDTO.class);
+        List<User> created = userService.createEntities(users);
+        return Response.success(created.stream().map(User::getId).toList(), "Users created successfully");
+    }
+
     /**
      * 删除用户
      *
@@ -69,15 +128,19 @@ public class UserController {
     /**
      * 更新用户
      *
-     * @param id   用户ID
-     * @param user 用户更新DTO
-     * @return 更新成功的用户ID
+     * @param id      用户ID
+     * @param user    用户更新DTO
+     * @param ifMatch If-Match 请求头，期望的版本号
+     * @return 更新成功的用户ID，响应头 ETag 为更新后的版本号
      */
     @PostMapping("/{id}/update")
-    @Operation(summary = "更新", description = "更新用户")
-    public Response<UUID> update(@PathVariable("id") UUID id, @RequestBody @Validated UpdateDTO user) {
-        userService.updateEntity(id, user);
-        return Response.success(id, "User updated successfully");
+    @Operation(summary = "更新", description = "更新用户，只写入非空字段，带 If-Match 时校验版本")
+    public ResponseEntity<Response<UUID>> update(
+            @PathVariable("id") UUID id, @RequestBody @Validated UpdateDTO user,
+            @Parameter(description = "期望的版本号，即查询结果中的 version，不传时不校验")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Integer> version = userService.patchEntity(id, user, VersionTag.parse(ifMatch));
+        return VersionTag.ok(version, Response.success(id, "User updated successfully"));
     }
 
     /**
@@ -99,11 +162,32 @@ public class UserController {
     /**
      * 查询所有用户
      *
+     * @param fields 需要返回的字段，为空时返回全部字段
      * @return 所有用户列表
      */
     @GetMapping
     @Operation(summary = "查询所有", description = "查询所有用户")
-    public Response<List<User>> getAllUsers() {
-        return Response.success(userService.getAllEntities());
+    public Response<List<User>> getAllUsers(
+            @Parameter(description = "需要返回的字段列表，如 id, name，为空时返回全部字段") @RequestParam(required = false)
+            List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return Response.success(userService.getAllEntities());
+        }
+        return Response.success(userService.getAllEntities(fields));
+    }
+
+    /**
+     * 以 NDJSON 流式导出所有用户
+     * <p>
+     * 请求头 {@code Accept: application/x-ndjson} 时使用，每行一个用户，边读取边输出，内存占用与用户数量无关。
+     * </p>
+     *
+     * @return 流式响应
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "流式导出", description = "以 NDJSON 流式导出所有用户")
+    public ResponseEntity<StreamingResponseBody> getAllUsersStream() {
+        return NdjsonResponse.<User>of(objectMapper, writer -> userService.streamEntities(t -> {
+        }, EXPORT_FETCH_SIZE, writer));
     }
 }
@@ -94,7 +94,7 @@ public class AuthServiceImpl implements AuthService {
             // 非超级管理员：需要检查当前租户，如果没有，不给登录
             if (user.getCurrentTenantId() == null) throw new RuntimeException("current tenant id not found");
 
-            Tenant tenant = tenantService.getEntityById(user.getCurrentTenantId())
+            Tenant tenant = tenantService.loadEntity(user.getCurrentTenantId())
                                          .orElseThrow(() -> new RuntimeException("tenant not found"));
 
             Optional<UserTenant> userTenant = userTenantService.getEntity(e -> {
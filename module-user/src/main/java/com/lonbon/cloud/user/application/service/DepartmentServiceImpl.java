@@ -1,8 +1,13 @@
 package com.lonbon.cloud.user.application.service;
 
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
 import com.lonbon.cloud.base.service.ClosureExtension;
 import com.lonbon.cloud.base.service.ClosureOperation;
+import com.lonbon.cloud.base.service.ClosureRebuildResult;
 import com.lonbon.cloud.base.service.EntityServiceImpl;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
 import com.lonbon.cloud.user.domain.entity.Department;
 import com.lonbon.cloud.user.domain.entity.DepartmentClosure;
 import com.lonbon.cloud.user.domain.entity.proxy.DepartmentClosureProxy;
@@ -11,9 +16,16 @@ import com.lonbon.cloud.user.domain.repository.DepartmentClosureRepository;
 import com.lonbon.cloud.user.domain.repository.DepartmentRepository;
 import com.lonbon.cloud.user.domain.service.DepartmentService;
 import io.github.linpeilie.Converter;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -35,7 +47,9 @@ public class DepartmentServiceImpl extends EntityServiceImpl<Department, Departm
     private final ClosureExtension<Department, DepartmentProxy, DepartmentClosure, DepartmentClosureProxy> closureExtension;
 
     public DepartmentServiceImpl(
-            Converter converter, DepartmentRepository repository, DepartmentClosureRepository closureRepository) {
+            Converter converter, DepartmentRepository repository, DepartmentClosureRepository closureRepository,
+            @Value("${closure.snapshot.enabled:false}") boolean snapshotEnabled,
+            @Value("${closure.snapshot.ttl:30s}") Duration snapshotTtl) {
         super(converter, repository, Department.class);
         this.closureExtension = new ClosureExtension<>(repository, closureRepository, (c, t) -> c.query(t.ancestors()),
                                                        DepartmentProxy::parentId) {
@@ -44,10 +58,99 @@ public class DepartmentServiceImpl extends EntityServiceImpl<Department, Departm
                 return new DepartmentClosure(ancestorId, descendantId, distance);
             }
         };
+        this.closureExtension.setSnapshotEnabled(snapshotEnabled);
+        this.closureExtension.setSnapshotTtl(snapshotTtl);
+        this.closureExtension.setSortColumn(Department.Fields.sort_order, Department::getSort_order);
+        registerInterceptor(closureExtension);
     }
 
     @Override
     public ClosureOperation<Department, DepartmentProxy, DepartmentClosure, DepartmentClosureProxy> getClosureOperation() {
         return closureExtension;
     }
+
+    /**
+     * 删除部门及其所有下级部门，同时清理闭包表中的层级关系
+     *
+     * @param id 部门ID
+     */
+    @Override
+    public void deleteEntity(UUID id) {
+        closureExtension.deleteSubtree(id);
+    }
+
+    /**
+     * 局部更新部门
+     * <p>
+     * parentId 不能随其他属性直接写入，否则闭包表和祖先的计数不会随之变化。DTO 带有 parentId 时先读取部门、校验版本，
+     * 父部门变化则通过 {@link ClosureExtension#moveNode} 移动，再以移动后的版本号写入其余属性，全部在同一事务中完成；
+     * 不带 parentId 时与其他实体一样不预先查询。
+     * </p>
+     *
+     * @param id        部门ID
+     * @param updateDto 部门更新DTO
+     * @param version   期望的版本号，为 null 时取 DTO 中的版本号
+     * @return 数据库中更新后的版本号，未提供期望版本号时同样返回，实体没有版本号时为空
+     */
+    @Override
+    public Optional<Integer> patchEntity(UUID id, Object updateDto, @Nullable Integer version) {
+        Department patch = converter.convert(updateDto, Department.class);
+        UUID newParentId = patch.getParentId();
+        if (newParentId == null) {
+            return repository.patchById(id, patch, version);
+        }
+
+        Department current = repository.getById(id).orElseThrow(
+                () -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "Entity not found, ID: " + id));
+        Integer expectedVersion = version != null ? version : patch.getVersion();
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new BusinessException(ErrorCode.VERSION_CONFLICT,
+                                        "Entity has been modified, ID: " + id + ", version: " + expectedVersion);
+        }
+        if (!newParentId.equals(current.getParentId())) {
+            closureExtension.moveNode(id, newParentId);
+            if (expectedVersion != null) {
+                // 移动节点时版本号已递增
+                expectedVersion = repository.getById(id).map(Department::getVersion).orElse(expectedVersion);
+            }
+        }
+        // parentId 与移动后的值相同，保证更新语句至少有一列
+        return repository.patchById(id, patch, expectedVersion);
+    }
+
+    /**
+     * 批量导入部门树
+     * <p>
+     * DTO 中的 parentId 会被忽略，层级关系完全由 key/parentKey 和挂载点决定。
+     * </p>
+     *
+     * @param parentId 挂载点部门ID，为空时顶层部门作为根节点
+     * @param nodes    以 key/parentKey 链接的导入节点
+     * @return 按拓扑顺序排列的已导入部门
+     */
+    @Override
+    public List<Department> importDepartments(@Nullable UUID parentId, List<TreeImportNode<DepartmentCreateDTO>> nodes) {
+        List<TreeImportNode<Department>> importNodes = new ArrayList<>(nodes.size());
+        for (TreeImportNode<DepartmentCreateDTO> node : nodes) {
+            Department entity = converter.convert(node.getData(), Department.class);
+            entity.setParentId(null);
+            importNodes.add(new TreeImportNode<>(node.getKey(), node.getParentKey(), entity));
+        }
+        return closureExtension.importTree(parentId, importNodes);
+    }
+
+    /**
+     * 根据 parentId 校验并修复部门闭包表
+     * <p>
+     * 不在事务中执行，每批修改独立提交，避免长事务阻塞在线业务。
+     * </p>
+     *
+     * @param dryRun 为 true 时只校验并统计差异，不修改数据
+     * @return 校验/重建结果
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ClosureRebuildResult rebuildClosure(boolean dryRun) {
+        return closureExtension.rebuildClosure(dryRun);
+    }
 }
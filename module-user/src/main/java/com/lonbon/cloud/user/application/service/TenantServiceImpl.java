@@ -1,6 +1,8 @@
 package com.lonbon.cloud.user.application.service;
 
+import com.lonbon.cloud.base.dto.TreeImportNode;
 import com.lonbon.cloud.base.service.*;
+import com.lonbon.cloud.user.domain.dto.tenant.CreateDTO;
 import com.lonbon.cloud.user.domain.entity.Tenant;
 import com.lonbon.cloud.user.domain.entity.TenantAttribute;
 import com.lonbon.cloud.user.domain.entity.TenantClosure;
@@ -12,9 +14,15 @@ import com.lonbon.cloud.user.domain.repository.TenantClosureRepository;
 import com.lonbon.cloud.user.domain.repository.TenantRepository;
 import com.lonbon.cloud.user.domain.service.TenantService;
 import io.github.linpeilie.Converter;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -27,7 +35,9 @@ public class TenantServiceImpl extends EntityServiceImpl<Tenant, TenantProxy> im
 
     public TenantServiceImpl(
             Converter converter, TenantRepository repository, TenantClosureRepository closureRepository,
-            TenantAttributeRepository attributeRepository) {
+            TenantAttributeRepository attributeRepository,
+            @Value("${closure.snapshot.enabled:false}") boolean snapshotEnabled,
+            @Value("${closure.snapshot.ttl:30s}") Duration snapshotTtl) {
         super(converter, repository, Tenant.class);
         this.closureExtension = new ClosureExtension<>(repository, closureRepository, (c, t) -> c.query(t.ancestors()),
                                                        TenantProxy::parentId) {
@@ -36,8 +46,12 @@ public class TenantServiceImpl extends EntityServiceImpl<Tenant, TenantProxy> im
                 return new TenantClosure(ancestorId, descendantId, distance);
             }
         };
+        this.closureExtension.setSnapshotEnabled(snapshotEnabled);
+        this.closureExtension.setSnapshotTtl(snapshotTtl);
         this.attributeExtension = new AttributeExtension<>(repository, attributeRepository) {
         };
+        registerInterceptor(closureExtension);
+        registerInterceptor(attributeExtension);
     }
 
     @Override
@@ -45,6 +59,55 @@ public class TenantServiceImpl extends EntityServiceImpl<Tenant, TenantProxy> im
         return closureExtension;
     }
 
+    /**
+     * 删除租户及其所有下级租户，同时清理闭包表中的层级关系
+     *
+     * @param id 租户ID
+     */
+    @Override
+    public void deleteEntity(UUID id) {
+        closureExtension.deleteSubtree(id);
+    }
+
+    /**
+     * 批量导入租户树
+     * <p>
+     * DTO 中的 parentId 会被忽略，层级关系完全由 key/parentKey 和挂载点决定。
+     * 租户附带的扩展属性在导入后按租户写入。
+     * </p>
+     *
+     * @param parentId 挂载点租户ID，为空时顶层租户作为根节点
+     * @param nodes    以 key/parentKey 链接的导入节点
+     * @return 按拓扑顺序排列的已导入租户
+     */
+    @Override
+    public List<Tenant> importTenants(@Nullable UUID parentId, List<TreeImportNode<CreateDTO>> nodes) {
+        List<TreeImportNode<Tenant>> importNodes = new ArrayList<>(nodes.size());
+        for (TreeImportNode<CreateDTO> node : nodes) {
+            Tenant entity = converter.convert(node.getData(), Tenant.class);
+            entity.setParentId(null);
+            importNodes.add(new TreeImportNode<>(node.getKey(), node.getParentKey(), entity));
+        }
+        List<Tenant> tenants = closureExtension.importTree(parentId, importNodes);
+        attributeExtension.postCreateAll(tenants);
+        return tenants;
+    }
+
+    /**
+     * 根据 parentId 校验并修复租户闭包表
+     * <p>
+     * 不在事务中执行，每批修改独立提交，避免长事务阻塞在线业务。
+     * </p>
+     *
+     * @param dryRun 为 true 时只校验并统计差异，不修改数据
+     * @return 校验/重建结果
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ClosureRebuildResult rebuildClosure(boolean dryRun) {
+        return closureExtension.rebuildClosure(dryRun);
+    }
+
     @Override
     public AttributeOperation<Tenant, TenantProxy, TenantAttribute, TenantAttributeProxy> getAttributeOperation() {
         return attributeExtension;
@@ -7,8 +7,10 @@ import com.easy.query.core.annotation.Table;
 import com.easy.query.core.enums.RelationTypeEnum;
 import com.easy.query.core.proxy.ProxyEntityAvailable;
 import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.TableIndex;
 import com.lonbon.cloud.base.service.ClosureAvailable;
 import com.lonbon.cloud.base.service.ClosureEntity;
+import com.lonbon.cloud.base.service.HierarchyCountAvailable;
 import com.lonbon.cloud.user.domain.entity.proxy.DepartmentProxy;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -36,9 +38,11 @@ import java.util.UUID;
 @FieldNameConstants
 @EqualsAndHashCode(callSuper = true)
 @Table(value = "sys_department", ignoreProperties = {BaseEntity.Fields.departmentId})
+@TableIndex(columns = {Department.Fields.parentId, Department.Fields.sort_order})
 @EntityProxy
 public class Department extends BaseEntity
-        implements ProxyEntityAvailable<Department, DepartmentProxy>, ClosureAvailable<@NonNull DepartmentClosure> {
+        implements ProxyEntityAvailable<Department, DepartmentProxy>, ClosureAvailable<@NonNull DepartmentClosure>,
+        HierarchyCountAvailable {
 
     /**
      * 类型
@@ -116,6 +120,24 @@ public class Department extends BaseEntity
      */
     private UUID parentId;
 
+    /**
+     * 直接子部门数量
+     * <p>
+     * 由闭包扩展在创建、移动、删除时增量维护，用于判断树节点是否可展开
+     * </p>
+     */
+    @Column(dbDefault = "0")
+    private Integer childCount;
+
+    /**
+     * 子树部门数量（包含自身）
+     * <p>
+     * 由闭包扩展在创建、移动、删除时增量维护
+     * </p>
+     */
+    @Column(dbDefault = "1")
+    private Long subtreeSize;
+
     /**
      * 祖先列表
      * <p>
@@ -4,6 +4,8 @@ import com.easy.query.core.annotation.EntityProxy;
 import com.easy.query.core.annotation.Table;
 import com.easy.query.core.proxy.ProxyEntityAvailable;
 import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.IndexMethod;
+import com.lonbon.cloud.base.entity.TableIndex;
 import com.lonbon.cloud.user.domain.entity.proxy.DictItemProxy;
 import com.lonbon.cloud.user.domain.value_object.DictItemStyle;
 import lombok.Data;
@@ -14,6 +16,7 @@ import lombok.experimental.FieldNameConstants;
 @FieldNameConstants
 @EqualsAndHashCode(callSuper = true)
 @Table(value = "sys_dict_item", ignoreProperties = {BaseEntity.Fields.departmentId})
+@TableIndex(columns = DictItem.Fields.style, method = IndexMethod.GIN)
 @EntityProxy
 public class DictItem extends BaseEntity implements ProxyEntityAvailable<DictItem, DictItemProxy> {
 
@@ -8,10 +8,12 @@ import com.easy.query.core.enums.CascadeTypeEnum;
 import com.easy.query.core.enums.RelationTypeEnum;
 import com.easy.query.core.proxy.ProxyEntityAvailable;
 import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.TableIndex;
 import com.lonbon.cloud.base.service.AttributeAvailable;
 import com.lonbon.cloud.base.service.AttributeEntity;
 import com.lonbon.cloud.base.service.ClosureAvailable;
 import com.lonbon.cloud.base.service.ClosureEntity;
+import com.lonbon.cloud.base.service.HierarchyCountAvailable;
 import com.lonbon.cloud.user.domain.entity.proxy.TenantProxy;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -39,10 +41,11 @@ import java.util.UUID;
 @FieldNameConstants
 @EqualsAndHashCode(callSuper = true)
 @Table(value = "sys_tenant", ignoreProperties = {BaseEntity.Fields.tenantId, BaseEntity.Fields.departmentId})
+@TableIndex(columns = Tenant.Fields.parentId)
 @EntityProxy
 public class Tenant extends BaseEntity
         implements ProxyEntityAvailable<Tenant, TenantProxy>, ClosureAvailable<@NonNull TenantClosure>,
-                   AttributeAvailable<@NonNull TenantAttribute> {
+                   AttributeAvailable<@NonNull TenantAttribute>, HierarchyCountAvailable {
 
     /**
      * 类型
@@ -92,6 +95,24 @@ public class Tenant extends BaseEntity
      */
     private UUID parentId;
 
+    /**
+     * 直接子租户数量
+     * <p>
+     * 由闭包扩展在创建、移动、删除时增量维护，用于判断树节点是否可展开
+     * </p>
+     */
+    @Column(dbDefault = "0")
+    private Integer childCount;
+
+    /**
+     * 子树租户数量（包含自身）
+     * <p>
+     * 由闭包扩展在创建、移动、删除时增量维护
+     * </p>
+     */
+    @Column(dbDefault = "1")
+    private Long subtreeSize;
+
     /**
      * 祖先列表
      * <p>
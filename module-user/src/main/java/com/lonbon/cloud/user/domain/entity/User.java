@@ -7,6 +7,7 @@ import com.easy.query.core.annotation.Table;
 import com.easy.query.core.enums.RelationTypeEnum;
 import com.easy.query.core.proxy.ProxyEntityAvailable;
 import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.TableIndex;
 import com.lonbon.cloud.user.domain.entity.proxy.UserProxy;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -28,6 +29,7 @@ import java.util.UUID;
 @FieldNameConstants
 @EqualsAndHashCode(callSuper = true)
 @Table(value = "sys_user", ignoreProperties = {BaseEntity.Fields.tenantId, BaseEntity.Fields.departmentId})
+@TableIndex(columns = User.Fields.username, where = "is_delete = FALSE")
 @EntityProxy
 public class User extends BaseEntity implements ProxyEntityAvailable<User, UserProxy> {
 
@@ -1,12 +1,18 @@
 package com.lonbon.cloud.user.domain.service;
 
+import com.lonbon.cloud.base.dto.TreeImportNode;
 import com.lonbon.cloud.base.service.ClosureService;
 import com.lonbon.cloud.base.service.EntityService;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
 import com.lonbon.cloud.user.domain.entity.Department;
 import com.lonbon.cloud.user.domain.entity.DepartmentClosure;
 import com.lonbon.cloud.user.domain.entity.Permission;
 import com.lonbon.cloud.user.domain.entity.proxy.DepartmentClosureProxy;
 import com.lonbon.cloud.user.domain.entity.proxy.DepartmentProxy;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.UUID;
 
 /**
  * 部门服务接口
@@ -21,4 +27,15 @@ import com.lonbon.cloud.user.domain.entity.proxy.DepartmentProxy;
  */
 public interface DepartmentService extends EntityService<Department, DepartmentProxy>, ClosureService<Department, DepartmentProxy, DepartmentClosure, DepartmentClosureProxy> {
 
+    /**
+     * 批量导入部门树
+     * <p>
+     * 将创建DTO转换为部门实体后，通过闭包扩展一次性计算层级关系并批量写入。
+     * </p>
+     *
+     * @param parentId 挂载点部门ID，为空时顶层部门作为根节点
+     * @param nodes    以 key/parentKey 链接的导入节点
+     * @return 按拓扑顺序排列的已导入部门
+     */
+    List<Department> importDepartments(@Nullable UUID parentId, List<TreeImportNode<DepartmentCreateDTO>> nodes);
 }
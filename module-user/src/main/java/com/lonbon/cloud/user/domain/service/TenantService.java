@@ -1,14 +1,20 @@
 package com.lonbon.cloud.user.domain.service;
 
+import com.lonbon.cloud.base.dto.TreeImportNode;
 import com.lonbon.cloud.base.service.AttributeService;
 import com.lonbon.cloud.base.service.ClosureService;
 import com.lonbon.cloud.base.service.EntityService;
+import com.lonbon.cloud.user.domain.dto.tenant.CreateDTO;
 import com.lonbon.cloud.user.domain.entity.Tenant;
 import com.lonbon.cloud.user.domain.entity.TenantAttribute;
 import com.lonbon.cloud.user.domain.entity.TenantClosure;
 import com.lonbon.cloud.user.domain.entity.proxy.TenantAttributeProxy;
 import com.lonbon.cloud.user.domain.entity.proxy.TenantClosureProxy;
 import com.lonbon.cloud.user.domain.entity.proxy.TenantProxy;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.UUID;
 
 /**
  * 租户服务接口
@@ -25,4 +31,15 @@ public interface TenantService extends EntityService<Tenant, TenantProxy>,
                                        ClosureService<Tenant, TenantProxy, TenantClosure, TenantClosureProxy>,
                                        AttributeService<Tenant, TenantProxy, TenantAttribute, TenantAttributeProxy> {
 
+    /**
+     * 批量导入租户树
+     * <p>
+     * 将创建DTO转换为租户实体后，通过闭包扩展一次性计算层级关系并批量写入。
+     * </p>
+     *
+     * @param parentId 挂载点租户ID，为空时顶层租户作为根节点
+     * @param nodes    以 key/parentKey 链接的导入节点
+     * @return 按拓扑顺序排列的已导入租户
+     */
+    List<Tenant> importTenants(@Nullable UUID parentId, List<TreeImportNode<CreateDTO>> nodes);
 }
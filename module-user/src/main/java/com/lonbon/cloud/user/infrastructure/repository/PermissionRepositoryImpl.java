@@ -7,12 +7,25 @@ import com.lonbon.cloud.user.domain.entity.proxy.PermissionProxy;
 import com.lonbon.cloud.user.domain.repository.PermissionRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+
 @Repository
 public class PermissionRepositoryImpl
         extends EasyQueryRepository<Permission, PermissionProxy, PermissionProxy.PermissionProxyFetcher>
         implements PermissionRepository {
-    
+
+    /**
+     * 实体缓存容量，权限读多写少，按ID查询走二级缓存
+     */
+    private static final long CACHE_MAXIMUM_SIZE = 5000;
+
+    /**
+     * 实体缓存有效期
+     */
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+
     public PermissionRepositoryImpl(EasyEntityQuery easyEntityQuery) {
         super(easyEntityQuery, Permission.class, proxy -> proxy.FETCHER);
+        enableCache(CACHE_MAXIMUM_SIZE, CACHE_TTL);
     }
 }
@@ -7,11 +7,24 @@ import com.lonbon.cloud.user.domain.entity.proxy.RoleProxy;
 import com.lonbon.cloud.user.domain.repository.RoleRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+
 @Repository
 public class RoleRepositoryImpl extends EasyQueryRepository<Role, RoleProxy, RoleProxy.RoleProxyFetcher>
         implements RoleRepository {
-    
+
+    /**
+     * 实体缓存容量，角色读多写少，按ID查询走二级缓存
+     */
+    private static final long CACHE_MAXIMUM_SIZE = 1000;
+
+    /**
+     * 实体缓存有效期
+     */
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+
     public RoleRepositoryImpl(EasyEntityQuery easyEntityQuery) {
         super(easyEntityQuery, Role.class, proxy -> proxy.FETCHER);
+        enableCache(CACHE_MAXIMUM_SIZE, CACHE_TTL);
     }
 }
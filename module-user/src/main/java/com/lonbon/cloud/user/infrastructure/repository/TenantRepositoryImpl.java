@@ -9,6 +9,7 @@ import com.lonbon.cloud.user.domain.entity.proxy.TenantProxy;
 import com.lonbon.cloud.user.domain.repository.TenantRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +28,16 @@ import java.util.Map;
 public class TenantRepositoryImpl extends EasyQueryRepository<Tenant, TenantProxy, TenantProxy.TenantProxyFetcher>
         implements TenantRepository {
 
+    /**
+     * 实体缓存容量，租户读多写少，按ID查询走二级缓存
+     */
+    private static final long CACHE_MAXIMUM_SIZE = 1000;
+
+    /**
+     * 实体缓存有效期
+     */
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+
     private static final Map<String, SQLActionExpression2<IncludeContext, TenantProxy>> navigateMap = new HashMap<>();
 
     static {
@@ -48,6 +59,7 @@ public class TenantRepositoryImpl extends EasyQueryRepository<Tenant, TenantProx
      */
     public TenantRepositoryImpl(EasyEntityQuery easyEntityQuery) {
         super(easyEntityQuery, Tenant.class, proxy -> proxy.FETCHER);
+        enableCache(CACHE_MAXIMUM_SIZE, CACHE_TTL);
     }
 
     @Override
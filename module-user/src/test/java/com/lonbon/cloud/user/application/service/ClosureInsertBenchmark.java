@@ -0,0 +1,72 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.repository.DepartmentClosureRepository;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.BenchmarkReport;
+import com.lonbon.cloud.user.support.PostgresBenchmark;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 新建节点写入闭包记录的耗时随层级深度的变化
+ * <p>
+ * 在深度为 5、20、50 的链末端创建叶子节点。闭包记录以一次批量插入写入，
+ * 语句数与深度无关，只有批量插入的行数随深度增长。
+ * </p>
+ */
+class ClosureInsertBenchmark extends PostgresBenchmark {
+
+    private static final int[] DEPTHS = {5, 20, 50};
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentClosureRepository closureRepository;
+
+    @Test
+    void insertLeafAtDepth() {
+        Map<Integer, BenchmarkReport.Sample> samples = new HashMap<>();
+        for (int depth : DEPTHS) {
+            UUID parentId = as(TENANT_A, () -> chain(depth));
+            samples.put(depth, report.measure("insert leaf at depth " + depth, 1,
+                                              () -> run(TENANT_A, () -> create(parentId))));
+
+            UUID leafId = as(TENANT_A, () -> create(parentId));
+            long closures = as(TENANT_A, () -> closureRepository.countBy(c -> c.descendantId().eq(leafId)));
+            assertThat(closures).isEqualTo(depth + 1);
+        }
+
+        assertThat(samples.values()).extracting(BenchmarkReport.Sample::statements)
+                                    .containsOnly(samples.get(DEPTHS[0]).statements());
+    }
+
+    /**
+     * 创建一条指定深度的链，返回末端节点的ID
+     */
+    private UUID chain(int depth) {
+        UUID parentId = null;
+        for (int i = 0; i < depth; i++) {
+            parentId = create(parentId);
+        }
+        return parentId;
+    }
+
+    private UUID create(@Nullable UUID parentId) {
+        DepartmentCreateDTO dto = new DepartmentCreateDTO();
+        dto.setType("benchmark");
+        dto.setName("department");
+        dto.setParentId(parentId);
+        Department department = departmentService.createEntity(dto);
+        return department.getId();
+    }
+}
@@ -0,0 +1,69 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.repository.DepartmentRepository;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 批量创建部门时挂到已存在父节点下的闭包关系和层级计数
+ */
+class DepartmentBatchCreateTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentRepository repository;
+
+    @Test
+    void childrenOfExistingParents() {
+        UUID root = as(TENANT_A, () -> departmentService.createEntity(dto(null)).getId());
+        UUID child = as(TENANT_A, () -> departmentService.createEntity(dto(root)).getId());
+
+        List<Department> created = as(TENANT_A, () -> departmentService.createEntities(
+                List.of(dto(child), dto(root), dto(null))));
+
+        assertThat(created).extracting(Department::getParentId).containsExactly(child, root, null);
+        assertThat(as(TENANT_A, () -> departmentService.getAllAncestors(created.getFirst().getId())))
+                .extracting(Department::getId).containsExactly(child, root);
+        assertThat(as(TENANT_A, () -> departmentService.getAllAncestors(created.getLast().getId()))).isEmpty();
+        Department storedRoot = as(TENANT_A, () -> repository.getById(root)).orElseThrow();
+        assertThat(storedRoot.getChildCount()).isEqualTo(2);
+        assertThat(storedRoot.getSubtreeSize()).isEqualTo(4L);
+        Department storedChild = as(TENANT_A, () -> repository.getById(child)).orElseThrow();
+        assertThat(storedChild.getChildCount()).isEqualTo(1);
+        assertThat(storedChild.getSubtreeSize()).isEqualTo(2L);
+    }
+
+    @Test
+    void missingParentRejectsWholeBatch() {
+        long before = as(TENANT_A, () -> repository.count());
+
+        assertThatThrownBy(() -> run(TENANT_A, () -> departmentService.createEntities(
+                List.of(dto(null), dto(UUID.randomUUID())))))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode())
+                        .isEqualTo(ErrorCode.RESOURCE_NOT_FOUND.getCode()));
+        assertThat(as(TENANT_A, () -> repository.count())).isEqualTo(before);
+    }
+
+    private static DepartmentCreateDTO dto(@Nullable UUID parentId) {
+        DepartmentCreateDTO dto = new DepartmentCreateDTO();
+        dto.setType("test");
+        dto.setName("department");
+        dto.setParentId(parentId);
+        return dto;
+    }
+}
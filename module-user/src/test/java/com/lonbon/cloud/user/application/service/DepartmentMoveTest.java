@@ -0,0 +1,67 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.entity.DepartmentClosure;
+import com.lonbon.cloud.user.domain.repository.DepartmentClosureRepository;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * 移动子树时在数据库中生成的闭包记录
+ */
+class DepartmentMoveTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentClosureRepository closureRepository;
+
+    @Test
+    void moveReconnectsWholeSubtreeWithAuditColumns() {
+        UUID left = as(TENANT_A, () -> create(null));
+        UUID right = as(TENANT_A, () -> create(null));
+        UUID target = as(TENANT_A, () -> create(right));
+        UUID child = as(TENANT_A, () -> create(left));
+        UUID grandchild = as(TENANT_A, () -> create(child));
+
+        run(TENANT_A, () -> departmentService.moveNode(child, target));
+
+        assertThat(as(TENANT_A, () -> departmentService.getAllAncestors(grandchild)))
+                .extracting(Department::getId).containsExactly(child, target, right);
+        List<DepartmentClosure> reconnected = as(TENANT_A, () -> closureRepository.getAll(
+                u -> u.descendantId().eq(grandchild)));
+        assertThat(reconnected).extracting(DepartmentClosure::getAncestorId, DepartmentClosure::getDistance)
+                               .containsExactlyInAnyOrder(tuple(grandchild, 0), tuple(child, 1), tuple(target, 2),
+                                                          tuple(right, 3));
+        assertThat(reconnected).allSatisfy(closure -> {
+            assertThat(closure.getId()).isNotNull();
+            assertThat(closure.getId().version()).isEqualTo(7);
+            assertThat(closure.getTenantId()).isEqualTo(TENANT_A.tenantId());
+            assertThat(closure.getCreatedBy()).isEqualTo(USER_ID);
+            assertThat(closure.getCreatedAt()).isNotNull();
+        });
+        assertThat(as(TENANT_A, () -> departmentService.getEntityById(right).orElseThrow().getSubtreeSize()))
+                .isEqualTo(4L);
+        assertThat(as(TENANT_A, () -> departmentService.getEntityById(left).orElseThrow().getSubtreeSize()))
+                .isEqualTo(1L);
+    }
+
+    private UUID create(@Nullable UUID parentId) {
+        DepartmentCreateDTO dto = new DepartmentCreateDTO();
+        dto.setType("test");
+        dto.setName("department");
+        dto.setParentId(parentId);
+        return departmentService.createEntity(dto).getId();
+    }
+}
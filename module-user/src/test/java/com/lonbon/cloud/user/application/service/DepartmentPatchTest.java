@@ -0,0 +1,103 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.dto.DepartmentUpdateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 局部更新部门时 parentId 的变更改为移动节点，返回数据库中更新后的版本号
+ */
+class DepartmentPatchTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Test
+    void patchWithParentIdMovesNode() {
+        UUID left = as(TENANT_A, () -> create(null));
+        UUID right = as(TENANT_A, () -> create(null));
+        UUID child = as(TENANT_A, () -> create(left));
+        int version = as(TENANT_A, () -> get(child).getVersion());
+
+        DepartmentUpdateDTO dto = new DepartmentUpdateDTO();
+        dto.setName("renamed");
+        dto.setParentId(right);
+        Optional<Integer> updated = as(TENANT_A, () -> departmentService.patchEntity(child, dto, version));
+
+        Department moved = as(TENANT_A, () -> get(child));
+        assertThat(updated).contains(moved.getVersion());
+        assertThat(moved.getName()).isEqualTo("renamed");
+        assertThat(moved.getParentId()).isEqualTo(right);
+        assertThat(as(TENANT_A, () -> departmentService.getAllAncestors(child)))
+                .extracting(Department::getId).containsExactly(right);
+        assertThat(as(TENANT_A, () -> get(left).getChildCount())).isZero();
+        assertThat(as(TENANT_A, () -> get(right).getChildCount())).isEqualTo(1);
+    }
+
+    @Test
+    void patchWithParentIdChecksVersionBeforeMoving() {
+        UUID left = as(TENANT_A, () -> create(null));
+        UUID right = as(TENANT_A, () -> create(null));
+        UUID child = as(TENANT_A, () -> create(left));
+        int version = as(TENANT_A, () -> get(child).getVersion());
+
+        DepartmentUpdateDTO dto = new DepartmentUpdateDTO();
+        dto.setParentId(right);
+
+        assertThatThrownBy(() -> run(TENANT_A, () -> departmentService.patchEntity(child, dto, version + 1)))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode())
+                        .isEqualTo(ErrorCode.VERSION_CONFLICT.getCode()));
+        assertThat(as(TENANT_A, () -> get(child).getParentId())).isEqualTo(left);
+    }
+
+    @Test
+    void patchWithoutVersionReturnsStoredVersion() {
+        UUID id = as(TENANT_A, () -> create(null));
+
+        DepartmentUpdateDTO dto = new DepartmentUpdateDTO();
+        dto.setName("renamed");
+        Optional<Integer> first = as(TENANT_A, () -> departmentService.patchEntity(id, dto, null));
+        Optional<Integer> second = as(TENANT_A, () -> departmentService.patchEntity(id, dto, null));
+
+        assertThat(second).contains(as(TENANT_A, () -> get(id).getVersion()));
+        assertThat(second).contains(first.orElseThrow() + 1);
+    }
+
+    @Test
+    void patchIsLimitedToCurrentTenant() {
+        UUID id = as(TENANT_A, () -> create(null));
+
+        DepartmentUpdateDTO dto = new DepartmentUpdateDTO();
+        dto.setName("renamed");
+
+        assertThatThrownBy(() -> run(TENANT_B, () -> departmentService.patchEntity(id, dto, null)))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode())
+                        .isEqualTo(ErrorCode.RESOURCE_NOT_FOUND.getCode()));
+        assertThat(as(TENANT_A, () -> get(id).getName())).isEqualTo("department");
+    }
+
+    private Department get(UUID id) {
+        return departmentService.getEntityById(id).orElseThrow();
+    }
+
+    private UUID create(@Nullable UUID parentId) {
+        DepartmentCreateDTO dto = new DepartmentCreateDTO();
+        dto.setType("test");
+        dto.setName("department");
+        dto.setParentId(parentId);
+        return departmentService.createEntity(dto).getId();
+    }
+}
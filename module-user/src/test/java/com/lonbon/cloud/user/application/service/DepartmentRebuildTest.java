@@ -0,0 +1,105 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.lonbon.cloud.base.satoken.CallerContext;
+import com.lonbon.cloud.base.service.ClosureExtension;
+import com.lonbon.cloud.base.service.ClosureRebuildResult;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.entity.DepartmentClosure;
+import com.lonbon.cloud.user.domain.repository.DepartmentClosureRepository;
+import com.lonbon.cloud.user.domain.repository.DepartmentRepository;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 闭包表校验/重建在分页遍历时发现并修复缺失和悬空的记录，并按当前租户重新统计层级计数
+ */
+class DepartmentRebuildTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentClosureRepository closureRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Test
+    void rebuildRepairsClosuresAcrossPages() {
+        CallerContext tenant = new CallerContext(USER_ID, UUID.randomUUID());
+        UUID root = as(tenant, () -> create(null));
+        UUID other = as(tenant, () -> create(null));
+        UUID grandchild = null;
+        for (int i = 0; i < 3; i++) {
+            UUID child = as(tenant, () -> create(root));
+            grandchild = as(tenant, () -> create(child));
+        }
+        UUID lastGrandchild = grandchild;
+        run(tenant, () -> {
+            closureRepository.deleteAll(u -> {
+                u.descendantId().eq(lastGrandchild);
+                u.ancestorId().eq(root);
+            });
+            closureRepository.insert(new DepartmentClosure(UUID.randomUUID(), other, 1));
+        });
+
+        ClosureExtension<?, ?, ?, ?> extension = extension();
+        int batchSize = extension.getRebuildBatchSize();
+        extension.setRebuildBatchSize(2);
+        try {
+            ClosureRebuildResult check = as(tenant, () -> departmentService.rebuildClosure(true));
+            assertThat(check.getRoots()).isEqualTo(2);
+            assertThat(check.getNodes()).isEqualTo(8);
+            assertThat(check.getMissingRows()).isEqualTo(1);
+            assertThat(check.getStaleRows()).isEqualTo(1);
+
+            as(tenant, () -> departmentService.rebuildClosure(false));
+            assertThat(as(tenant, () -> departmentService.rebuildClosure(true)).isConsistent()).isTrue();
+        } finally {
+            extension.setRebuildBatchSize(batchSize);
+        }
+    }
+
+    @Test
+    void rebuildRecountsStaleCounters() {
+        CallerContext tenant = new CallerContext(USER_ID, UUID.randomUUID());
+        UUID root = as(tenant, () -> create(null));
+        as(tenant, () -> create(root));
+        run(tenant, () -> departmentRepository.updateById(root, t -> {
+            t.childCount().set(5);
+            t.subtreeSize().set(9L);
+        }));
+        CallerContext otherTenant = new CallerContext(USER_ID, UUID.randomUUID());
+        UUID otherRoot = as(otherTenant, () -> create(null));
+        run(otherTenant, () -> departmentRepository.updateById(otherRoot, t -> t.childCount().set(3)));
+
+        assertThat(as(tenant, () -> departmentService.rebuildClosure(true)).getStaleCounters()).isEqualTo(1);
+        assertThat(as(tenant, () -> departmentService.rebuildClosure(false)).getStaleCounters()).isEqualTo(1);
+
+        Department stored = as(tenant, () -> departmentService.getEntityById(root)).orElseThrow();
+        assertThat(stored.getChildCount()).isEqualTo(1);
+        assertThat(stored.getSubtreeSize()).isEqualTo(2L);
+        assertThat(as(otherTenant, () -> departmentService.getEntityById(otherRoot)).orElseThrow().getChildCount())
+                .isEqualTo(3);
+    }
+
+    private ClosureExtension<?, ?, ?, ?> extension() {
+        return (ClosureExtension<?, ?, ?, ?>) departmentService.getClosureOperation();
+    }
+
+    private UUID create(@Nullable UUID parentId) {
+        DepartmentCreateDTO dto = new DepartmentCreateDTO();
+        dto.setType("test");
+        dto.setName("department");
+        dto.setParentId(parentId);
+        return departmentService.createEntity(dto).getId();
+    }
+}
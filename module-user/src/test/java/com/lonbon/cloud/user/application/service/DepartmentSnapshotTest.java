@@ -0,0 +1,109 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.lonbon.cloud.base.satoken.CallerContext;
+import com.lonbon.cloud.base.service.ClosureExtension;
+import com.lonbon.cloud.base.service.HierarchySnapshot;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 层级快照的结果顺序、按租户失效和单次构建
+ */
+@TestPropertySource(properties = "closure.snapshot.enabled=true")
+class DepartmentSnapshotTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Test
+    void snapshotReadsKeepDatabaseOrder() {
+        UUID root = as(TENANT_A, () -> create(null, 0));
+        UUID third = as(TENANT_A, () -> create(root, 3));
+        UUID first = as(TENANT_A, () -> create(root, 1));
+        UUID second = as(TENANT_A, () -> create(root, 2));
+        UUID grandchild = as(TENANT_A, () -> create(first, 0));
+
+        assertThat(as(TENANT_A, () -> departmentService.getDirectChildren(root)))
+                .extracting(Department::getId).containsExactly(first, second, third);
+
+        List<Department> descendants = as(TENANT_A, () -> departmentService.getDescendants(root));
+        assertThat(descendants.subList(0, 3)).extracting(Department::getId)
+                                             .containsExactlyInAnyOrder(first, second, third);
+        assertThat(descendants.subList(0, 3)).extracting(department -> department.getId().toString())
+                                             .isSorted();
+        assertThat(descendants.getLast().getId()).isEqualTo(grandchild);
+
+        assertThat(as(TENANT_A, () -> departmentService.getAllAncestors(grandchild)))
+                .extracting(Department::getId).containsExactly(first, root);
+    }
+
+    @Test
+    void writesOfAnotherTenantKeepSnapshot() {
+        as(TENANT_A, () -> create(null, 0));
+        HierarchySnapshot before = as(TENANT_A, () -> extension().getSnapshot());
+
+        as(TENANT_B, () -> create(null, 0));
+        assertThat(as(TENANT_A, () -> extension().getSnapshot())).isSameAs(before);
+
+        as(TENANT_A, () -> create(null, 0));
+        assertThat(as(TENANT_A, () -> extension().getSnapshot())).isNotSameAs(before);
+    }
+
+    @Test
+    void concurrentReadersBuildSnapshotOnce() throws Exception {
+        CallerContext tenant = new CallerContext(USER_ID, UUID.randomUUID());
+        as(tenant, () -> create(null, 0));
+
+        int readers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            statements.reset();
+            List<Future<HierarchySnapshot>> futures = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return as(tenant, () -> extension().getSnapshot());
+                }));
+            }
+            start.countDown();
+            HierarchySnapshot snapshot = futures.getFirst().get();
+            for (Future<HierarchySnapshot> future : futures) {
+                assertThat(future.get()).isSameAs(snapshot);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(statements.statements()).filteredOn(sql -> sql.contains("sys_department_closure")).hasSize(1);
+    }
+
+    private ClosureExtension<?, ?, ?, ?> extension() {
+        return (ClosureExtension<?, ?, ?, ?>) departmentService.getClosureOperation();
+    }
+
+    private UUID create(@Nullable UUID parentId, int sortOrder) {
+        DepartmentCreateDTO dto = new DepartmentCreateDTO();
+        dto.setType("test");
+        dto.setName("department");
+        dto.setSort_order(sortOrder);
+        dto.setParentId(parentId);
+        return departmentService.createEntity(dto).getId();
+    }
+}
@@ -0,0 +1,52 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.lonbon.cloud.base.dto.TreeNode;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 树形查询中同级节点的顺序与直接子节点查询一致
+ */
+class DepartmentTreeTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Test
+    void treeChildrenFollowSortOrderThenId() {
+        UUID root = as(TENANT_A, () -> create(null, 0));
+        UUID third = as(TENANT_A, () -> create(root, 3));
+        UUID unsorted = as(TENANT_A, () -> create(root, null));
+        UUID first = as(TENANT_A, () -> create(root, 1));
+        UUID second = as(TENANT_A, () -> create(root, 2));
+        UUID grandchildB = as(TENANT_A, () -> create(first, 5));
+        UUID grandchildA = as(TENANT_A, () -> create(first, 4));
+
+        TreeNode<Department> tree = as(TENANT_A, () -> departmentService.getTree(root));
+
+        assertThat(tree.getChildren()).extracting(node -> node.getData().getId())
+                                       .containsExactly(first, second, third, unsorted)
+                                       .containsExactlyElementsOf(as(TENANT_A, () -> departmentService
+                                               .getDirectChildren(root).stream().map(Department::getId).toList()));
+        assertThat(tree.getChildren().getFirst().getChildren()).extracting(node -> node.getData().getId())
+                                                               .containsExactly(grandchildA, grandchildB);
+    }
+
+    private UUID create(@Nullable UUID parentId, @Nullable Integer sortOrder) {
+        DepartmentCreateDTO dto = new DepartmentCreateDTO();
+        dto.setType("test");
+        dto.setName("department");
+        dto.setSort_order(sortOrder);
+        dto.setParentId(parentId);
+        return departmentService.createEntity(dto).getId();
+    }
+}
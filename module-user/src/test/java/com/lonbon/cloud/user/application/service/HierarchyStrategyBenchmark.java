@@ -0,0 +1,260 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.easy.query.api.proxy.client.EasyEntityQuery;
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.repository.EasyQueryRepository;
+import com.lonbon.cloud.base.satoken.CallerContext;
+import com.lonbon.cloud.base.service.ClosureOperation;
+import com.lonbon.cloud.base.service.MaterializedPathExtension;
+import com.lonbon.cloud.base.service.SystemService;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.repository.DepartmentClosureRepository;
+import com.lonbon.cloud.user.domain.repository.DepartmentRepository;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.PathNode;
+import com.lonbon.cloud.user.support.PostgresBenchmark;
+import com.lonbon.cloud.user.support.proxy.PathNodeProxy;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 闭包表与物化路径两种层级存储策略的读写成本对比
+ * <p>
+ * 在宽、均衡、深三种形状的满树上分别测量：整树导入、后代查询、祖先查询、子节点查询、
+ * 末端新增叶子节点、移动一棵子树，并记录一棵树在两种策略下各自占用的行数。
+ * 闭包表策略使用部门（{@link DepartmentService}），物化路径策略使用测试实体 {@link PathNode}，
+ * 后者没有 Service 代理，写操作由测试以 {@link TransactionTemplate} 提供事务。
+ * </p>
+ */
+class HierarchyStrategyBenchmark extends PostgresBenchmark {
+
+    private static final List<Shape> SHAPES = List.of(new Shape("wide", 100, 3), new Shape("balanced", 4, 7),
+                                                      new Shape("deep", 1, 200));
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private DepartmentClosureRepository closureRepository;
+
+    @Autowired
+    private EasyEntityQuery easyEntityQuery;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private EasyQueryRepository<PathNode, PathNodeProxy, PathNodeProxy.PathNodeProxyFetcher> pathRepository;
+
+    private MaterializedPathExtension<PathNode, PathNodeProxy, PathNode, PathNodeProxy> pathExtension;
+
+    @BeforeAll
+    void createPathTable() {
+        new SystemService(easyEntityQuery, List.of(PathNode.class)).syncTable();
+        jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_bench_path_node_path ON bench_path_node (path text_pattern_ops)");
+        pathRepository = new EasyQueryRepository<>(easyEntityQuery, PathNode.class, proxy -> proxy.FETCHER) {
+        };
+        pathExtension = new MaterializedPathExtension<>(pathRepository);
+    }
+
+    @Test
+    void closureTable() {
+        for (Shape shape : SHAPES) {
+            compare("closure", shape, new Strategy() {
+                @Override
+                public List<UUID> importTree(List<TreeImportNode<String>> nodes) {
+                    List<TreeImportNode<DepartmentCreateDTO>> dtos = new ArrayList<>(nodes.size());
+                    for (TreeImportNode<String> node : nodes) {
+                        dtos.add(new TreeImportNode<>(node.getKey(), node.getParentKey(), department(node.getData())));
+                    }
+                    return ids(departmentService.importDepartments(null, dtos));
+                }
+
+                @Override
+                public UUID createLeaf(UUID parentId) {
+                    DepartmentCreateDTO leaf = department("leaf");
+                    leaf.setParentId(parentId);
+                    return departmentService.createEntity(leaf).getId();
+                }
+
+                @Override
+                public ClosureOperation<?, ?, ?, ?> operation() {
+                    return departmentService;
+                }
+
+                @Override
+                public void moveNode(UUID nodeId, UUID newParentId) {
+                    departmentService.moveNode(nodeId, newParentId);
+                }
+
+                @Override
+                public long storedRows() {
+                    return departmentRepository.count() + closureRepository.count();
+                }
+            });
+        }
+    }
+
+    @Test
+    void materializedPath() {
+        for (Shape shape : SHAPES) {
+            compare("path", shape, new Strategy() {
+                @Override
+                public List<UUID> importTree(List<TreeImportNode<String>> nodes) {
+                    List<TreeImportNode<PathNode>> pathNodes = new ArrayList<>(nodes.size());
+                    for (TreeImportNode<String> node : nodes) {
+                        pathNodes.add(new TreeImportNode<>(node.getKey(), node.getParentKey(),
+                                                           pathNode(node.getData())));
+                    }
+                    return ids(transactionTemplate.execute(status -> pathExtension.importTree(null, pathNodes)));
+                }
+
+                @Override
+                public UUID createLeaf(UUID parentId) {
+                    return transactionTemplate.execute(status -> {
+                        PathNode leaf = pathNode("leaf");
+                        leaf.setParentId(parentId);
+                        pathRepository.insert(leaf);
+                        pathExtension.postCreate(leaf);
+                        return leaf.getId();
+                    });
+                }
+
+                @Override
+                public ClosureOperation<?, ?, ?, ?> operation() {
+                    return pathExtension;
+                }
+
+                @Override
+                public void moveNode(UUID nodeId, UUID newParentId) {
+                    transactionTemplate.executeWithoutResult(status -> pathExtension.moveNode(nodeId, newParentId));
+                }
+
+                @Override
+                public long storedRows() {
+                    return pathRepository.count();
+                }
+            });
+        }
+    }
+
+    /**
+     * 在同一形状上测量一种策略的读写成本
+     * <p>
+     * 导入的计时在独立的租户中进行，存储行数和其余场景使用另一个只导入过一棵树的租户。
+     * </p>
+     */
+    private void compare(String strategyName, Shape shape, Strategy strategy) {
+        String prefix = strategyName + " " + shape.name() + " (" + shape.size() + " nodes)";
+        CallerContext importTenant = new CallerContext(USER_ID, UUID.randomUUID());
+        CallerContext tenant = new CallerContext(USER_ID, UUID.randomUUID());
+
+        report.measure(prefix + " import", shape.size(),
+                       () -> run(importTenant, () -> strategy.importTree(shape.tree())));
+
+        List<UUID> nodes = as(tenant, () -> strategy.importTree(shape.tree()));
+        report.note(prefix + " stored rows: " + as(tenant, strategy::storedRows));
+
+        UUID root = nodes.getFirst();
+        UUID deepest = nodes.getLast();
+        UUID subtree = nodes.get(1);
+        UUID otherRoot = as(tenant, () -> strategy.importTree(new Shape("single", 1, 1).tree())).getFirst();
+        ClosureOperation<?, ?, ?, ?> operation = strategy.operation();
+
+        report.measure(prefix + " descendants of root", shape.size() - 1, () -> assertThat(
+                as(tenant, () -> operation.getDescendants(root))).hasSize(shape.size() - 1));
+        report.measure(prefix + " ancestors of deepest", shape.levels() - 1, () -> assertThat(
+                as(tenant, () -> operation.getAllAncestors(deepest))).hasSize(shape.levels() - 1));
+        report.measure(prefix + " children of root", shape.fanout(), () -> assertThat(
+                as(tenant, () -> operation.getDirectChildren(root))).hasSize(shape.fanout()));
+        report.measure(prefix + " insert leaf at deepest", 1, () -> run(tenant, () -> strategy.createLeaf(deepest)));
+
+        UUID[] parent = {root};
+        report.measure(prefix + " move subtree", (shape.size() - 1) / shape.fanout(), () -> run(tenant, () -> {
+            parent[0] = parent[0].equals(root) ? otherRoot : root;
+            strategy.moveNode(subtree, parent[0]);
+        }));
+    }
+
+    private static DepartmentCreateDTO department(String name) {
+        DepartmentCreateDTO dto = new DepartmentCreateDTO();
+        dto.setType("benchmark");
+        dto.setName(name);
+        return dto;
+    }
+
+    private static PathNode pathNode(String name) {
+        PathNode node = new PathNode();
+        node.setName(name);
+        return node;
+    }
+
+    private static List<UUID> ids(List<? extends BaseEntity> entities) {
+        return entities.stream().map(BaseEntity::getId).toList();
+    }
+
+    /**
+     * 满树的形状
+     *
+     * @param name   名称
+     * @param fanout 每个节点的子节点数
+     * @param levels 层数
+     */
+    private record Shape(String name, int fanout, int levels) {
+
+        int size() {
+            int size = 0;
+            int level = 1;
+            for (int i = 0; i < levels; i++) {
+                size += level;
+                level *= fanout;
+            }
+            return size;
+        }
+
+        /**
+         * 按层序编号的导入节点，节点 i 的父节点为 (i - 1) / fanout
+         */
+        List<TreeImportNode<String>> tree() {
+            int size = size();
+            List<TreeImportNode<String>> nodes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String parentKey = i == 0 ? null : String.valueOf((i - 1) / fanout);
+                nodes.add(new TreeImportNode<>(String.valueOf(i), parentKey, "node-" + i));
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * 一种层级存储策略的读写入口
+     */
+    private interface Strategy {
+
+        List<UUID> importTree(List<TreeImportNode<String>> nodes);
+
+        UUID createLeaf(UUID parentId);
+
+        ClosureOperation<?, ?, ?, ?> operation();
+
+        void moveNode(UUID nodeId, UUID newParentId);
+
+        long storedRows();
+    }
+}
@@ -0,0 +1,73 @@
+package com.lonbon.cloud.user.application.service;
+
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.BenchmarkReport;
+import com.lonbon.cloud.user.support.PostgresBenchmark;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 整棵子树移动的耗时随子树规模的变化
+ * <p>
+ * 子树为每个节点10个子节点的满树，规模为 10、1000、50000 个节点，在两个根节点之间来回移动。
+ * 断开和重连各一条语句，语句数与子树规模无关，只有改写的闭包记录数随规模增长。
+ * </p>
+ */
+class SubtreeMoveBenchmark extends PostgresBenchmark {
+
+    private static final int[] SIZES = {10, 1_000, 50_000};
+
+    private static final int FANOUT = 10;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Test
+    void moveSubtree() {
+        Map<Integer, BenchmarkReport.Sample> samples = new HashMap<>();
+        for (int size : SIZES) {
+            UUID left = as(TENANT_A, () -> importTree(null, 1)).getFirst().getId();
+            UUID right = as(TENANT_A, () -> importTree(null, 1)).getFirst().getId();
+            UUID subtreeRoot = as(TENANT_A, () -> importTree(left, size)).getFirst().getId();
+
+            UUID[] parent = {left};
+            samples.put(size, report.measure("move subtree of " + size, size, () -> run(TENANT_A, () -> {
+                parent[0] = parent[0].equals(left) ? right : left;
+                departmentService.moveNode(subtreeRoot, parent[0]);
+            })));
+
+            UUID other = parent[0].equals(left) ? right : left;
+            assertThat(as(TENANT_A, () -> departmentService.getDescendants(parent[0]))).hasSize(size);
+            assertThat(as(TENANT_A, () -> departmentService.getDescendants(other))).isEmpty();
+        }
+
+        assertThat(samples.values()).extracting(BenchmarkReport.Sample::statements)
+                                    .containsOnly(samples.get(SIZES[0]).statements());
+    }
+
+    /**
+     * 在挂载点下导入一棵指定规模的满树，返回按拓扑顺序排列的部门，第一个为子树根节点
+     */
+    private List<Department> importTree(@Nullable UUID parentId, int size) {
+        List<TreeImportNode<DepartmentCreateDTO>> nodes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            DepartmentCreateDTO dto = new DepartmentCreateDTO();
+            dto.setType("benchmark");
+            dto.setName("department-" + i);
+            nodes.add(new TreeImportNode<>(String.valueOf(i), i == 0 ? null : String.valueOf((i - 1) / FANOUT), dto));
+        }
+        return departmentService.importDepartments(parentId, nodes);
+    }
+}
@@ -0,0 +1,58 @@
+package com.lonbon.cloud.user.infrastructure.repository;
+
+import com.lonbon.cloud.base.repository.BulkOptions;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.repository.DepartmentRepository;
+import com.lonbon.cloud.user.support.BenchmarkReport;
+import com.lonbon.cloud.user.support.PostgresBenchmark;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 批量插入（COPY）与 easy-query 批量 INSERT 的吞吐量对比
+ * <p>
+ * 分别以 1000、10000、50000 行调用 {@code bulkInsert} 和 {@code insert(Collection)}，每次插入一批新实体。
+ * COPY 的语句数和 COPY 次数与行数无关（所有行非空列相同，属于同一组）。
+ * </p>
+ */
+class BulkInsertBenchmark extends PostgresBenchmark {
+
+    private static final int[] SIZES = {1_000, 10_000, 50_000};
+
+    @Autowired
+    private DepartmentRepository repository;
+
+    @Test
+    void bulkInsertAgainstBatchInsert() {
+        List<BenchmarkReport.Sample> copySamples = new ArrayList<>();
+        for (int size : SIZES) {
+            List<List<Department>> batch = new ArrayList<>(List.of(List.of()));
+            Runnable prepare = () -> batch.set(0, departments(size));
+
+            copySamples.add(report.measure("bulkInsert " + size + " rows", size, prepare, () -> run(
+                    TENANT_A, () -> repository.bulkInsert(batch.getFirst(), BulkOptions.DEFAULT))));
+            report.measure("insert(Collection) " + size + " rows", size, prepare,
+                           () -> run(TENANT_A, () -> repository.insert(batch.getFirst())));
+        }
+
+        assertThat(copySamples).extracting(BenchmarkReport.Sample::copies).containsOnly(1);
+        assertThat(copySamples).extracting(BenchmarkReport.Sample::statements)
+                               .containsOnly(copySamples.getFirst().statements());
+    }
+
+    private static List<Department> departments(int size) {
+        List<Department> departments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Department department = new Department();
+            department.setType("benchmark");
+            department.setName("department-" + i);
+            departments.add(department);
+        }
+        return departments;
+    }
+}
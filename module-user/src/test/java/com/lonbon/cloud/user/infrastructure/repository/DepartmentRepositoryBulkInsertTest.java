@@ -0,0 +1,77 @@
+package com.lonbon.cloud.user.infrastructure.repository;
+
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.base.repository.BulkOptions;
+import com.lonbon.cloud.base.repository.UpsertResult;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.repository.DepartmentRepository;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 批量插入的字段填充、约束冲突的错误码和批量插入或更新的租户隔离
+ */
+class DepartmentRepositoryBulkInsertTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentRepository repository;
+
+    @Test
+    void bulkInsertFillsAuditFieldsLikeInsert() {
+        Department single = department("single");
+        Department bulk = department("bulk");
+
+        run(TENANT_A, () -> repository.insert(single));
+        run(TENANT_A, () -> repository.bulkInsert(List.of(bulk), BulkOptions.DEFAULT));
+
+        assertThat(bulk.getId()).isNotNull();
+        for (Department department : List.of(single, bulk)) {
+            assertThat(department.getCreatedAt()).isNotNull().isEqualTo(department.getUpdatedAt());
+            assertThat(department.getCreatedBy()).isEqualTo(USER_ID).isEqualTo(department.getUpdatedBy());
+            assertThat(department.getTenantId()).isEqualTo(TENANT_A.tenantId());
+        }
+        assertThat(as(TENANT_A, () -> repository.existsById(bulk.getId()))).isTrue();
+    }
+
+    @Test
+    void duplicateKeyIsResourceAlreadyExists() {
+        Department existing = department("existing");
+        run(TENANT_A, () -> repository.insert(existing));
+
+        Department duplicate = department("duplicate");
+        duplicate.setId(existing.getId());
+
+        assertThatThrownBy(() -> run(TENANT_A, () -> repository.bulkInsert(List.of(duplicate), BulkOptions.DEFAULT)))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode())
+                        .isEqualTo(ErrorCode.RESOURCE_ALREADY_EXISTS.getCode()));
+    }
+
+    @Test
+    void upsertSkipsRowsOfAnotherTenant() {
+        Department existing = department("tenant-a");
+        run(TENANT_A, () -> repository.insert(existing));
+
+        Department foreign = department("tenant-b");
+        foreign.setId(existing.getId());
+        UpsertResult result = as(TENANT_B, () -> repository.upsertAll(List.of(foreign), List.of(BaseEntity.Fields.id),
+                                                                      List.of(Department.Fields.name)));
+
+        assertThat(result).isEqualTo(new UpsertResult(0, 0, 1));
+        assertThat(as(TENANT_A, () -> repository.getById(existing.getId())))
+                .hasValueSatisfying(department -> assertThat(department.getName()).isEqualTo("tenant-a"));
+    }
+
+    private static Department department(String name) {
+        Department department = new Department();
+        department.setName(name);
+        return department;
+    }
+}
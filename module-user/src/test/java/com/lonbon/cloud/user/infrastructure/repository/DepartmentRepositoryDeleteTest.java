@@ -0,0 +1,100 @@
+package com.lonbon.cloud.user.infrastructure.repository;
+
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.base.satoken.CallerContext;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.repository.DepartmentRepository;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 仓库删除方法的语句数量和租户隔离
+ */
+class DepartmentRepositoryDeleteTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentRepository repository;
+
+    @Test
+    void deleteByIdIssuesOneStatement() {
+        UUID id = insert(TENANT_A, 1).getFirst().getId();
+
+        List<String> sql = statements.record(
+                () -> run(TENANT_A, () -> assertThat(repository.deleteById(id)).isEqualTo(1)));
+
+        assertThat(sql).hasSize(1);
+        assertThat(as(TENANT_A, () -> repository.existsById(id))).isFalse();
+    }
+
+    @Test
+    void deleteByIdOfAnotherTenantIsNotFound() {
+        UUID id = insert(TENANT_B, 1).getFirst().getId();
+
+        assertThatThrownBy(() -> run(TENANT_A, () -> repository.deleteById(id)))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode())
+                        .isEqualTo(ErrorCode.RESOURCE_NOT_FOUND.getCode()));
+        assertThat(as(TENANT_B, () -> repository.existsById(id))).isTrue();
+    }
+
+    @Test
+    void deleteAllByIdIssuesOneStatement() {
+        List<UUID> ids = insert(TENANT_A, 3).stream().map(Department::getId).toList();
+
+        List<String> sql = statements.record(
+                () -> run(TENANT_A, () -> assertThat(repository.deleteAllById(ids)).isEqualTo(3)));
+
+        assertThat(sql).hasSize(1);
+        assertThat(as(TENANT_A, () -> repository.getAllByIds(ids))).isEmpty();
+    }
+
+    @Test
+    void deleteAllByIdAboveArrayThresholdIssuesOneStatement() {
+        List<UUID> ids = insert(TENANT_A, 150).stream().map(Department::getId).toList();
+
+        List<String> sql = statements.record(
+                () -> run(TENANT_A, () -> assertThat(repository.deleteAllById(ids)).isEqualTo(150)));
+
+        assertThat(sql).hasSize(1);
+    }
+
+    @Test
+    void deleteAllByIdSkipsRowsOfAnotherTenant() {
+        List<UUID> ids = new ArrayList<>(insert(TENANT_A, 2).stream().map(Department::getId).toList());
+        UUID foreign = insert(TENANT_B, 1).getFirst().getId();
+        ids.add(foreign);
+
+        assertThat(as(TENANT_A, () -> repository.deleteAllById(ids))).isEqualTo(2);
+        assertThat(as(TENANT_B, () -> repository.existsById(foreign))).isTrue();
+    }
+
+    @Test
+    void deleteAllEntitiesIssuesOneStatement() {
+        List<UUID> ids = insert(TENANT_A, 3).stream().map(Department::getId).toList();
+        List<Department> loaded = as(TENANT_A, () -> repository.getAllByIds(ids));
+
+        List<String> sql = statements.record(
+                () -> run(TENANT_A, () -> assertThat(repository.deleteAll(loaded)).isEqualTo(3)));
+
+        assertThat(sql).hasSize(1);
+    }
+
+    private List<Department> insert(CallerContext context, int count) {
+        List<Department> departments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Department department = new Department();
+            department.setName("department-" + i);
+            departments.add(department);
+        }
+        run(context, () -> repository.insert(departments));
+        return departments;
+    }
+}
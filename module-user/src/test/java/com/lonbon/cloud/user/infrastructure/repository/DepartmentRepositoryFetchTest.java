@@ -0,0 +1,51 @@
+package com.lonbon.cloud.user.infrastructure.repository;
+
+import com.lonbon.cloud.base.exception.BusinessException;
+import com.lonbon.cloud.base.exception.ErrorCode;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.repository.DepartmentRepository;
+import com.lonbon.cloud.user.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 按名称通过抓取器选择列（{@code fields=}）
+ */
+class DepartmentRepositoryFetchTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DepartmentRepository repository;
+
+    @Test
+    void fetchAllSelectsNamedFieldsAndId() {
+        Department department = new Department();
+        department.setType("test");
+        department.setName("fetched");
+        run(TENANT_A, () -> repository.insert(department));
+        UUID id = department.getId();
+
+        List<Department> fetched = as(TENANT_A, () -> repository.fetchAll(t -> t.id().eq(id), List.of("name")));
+
+        assertThat(fetched).singleElement().satisfies(result -> {
+            assertThat(result.getId()).isEqualTo(id);
+            assertThat(result.getName()).isEqualTo("fetched");
+            assertThat(result.getType()).isNull();
+        });
+    }
+
+    @Test
+    void unknownFieldsAreRejected() {
+        for (String field : List.of("missing", "allFields", "fetchProxy")) {
+            assertThatThrownBy(() -> as(TENANT_A, () -> repository.fetchAll(t -> {
+            }, List.of(field))))
+                    .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode())
+                            .isEqualTo(ErrorCode.INVALID_PARAMETER.getCode()));
+        }
+    }
+}
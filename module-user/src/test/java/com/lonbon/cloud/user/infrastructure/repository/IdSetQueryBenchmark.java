@@ -0,0 +1,92 @@
+package com.lonbon.cloud.user.infrastructure.repository;
+
+import com.lonbon.cloud.base.dto.TreeImportNode;
+import com.lonbon.cloud.base.satoken.CallerContext;
+import com.lonbon.cloud.user.domain.dto.DepartmentCreateDTO;
+import com.lonbon.cloud.user.domain.entity.Department;
+import com.lonbon.cloud.user.domain.service.DepartmentService;
+import com.lonbon.cloud.user.support.PostgresBenchmark;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 按ID集合查询时 IN 参数列表与 uuid 数组参数的对比
+ * <p>
+ * 同一租户下导入 50000 个部门，分别以 10 到 50000 个ID调用 {@code getAllByIds}，
+ * 一次把部门仓库的阈值调到最大强制使用 {@code IN (?, ...)}，一次阈值为 1 强制使用 {@code = ANY(?::uuid[])}。
+ * 数组参数的语句文本与ID数量无关，IN 的语句文本随ID数量变化。
+ * </p>
+ */
+class IdSetQueryBenchmark extends PostgresBenchmark {
+
+    private static final int[] SIZES = {10, 100, 1_000, 5_000, 10_000, 50_000};
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentRepositoryImpl departmentRepository;
+
+    private int threshold;
+
+    @BeforeEach
+    void saveThreshold() {
+        threshold = departmentRepository.getIdArrayThreshold();
+    }
+
+    @AfterEach
+    void restoreThreshold() {
+        departmentRepository.setIdArrayThreshold(threshold);
+    }
+
+    @Test
+    void getAllByIds() {
+        CallerContext tenant = new CallerContext(USER_ID, UUID.randomUUID());
+        List<UUID> ids = as(tenant, () -> importFlat(SIZES[SIZES.length - 1]));
+
+        Set<String> inStatements = new HashSet<>();
+        Set<String> arrayStatements = new HashSet<>();
+        for (int size : SIZES) {
+            List<UUID> subset = ids.subList(0, size);
+
+            departmentRepository.setIdArrayThreshold(Integer.MAX_VALUE);
+            inStatements.addAll(measure("IN", tenant, subset));
+
+            departmentRepository.setIdArrayThreshold(1);
+            arrayStatements.addAll(measure("uuid[]", tenant, subset));
+        }
+
+        assertThat(arrayStatements).hasSize(1);
+        assertThat(inStatements).hasSize(SIZES.length);
+    }
+
+    /**
+     * 计时一种写法，返回最后一次查询的语句
+     */
+    private List<String> measure(String mode, CallerContext tenant, List<UUID> ids) {
+        report.measure(mode + " " + ids.size() + " ids", ids.size(), () -> assertThat(
+                as(tenant, () -> departmentRepository.getAllByIds(ids))).hasSize(ids.size()));
+        return statements.record(() -> run(tenant, () -> departmentRepository.getAllByIds(ids)));
+    }
+
+    private List<UUID> importFlat(int size) {
+        List<TreeImportNode<DepartmentCreateDTO>> nodes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            DepartmentCreateDTO dto = new DepartmentCreateDTO();
+            dto.setType("benchmark");
+            dto.setName("department-" + i);
+            nodes.add(new TreeImportNode<>(String.valueOf(i), null, dto));
+        }
+        return departmentService.importDepartments(null, nodes).stream().map(Department::getId).toList();
+    }
+}
@@ -0,0 +1,158 @@
+package com.lonbon.cloud.user.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 基准测试的计时和报告
+ * <p>
+ * 每个场景先预热若干次，再计时若干次，统计最小值、中位数和 P95，同时记录最后一次执行发出的SQL语句数和 COPY 次数。
+ * 预热和计时次数可通过系统属性 {@code benchmark.warmups}、{@code benchmark.iterations} 调整。
+ * 报告以 Markdown 表格输出到控制台和 {@code target/benchmark-reports/<名称>.md}，便于提交到评审记录中对比。
+ * </p>
+ */
+public final class BenchmarkReport {
+
+    /**
+     * 预热次数
+     */
+    public static final int WARMUPS = Integer.getInteger("benchmark.warmups", 3);
+
+    /**
+     * 计时次数
+     */
+    public static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 10);
+
+    private final String name;
+
+    private final StatementCounter statements;
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    private final List<String> notes = new ArrayList<>();
+
+    public BenchmarkReport(String name, StatementCounter statements) {
+        this.name = name;
+        this.statements = statements;
+    }
+
+    /**
+     * 计时一个场景
+     *
+     * @param label      场景名称
+     * @param operations 每次执行处理的数据量（行数、节点数），用于计算吞吐量
+     * @param action     被计时的操作
+     * @return 统计结果
+     */
+    public Sample measure(String label, long operations, Runnable action) {
+        return measure(label, operations, () -> {
+        }, action);
+    }
+
+    /**
+     * 计时一个场景，每次执行前先运行不计时的准备操作
+     *
+     * @param label      场景名称
+     * @param operations 每次执行处理的数据量（行数、节点数），用于计算吞吐量
+     * @param setup      不计时的准备操作
+     * @param action     被计时的操作
+     * @return 统计结果
+     */
+    public Sample measure(String label, long operations, Runnable setup, Runnable action) {
+        for (int i = 0; i < WARMUPS; i++) {
+            setup.run();
+            action.run();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            setup.run();
+            statements.reset();
+            long start = System.nanoTime();
+            action.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        Sample sample = new Sample(label, operations, ITERATIONS, millis(nanos[0]), millis(nanos[ITERATIONS / 2]),
+                                   millis(nanos[Math.min(ITERATIONS - 1, (int) Math.ceil(ITERATIONS * 0.95) - 1)]),
+                                   statements.statements().size(), statements.copies());
+        samples.add(sample);
+        return sample;
+    }
+
+    /**
+     * 添加附注，输出在表格之后，用于记录数据规模等不计时的结果
+     *
+     * @param note 附注
+     */
+    public void note(String note) {
+        notes.add(note);
+    }
+
+    /**
+     * 输出报告
+     */
+    public void write() {
+        StringBuilder report = new StringBuilder();
+        report.append("## ").append(name).append("\n\n")
+              .append("- time: ").append(OffsetDateTime.now()).append('\n')
+              .append("- jvm: ").append(System.getProperty("java.vm.name")).append(' ')
+              .append(System.getProperty("java.version")).append('\n')
+              .append("- warmups/iterations: ").append(WARMUPS).append('/').append(ITERATIONS).append("\n\n")
+              .append("| scenario | ops | min ms | median ms | p95 ms | ops/s | statements | copies |\n")
+              .append("|---|---:|---:|---:|---:|---:|---:|---:|\n");
+        for (Sample sample : samples) {
+            report.append(String.format(Locale.ROOT, "| %s | %d | %.2f | %.2f | %.2f | %.0f | %d | %d |%n",
+                                        sample.label(), sample.operations(), sample.minMillis(),
+                                        sample.medianMillis(), sample.p95Millis(), sample.throughput(),
+                                        sample.statements(), sample.copies()));
+        }
+        if (!notes.isEmpty()) {
+            report.append('\n');
+            notes.forEach(note -> report.append("- ").append(note).append('\n'));
+        }
+        System.out.println(report);
+        try {
+            Path directory = Path.of("target", "benchmark-reports");
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve(name + ".md"), report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * 单个场景的统计结果
+     *
+     * @param label        场景名称
+     * @param operations   每次执行处理的数据量
+     * @param iterations   计时次数
+     * @param minMillis    最小耗时（毫秒）
+     * @param medianMillis 耗时中位数（毫秒）
+     * @param p95Millis    P95 耗时（毫秒）
+     * @param statements   最后一次执行发出的SQL语句数
+     * @param copies       最后一次执行的 COPY 次数
+     */
+    public record Sample(String label, long operations, int iterations, double minMillis, double medianMillis,
+                         double p95Millis, int statements, int copies) {
+
+        /**
+         * 按中位数计算的每秒处理量
+         *
+         * @return 每秒处理的数据量
+         */
+        public double throughput() {
+            return medianMillis > 0 ? operations * 1000.0 / medianMillis : 0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.lonbon.cloud.user.support;
+
+import com.easy.query.core.annotation.EntityProxy;
+import com.easy.query.core.annotation.Table;
+import com.easy.query.core.proxy.ProxyEntityAvailable;
+import com.lonbon.cloud.base.entity.BaseEntity;
+import com.lonbon.cloud.base.entity.TableIndex;
+import com.lonbon.cloud.base.service.PathAvailable;
+import com.lonbon.cloud.user.support.proxy.PathNodeProxy;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.FieldNameConstants;
+
+import java.util.UUID;
+
+/**
+ * 以物化路径存储层级结构的测试实体
+ * <p>
+ * 业务实体都使用闭包表，基准测试用该实体对比 {@link com.lonbon.cloud.base.service.MaterializedPathExtension}。
+ * path 列的前缀匹配索引（{@code text_pattern_ops}）无法通过 {@link TableIndex} 声明，由测试建表后单独创建。
+ * </p>
+ */
+@Data
+@FieldNameConstants
+@EqualsAndHashCode(callSuper = true)
+@Table(value = "bench_path_node", ignoreProperties = {BaseEntity.Fields.departmentId})
+@TableIndex(columns = PathNode.Fields.parentId)
+@EntityProxy
+public class PathNode extends BaseEntity implements ProxyEntityAvailable<PathNode, PathNodeProxy>, PathAvailable {
+
+    private String name;
+
+    private UUID parentId;
+
+    private String path;
+
+    private Integer depth;
+}
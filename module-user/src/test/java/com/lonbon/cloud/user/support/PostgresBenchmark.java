@@ -0,0 +1,30 @@
+package com.lonbon.cloud.user.support;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+
+/**
+ * 基于 PostgreSQL 容器的基准测试基类
+ * <p>
+ * 标记为 {@code benchmark}，默认构建不执行，通过 {@code -Pbenchmark} 运行。
+ * 基准测试同时断言语句数量等结构性结论（例如语句数不随数据量增长），耗时只记录到报告中，不参与断言。
+ * </p>
+ *
+ * @see BenchmarkReport
+ */
+@Tag("benchmark")
+public abstract class PostgresBenchmark extends PostgresIntegrationTest {
+
+    protected BenchmarkReport report;
+
+    @BeforeAll
+    void createReport() {
+        report = new BenchmarkReport(getClass().getSimpleName(), statements);
+    }
+
+    @AfterAll
+    void writeReport() {
+        report.write();
+    }
+}
@@ -0,0 +1,83 @@
+package com.lonbon.cloud.user.support;
+
+import com.lonbon.cloud.base.satoken.CallerContext;
+import com.lonbon.cloud.base.satoken.SaTokenHelper;
+import com.lonbon.cloud.base.service.SystemService;
+import com.lonbon.cloud.user.app.App;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 基于 PostgreSQL 容器的集成测试基类
+ * <p>
+ * 每个测试类启动一个独立的 PostgreSQL 容器和 Spring 上下文，启动后通过 code first 同步表结构和索引。
+ * 没有可用的 Docker 环境时测试被跳过。仓库的租户过滤和审计字段依赖调用方上下文，
+ * 测试通过 {@link #as} 以指定的用户和租户执行操作。
+ * </p>
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(StatementCounter.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public abstract class PostgresIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:17-alpine");
+
+    protected static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+
+    protected static final CallerContext TENANT_A =
+            new CallerContext(USER_ID, UUID.fromString("00000000-0000-0000-0000-00000000000a"));
+
+    protected static final CallerContext TENANT_B =
+            new CallerContext(USER_ID, UUID.fromString("00000000-0000-0000-0000-00000000000b"));
+
+    @Autowired
+    protected StatementCounter statements;
+
+    @Autowired
+    private SystemService systemService;
+
+    @BeforeAll
+    void syncSchema() {
+        systemService.syncTable();
+    }
+
+    /**
+     * 以指定的调用方上下文执行操作
+     *
+     * @param context 调用方上下文
+     * @param action  操作
+     * @param <R>     返回值类型
+     * @return 操作的返回值
+     */
+    protected static <R> R as(CallerContext context, Supplier<R> action) {
+        return SaTokenHelper.callWithContext(context, action::get);
+    }
+
+    /**
+     * 以指定的调用方上下文执行操作
+     *
+     * @param context 调用方上下文
+     * @param action  操作
+     */
+    protected static void run(CallerContext context, Runnable action) {
+        SaTokenHelper.callWithContext(context, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.lonbon.cloud.user.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 统计测试期间发出的 SQL 语句
+ * <p>
+ * 把容器中的 {@link DataSource} 包装一层，记录每次 {@code prepareStatement}/{@code createStatement}/{@code prepareCall}
+ * 的 SQL。同一条语句以 JDBC batch 执行多组参数时只记一次，与数据库往返次数一致；
+ * PostgreSQL COPY 通过驱动的 CopyManager 执行，不经过这些方法，单独通过 {@link #copies()} 统计。
+ * </p>
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "createStatement", "prepareCall");
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<String> copies = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * 清空已记录的语句
+     */
+    public void reset() {
+        statements.clear();
+        copies.clear();
+    }
+
+    /**
+     * 清空记录后执行操作，返回操作期间发出的语句
+     *
+     * @param action 操作
+     * @return 操作期间发出的语句
+     */
+    public List<String> record(Runnable action) {
+        reset();
+        action.run();
+        return statements();
+    }
+
+    /**
+     * 已记录的语句
+     *
+     * @return 按执行顺序排列的 SQL
+     */
+    public List<String> statements() {
+        synchronized (statements) {
+            return List.copyOf(statements);
+        }
+    }
+
+    /**
+     * 已记录的 COPY 操作，每次取出 PostgreSQL 原生连接记一次
+     *
+     * @return COPY 操作次数
+     */
+    public int copies() {
+        return copies.size();
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (STATEMENT_METHODS.contains(method.getName())) {
+                        statements.add(args != null && args.length > 0 && args[0] instanceof String sql ? sql
+                                                                                                       : "<statement>");
+                    } else if (method.getName().equals("unwrap") && args != null && args[0] instanceof Class<?> type
+                            && type.getName().equals("org.postgresql.PGConnection")) {
+                        copies.add(type.getName());
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private final class CountingDataSource extends DelegatingDataSource {
+
+        private CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+    }
+}